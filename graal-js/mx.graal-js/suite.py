@@ -358,6 +358,22 @@ suite = {
       "workingSets" : "Truffle,JavaScript",
     },
 
+    "com.oracle.truffle.js.test" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "mx:JUNIT",
+        "sdk:GRAAL_SDK",
+        "com.oracle.truffle.js.nodes",
+        "com.oracle.truffle.js.parser",
+      ],
+      "annotationProcessors" : ["truffle:TRUFFLE_DSL_PROCESSOR"],
+      "checkstyle" : "com.oracle.truffle.js.runtime",
+      "javaCompliance" : "1.8",
+      "workingSets" : "Truffle,JavaScript",
+      "testProject" : True,
+    },
+
     "com.oracle.truffle.js.test.instrumentation" : {
       "subDir" : "src",
       "sourceDirs" : ["src"],
@@ -457,7 +473,10 @@ suite = {
     "GRAALJS" : {
       "moduleName" : "org.graalvm.js",
       "subDir" : "src",
-      "dependencies" : ["com.oracle.truffle.js.parser"],
+      "dependencies" : [
+        "com.oracle.truffle.js.parser",
+        "com.oracle.truffle.js.snapshot",
+      ],
       "distDependencies" : [
         "regex:TREGEX",
         "truffle:TRUFFLE_API",
@@ -555,7 +574,7 @@ suite = {
     },
 
     "TRUFFLE_JS_TESTS" : {
-      "dependencies" : ["com.oracle.truffle.js.test.external", "com.oracle.truffle.js.test.instrumentation", "com.oracle.truffle.js.test.threading"],
+      "dependencies" : ["com.oracle.truffle.js.test", "com.oracle.truffle.js.test.external", "com.oracle.truffle.js.test.instrumentation", "com.oracle.truffle.js.test.threading"],
       "exclude" : [
         "mx:HAMCREST",
         "mx:JUNIT",
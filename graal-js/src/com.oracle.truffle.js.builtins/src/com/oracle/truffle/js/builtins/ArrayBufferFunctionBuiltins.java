@@ -40,14 +40,30 @@
  */
 package com.oracle.truffle.js.builtins;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.builtins.ArrayBufferFunctionBuiltinsFactory.JSArrayBufferMapFileNodeGen;
+import com.oracle.truffle.js.builtins.ArrayBufferFunctionBuiltinsFactory.JSArrayBufferUnmapNodeGen;
 import com.oracle.truffle.js.builtins.ArrayBufferFunctionBuiltinsFactory.JSIsArrayBufferViewNodeGen;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
+import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSDataView;
+import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
  * Contains builtins for {@linkplain JSArrayBuffer} function (constructor).
@@ -68,4 +84,82 @@ public final class ArrayBufferFunctionBuiltins extends JSBuiltinsContainer.Lambd
             return JSArrayBufferView.isJSArrayBufferView(object) || JSDataView.isJSDataView(object);
         }
     }
+
+    /**
+     * Non-standard ArrayBuffer functions, available with the {@code js.mapped-array-buffer} option.
+     */
+    public static final class MappedArrayBufferFunctionBuiltins extends JSBuiltinsContainer.Lambda {
+        public MappedArrayBufferFunctionBuiltins() {
+            super(JSArrayBuffer.CLASS_NAME_MAPPED_EXTENSIONS);
+            defineFunction("mapFile", 1, (context, builtin) -> JSArrayBufferMapFileNodeGen.create(context, builtin, args().fixedArgs(4).createArgumentNodes(context)));
+            defineFunction("unmap", 1, (context, builtin) -> JSArrayBufferUnmapNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context)));
+        }
+    }
+
+    /**
+     * ArrayBuffer.mapFile(file, offset = 0, length = size - offset, writeThrough = false): creates
+     * an ArrayBuffer backed by a memory-mapped region of the file. Without writeThrough, the file
+     * is only opened for reading and the region is read into a private buffer.
+     */
+    public abstract static class JSArrayBufferMapFileNode extends JSBuiltinNode {
+        public JSArrayBufferMapFileNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        protected final DynamicObject mapFile(Object fileParam, Object offsetParam, Object lengthParam, Object writeThroughParam) {
+            Object file = GlobalBuiltins.getFileFromArgument(fileParam, getContext().getRealm().getEnv());
+            long offset = offsetParam == Undefined.instance ? 0 : JSRuntime.toInteger(offsetParam);
+            boolean writeThrough = JSRuntime.toBoolean(writeThroughParam);
+            try (FileChannel channel = openChannel(file, writeThrough)) {
+                long fileSize = channel.size();
+                if (offset < 0 || offset > fileSize) {
+                    throw Errors.createRangeError("Start offset " + offset + " is outside the bounds of the file");
+                }
+                long length = lengthParam == Undefined.instance ? fileSize - offset : JSRuntime.toInteger(lengthParam);
+                if (length < 0 || length > fileSize - offset) {
+                    throw Errors.createRangeError("Invalid length " + length + " for a file of size " + fileSize);
+                } else if (length > Integer.MAX_VALUE) {
+                    throw Errors.createRangeError("Invalid array buffer length");
+                }
+                return JSArrayBuffer.createMappedArrayBuffer(getContext(), channel, offset, (int) length, writeThrough);
+            } catch (IOException | UnsupportedOperationException | SecurityException ex) {
+                throw Errors.createErrorFromException(ex);
+            }
+        }
+
+        private static FileChannel openChannel(Object file, boolean writeThrough) throws IOException {
+            Set<StandardOpenOption> options = writeThrough ? EnumSet.of(StandardOpenOption.READ, StandardOpenOption.WRITE) : EnumSet.of(StandardOpenOption.READ);
+            if (file instanceof TruffleFile) {
+                SeekableByteChannel channel = ((TruffleFile) file).newByteChannel(options);
+                if (!(channel instanceof FileChannel)) {
+                    channel.close();
+                    throw new UnsupportedOperationException("file system does not support memory-mapped files");
+                }
+                return (FileChannel) channel;
+            } else {
+                return FileChannel.open(((File) file).toPath(), options);
+            }
+        }
+    }
+
+    /**
+     * ArrayBuffer.unmap(buffer): detaches a buffer created by ArrayBuffer.mapFile and releases the
+     * mapping without waiting for the garbage collector.
+     */
+    public abstract static class JSArrayBufferUnmapNode extends JSBuiltinNode {
+        public JSArrayBufferUnmapNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        protected final Object unmap(Object buffer) {
+            if (!JSArrayBuffer.isJSDirectArrayBuffer(buffer) || !JSArrayBuffer.isMappedArrayBuffer((DynamicObject) buffer)) {
+                throw Errors.createTypeError("ArrayBuffer created by ArrayBuffer.mapFile expected");
+            }
+            JSArrayBuffer.unmapArrayBuffer((DynamicObject) buffer);
+            return Undefined.instance;
+        }
+    }
 }
@@ -40,30 +40,19 @@
  */
 package com.oracle.truffle.js.builtins;
 
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.interop.TruffleObject;
-import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.api.profiles.BranchProfile;
-import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.builtins.ArrayIteratorPrototypeBuiltinsFactory.ArrayIteratorNextNodeGen;
+import com.oracle.truffle.js.nodes.access.BuiltinIteratorStepNode;
 import com.oracle.truffle.js.nodes.access.CreateIterResultObjectNode;
-import com.oracle.truffle.js.nodes.access.HasHiddenKeyCacheNode;
-import com.oracle.truffle.js.nodes.access.JSGetLengthNode;
-import com.oracle.truffle.js.nodes.access.PropertyGetNode;
-import com.oracle.truffle.js.nodes.access.PropertySetNode;
-import com.oracle.truffle.js.nodes.access.ReadElementNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
-import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
-import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
@@ -99,71 +88,22 @@ public final class ArrayIteratorPrototypeBuiltins extends JSBuiltinsContainer.Sw
     }
 
     public abstract static class ArrayIteratorNextNode extends JSBuiltinNode {
-        @Child private HasHiddenKeyCacheNode isArrayIteratorNode;
-        @Child private PropertyGetNode getIteratedObjectNode;
-        @Child private PropertyGetNode getNextIndexNode;
-        @Child private PropertyGetNode getIterationKindNode;
-        @Child private PropertySetNode setNextIndexNode;
-        @Child private PropertySetNode setIteratedObjectNode;
+        @Child private BuiltinIteratorStepNode iteratorStepNode;
         @Child private CreateIterResultObjectNode createIterResultObjectNode;
-        @Child private JSGetLengthNode getLengthNode;
-        @Child private ReadElementNode readElementNode;
-        private final ConditionProfile intIndexProfile;
-        private final BranchProfile errorBranch;
 
         public ArrayIteratorNextNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
-            this.isArrayIteratorNode = HasHiddenKeyCacheNode.create(JSArray.ARRAY_ITERATION_KIND_ID);
-            this.getIteratedObjectNode = PropertyGetNode.createGetHidden(JSRuntime.ITERATED_OBJECT_ID, context);
-            this.getNextIndexNode = PropertyGetNode.createGetHidden(JSRuntime.ITERATOR_NEXT_INDEX, context);
-            this.getIterationKindNode = PropertyGetNode.createGetHidden(JSArray.ARRAY_ITERATION_KIND_ID, context);
-            this.setIteratedObjectNode = PropertySetNode.createSetHidden(JSRuntime.ITERATED_OBJECT_ID, context);
-            this.setNextIndexNode = PropertySetNode.createSetHidden(JSRuntime.ITERATOR_NEXT_INDEX, context);
+            this.iteratorStepNode = BuiltinIteratorStepNode.createArrayIteratorStep(context);
             this.createIterResultObjectNode = CreateIterResultObjectNode.create(context);
-            this.intIndexProfile = ConditionProfile.createBinaryProfile();
-            this.errorBranch = BranchProfile.create();
         }
 
         @Specialization(guards = "isArrayIterator(iterator)")
         protected DynamicObject doArrayIterator(VirtualFrame frame, DynamicObject iterator) {
-            Object array = getIteratedObjectNode.getValue(iterator);
-            if (array == Undefined.instance) {
+            Object value = iteratorStepNode.execute(iterator);
+            if (value == null) {
                 return createIterResultObjectNode.execute(frame, Undefined.instance, true);
             }
-
-            long index = getNextIndex(iterator);
-            int itemKind = getIterationKind(iterator);
-            long length;
-            if (JSArrayBufferView.isJSArrayBufferView(array)) {
-                DynamicObject typedArray = (DynamicObject) array;
-                if (JSArrayBufferView.hasDetachedBuffer(typedArray, getContext())) {
-                    errorBranch.enter();
-                    throw Errors.createTypeError("Cannot perform Array Iterator.prototype.next on a detached ArrayBuffer");
-                }
-                length = JSArrayBufferView.typedArrayGetLength(typedArray);
-            } else {
-                length = getLength().executeLong((TruffleObject) array);
-            }
-
-            if (index >= length) {
-                setIteratedObjectNode.setValue(iterator, Undefined.instance);
-                return createIterResultObjectNode.execute(frame, Undefined.instance, true);
-            }
-
-            setNextIndexNode.setValue(iterator, index + 1);
-            if (itemKind == JSRuntime.ITERATION_KIND_KEY) {
-                return createIterResultObjectNode.execute(frame, indexToJS(index), false);
-            }
-
-            Object elementValue = readElement().executeWithTargetAndIndex(array, index);
-            Object result;
-            if (itemKind == JSRuntime.ITERATION_KIND_VALUE) {
-                result = elementValue;
-            } else {
-                assert itemKind == JSRuntime.ITERATION_KIND_KEY_PLUS_VALUE;
-                result = JSArray.createConstantObjectArray(getContext(), new Object[]{indexToJS(index), elementValue});
-            }
-            return createIterResultObjectNode.execute(frame, result, false);
+            return createIterResultObjectNode.execute(frame, value, false);
         }
 
         @SuppressWarnings("unused")
@@ -173,48 +113,7 @@ public final class ArrayIteratorPrototypeBuiltins extends JSBuiltinsContainer.Sw
         }
 
         protected final boolean isArrayIterator(Object thisObj) {
-            // If the [[ArrayIterationKind]] internal slot is present, the others must be as well.
-            return isArrayIteratorNode.executeHasHiddenKey(thisObj);
-        }
-
-        private long getNextIndex(DynamicObject iterator) {
-            try {
-                return getNextIndexNode.getValueLong(iterator);
-            } catch (UnexpectedResultException e) {
-                throw Errors.shouldNotReachHere();
-            }
-        }
-
-        private int getIterationKind(DynamicObject iterator) {
-            try {
-                return getIterationKindNode.getValueInt(iterator);
-            } catch (UnexpectedResultException e) {
-                throw Errors.shouldNotReachHere();
-            }
-        }
-
-        private Object indexToJS(long index) {
-            if (intIndexProfile.profile(JSRuntime.longIsRepresentableAsInt(index))) {
-                return (int) index;
-            } else {
-                return (double) index;
-            }
-        }
-
-        private ReadElementNode readElement() {
-            if (readElementNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                readElementNode = insert(ReadElementNode.create(getContext()));
-            }
-            return readElementNode;
-        }
-
-        private JSGetLengthNode getLength() {
-            if (getLengthNode == null) {
-                CompilerDirectives.transferToInterpreterAndInvalidate();
-                getLengthNode = insert(JSGetLengthNode.create(getContext()));
-            }
-            return getLengthNode;
+            return iteratorStepNode.isIterator(thisObj);
         }
     }
 }
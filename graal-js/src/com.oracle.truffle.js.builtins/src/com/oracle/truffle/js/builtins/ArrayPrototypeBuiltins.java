@@ -52,6 +52,7 @@ import java.util.Set;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.ImportStatic;
@@ -64,6 +65,7 @@ import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
+import com.oracle.truffle.api.source.SourceSection;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.DeleteAndSetLengthNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.FlattenIntoArrayNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayConcatNodeGen;
@@ -93,6 +95,7 @@ import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArraySplic
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayToLocaleStringNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayToStringNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayUnshiftNodeGen;
+import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.NumericComparatorOrderNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltins.DebugIsHolesArrayNode;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugIsHolesArrayNodeGen;
 import com.oracle.truffle.js.nodes.JSGuards;
@@ -167,6 +170,7 @@ import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropNodeUtil;
 import com.oracle.truffle.js.runtime.util.DelimitedStringBuilder;
 import com.oracle.truffle.js.runtime.util.Pair;
+import com.oracle.truffle.js.runtime.util.PrimitiveArraySort;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 
 /**
@@ -2324,6 +2328,48 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
         }
     }
 
+    /**
+     * Determines whether a comparator function compares its arguments numerically, see
+     * {@link PrimitiveArraySort#numericComparatorOrder}. The result is cached per function data.
+     */
+    protected abstract static class NumericComparatorOrderNode extends JavaScriptBaseNode {
+
+        public static NumericComparatorOrderNode create() {
+            return NumericComparatorOrderNodeGen.create();
+        }
+
+        /**
+         * @return the order the comparator sorts in, or {@code null} if it is not known to compare
+         *         numerically
+         */
+        public abstract PrimitiveArraySort.Order execute(DynamicObject compareFn);
+
+        @Specialization(guards = "getFunctionData(compareFn) == cachedFunctionData", limit = "1")
+        protected static PrimitiveArraySort.Order doCached(@SuppressWarnings("unused") DynamicObject compareFn,
+                        @Cached("getFunctionData(compareFn)") @SuppressWarnings("unused") JSFunctionData cachedFunctionData,
+                        @Cached("numericComparatorOrder(compareFn)") PrimitiveArraySort.Order order) {
+            return order;
+        }
+
+        @Specialization(replaces = "doCached")
+        protected static PrimitiveArraySort.Order doUncached(DynamicObject compareFn) {
+            return numericComparatorOrder(compareFn);
+        }
+
+        protected static JSFunctionData getFunctionData(DynamicObject compareFn) {
+            return JSFunction.getFunctionData(compareFn);
+        }
+
+        @TruffleBoundary
+        protected static PrimitiveArraySort.Order numericComparatorOrder(DynamicObject compareFn) {
+            SourceSection sourceSection = ((RootCallTarget) JSFunction.getCallTarget(compareFn)).getRootNode().getSourceSection();
+            if (sourceSection == null || !sourceSection.isAvailable() || sourceSection.getSource().isInternal()) {
+                return null;
+            }
+            return PrimitiveArraySort.numericComparatorOrder(sourceSection.getCharacters());
+        }
+    }
+
     public abstract static class JSArraySortNode extends JSArrayOperation {
 
         @Child private DeletePropertyNode deletePropertyNode; // DeletePropertyOrThrow
@@ -2333,6 +2379,8 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
         private final BranchProfile hasCompareFnBranch = BranchProfile.create();
         private final BranchProfile noCompareFnBranch = BranchProfile.create();
         private final BranchProfile growProfile = BranchProfile.create();
+        private final BranchProfile primitiveSortBranch = BranchProfile.create();
+        @Child private NumericComparatorOrderNode numericComparatorOrderNode;
 
         public JSArraySortNode(JSContext context, JSBuiltin builtin, boolean isTypedArrayImplementation) {
             super(context, builtin, isTypedArrayImplementation);
@@ -2357,6 +2405,8 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
                     throw Errors.createTypeError("cannot write to frozen object");
                 }
                 array = getArraySparse(thisObj, scriptArray, len);
+            } else if (isPrimitiveSortable(scriptArray) && sortPrimitive(thisObj, scriptArray, compare, (int) len)) {
+                return thisObj;
             } else {
                 arrayIsDefaultBranch.enter();
                 array = arrayToObjectArrayNode.executeObjectArray(thisObj);
@@ -2382,6 +2432,40 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             return thisObj;
         }
 
+        private static boolean isPrimitiveSortable(ScriptArray scriptArray) {
+            return (scriptArray instanceof AbstractIntArray || scriptArray instanceof AbstractDoubleArray) && !scriptArray.isFrozen();
+        }
+
+        /**
+         * Sorts the int/double storage of a hole-free array in place if the order can be
+         * determined without calling the comparator, i.e., for the default comparator and for
+         * {@code (a, b) => a - b} or {@code (a, b) => b - a}.
+         */
+        private boolean sortPrimitive(DynamicObject thisObj, ScriptArray scriptArray, Object compare, int len) {
+            PrimitiveArraySort.Order order;
+            if (compare == Undefined.instance) {
+                order = PrimitiveArraySort.Order.DEFAULT;
+            } else if (JSFunction.isJSFunction(compare) && !JSFunction.isBoundFunction((DynamicObject) compare)) {
+                if (numericComparatorOrderNode == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    numericComparatorOrderNode = insert(NumericComparatorOrderNode.create());
+                }
+                order = numericComparatorOrderNode.execute((DynamicObject) compare);
+                if (order == null) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+            primitiveSortBranch.enter();
+            if (scriptArray instanceof AbstractIntArray) {
+                ((AbstractIntArray) scriptArray).sortInPlace(thisObj, len, order);
+                return true;
+            } else {
+                return ((AbstractDoubleArray) scriptArray).sortInPlace(thisObj, len, order);
+            }
+        }
+
         private void delete(TruffleObject obj, Object i) {
             if (deletePropertyNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -197,6 +197,7 @@ import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
+import com.oracle.truffle.js.runtime.util.WeakKeyTable;
 import com.oracle.truffle.js.runtime.util.WeakMap;
 
 /**
@@ -1333,7 +1334,9 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
     }
 
     /**
-     * Create (and potentially cache) dynamic function from parameter list and body strings.
+     * Create (and potentially cache) dynamic function from parameter list and body strings. Besides
+     * the per-node cache, the evaluator consults the context-wide {@code EvalCache}, so a miss here
+     * does not necessarily reparse.
      */
     abstract static class CreateDynamicFunctionNode extends JavaScriptBaseNode {
         private final boolean generatorFunction;
@@ -1879,7 +1882,10 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
         }
 
         @TruffleBoundary
-        protected static Map<DynamicObject, Object> constructWeakHashMap() {
+        protected static Map<DynamicObject, Object> constructWeakHashMap(JSContext context) {
+            if (context.isOptionWeakKeyTable()) {
+                return new WeakKeyTable();
+            }
             return new WeakHashMap<>();
         }
 
@@ -1887,7 +1893,7 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
         @Specialization
         protected DynamicObject constructSet(DynamicObject newTarget, Object iterable) {
             JSContext context = getContext();
-            DynamicObject setObj = JSObject.create(context, context.getWeakSetFactory(), constructWeakHashMap());
+            DynamicObject setObj = JSObject.create(context, context.getWeakSetFactory(), constructWeakHashMap(context));
             fillWithIterable(setObj, iterable);
             return swapPrototype(setObj, newTarget);
         }
@@ -1905,7 +1911,10 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
         }
 
         @TruffleBoundary
-        protected static Map<DynamicObject, Object> constructWeakMap() {
+        protected static Map<DynamicObject, Object> constructWeakMap(JSContext context) {
+            if (context.isOptionWeakKeyTable()) {
+                return new WeakKeyTable();
+            }
             return new WeakMap();
         }
 
@@ -1913,7 +1922,7 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
         @Specialization
         protected DynamicObject constructMap(DynamicObject newTarget, Object iterable) {
             JSContext context = getContext();
-            DynamicObject mapObj = JSObject.create(context, context.getWeakMapFactory(), constructWeakMap());
+            DynamicObject mapObj = JSObject.create(context, context.getWeakMapFactory(), constructWeakMap(context));
             fillWithIterable(mapObj, iterable);
             return swapPrototype(mapObj, newTarget);
         }
@@ -997,7 +997,7 @@ public final class DatePrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<
                 return iday;
             } else {
                 dstNeededProfile.enter();
-                timeInDay += JSDate.daylightSavingTA(context.getLocalTimeZoneId(), t);
+                timeInDay += JSDate.daylightSavingTA(context, t);
                 return (timeInDay < JSDate.MS_PER_DAY) ? iday : (iday + 1);
             }
         }
@@ -86,6 +86,7 @@ import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugObjectSizeNodeGe
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugPrintObjectNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugPrintSourceAttributionNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugShapeNodeGen;
+import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugSparseArrayStatsNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugStringCompareNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugSystemGCNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugSystemPropertiesNodeGen;
@@ -114,6 +115,8 @@ import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.LargeInteger;
 import com.oracle.truffle.js.runtime.Symbol;
+import com.oracle.truffle.js.runtime.array.SparseArray;
+import com.oracle.truffle.js.runtime.array.SparseArrayPageTable;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSAbstractBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
@@ -156,6 +159,7 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
         continueInInterpreter(0),
         stringCompare(2),
         isHolesArray(1),
+        sparseArrayStats(1),
         jsStack(0),
         loadModule(2),
         printNodeCounters(0),
@@ -228,6 +232,8 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
                 return DebugStringCompareNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
             case isHolesArray:
                 return DebugIsHolesArrayNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
+            case sparseArrayStats:
+                return DebugSparseArrayStatsNodeGen.create(context, builtin, args().fixedArgs(1).createArgumentNodes(context));
             case jsStack:
                 return DebugJSStackNodeGen.create(context, builtin, args().createArgumentNodes(context));
             case loadModule:
@@ -541,6 +547,32 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
         }
     }
 
+    public abstract static class DebugSparseArrayStatsNode extends JSBuiltinNode {
+        public DebugSparseArrayStatsNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @TruffleBoundary
+        @Specialization
+        protected Object sparseArrayStats(Object array) {
+            if (!JSArray.isJSArray(array) || !(JSObject.getArray((DynamicObject) array) instanceof SparseArray)) {
+                return Undefined.instance;
+            }
+            SparseArrayPageTable arrayMap = SparseArray.getArrayMap((DynamicObject) array);
+            long elements = arrayMap.size();
+            long bytes = arrayMap.estimateMemoryFootprint();
+            long treeMapBytes = arrayMap.estimateTreeMapFootprint();
+            DynamicObject result = JSUserObject.create(getContext());
+            JSObject.set(result, "elements", (double) elements);
+            JSObject.set(result, "pages", arrayMap.getPageCount());
+            JSObject.set(result, "bytes", (double) bytes);
+            JSObject.set(result, "bytesPerElement", elements == 0 ? 0.0 : (double) bytes / elements);
+            JSObject.set(result, "treeMapBytes", (double) treeMapBytes);
+            JSObject.set(result, "treeMapBytesPerElement", elements == 0 ? 0.0 : (double) treeMapBytes / elements);
+            return result;
+        }
+    }
+
     public abstract static class DebugAssertIntNode extends JSBuiltinNode {
         public DebugAssertIntNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -116,6 +116,7 @@ public class JSDefaultBuiltinLookup extends JSBuiltinLookup {
         defineBuiltins(new CallSitePrototypeBuiltins());
 
         defineBuiltins(new JSONBuiltins());
+        defineBuiltins(new JSONBuiltins.JSONStreamingBuiltins());
 
         defineBuiltins(new GlobalBuiltins());
         defineBuiltins(new GlobalBuiltins.GlobalNashornScriptingBuiltins());
@@ -125,6 +126,7 @@ public class JSDefaultBuiltinLookup extends JSBuiltinLookup {
 
         defineBuiltins(new ArrayBufferPrototypeBuiltins());
         defineBuiltins(new ArrayBufferFunctionBuiltins());
+        defineBuiltins(new ArrayBufferFunctionBuiltins.MappedArrayBufferFunctionBuiltins());
         defineBuiltins(new TypedArrayPrototypeBuiltins());
         defineBuiltins(new TypedArrayFunctionBuiltins());
         defineBuiltins(new DataViewPrototypeBuiltins());
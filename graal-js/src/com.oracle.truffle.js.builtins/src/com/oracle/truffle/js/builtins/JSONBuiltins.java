@@ -40,6 +40,9 @@
  */
 package com.oracle.truffle.js.builtins;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -49,11 +52,13 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONParseElementsNodeGen;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONParseNodeGen;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONStringifyNodeGen;
 import com.oracle.truffle.js.builtins.helper.JSONData;
 import com.oracle.truffle.js.builtins.helper.JSONStringifyStringNode;
 import com.oracle.truffle.js.builtins.helper.TruffleJSONParser;
+import com.oracle.truffle.js.builtins.helper.TruffleJSONStreamParser;
 import com.oracle.truffle.js.nodes.access.PropertySetNode;
 import com.oracle.truffle.js.nodes.cast.JSToIntegerNode;
 import com.oracle.truffle.js.nodes.cast.JSToNumberNode;
@@ -61,12 +66,17 @@ import com.oracle.truffle.js.nodes.cast.JSToStringNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.runtime.Boundaries;
+import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSNumber;
+import com.oracle.truffle.js.runtime.builtins.JSSharedArrayBuffer;
 import com.oracle.truffle.js.runtime.builtins.JSString;
 import com.oracle.truffle.js.runtime.builtins.JSUserObject;
 import com.oracle.truffle.js.runtime.objects.JSAttributes;
@@ -109,6 +119,39 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         return null;
     }
 
+    /**
+     * Non-standard JSON functions, available with the {@code js.json-streaming} option.
+     */
+    public static final class JSONStreamingBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONStreamingBuiltins.JSONStreaming> {
+        protected JSONStreamingBuiltins() {
+            super(com.oracle.truffle.js.runtime.builtins.JSON.CLASS_NAME_STREAMING_EXTENSIONS, JSONStreaming.class);
+        }
+
+        public enum JSONStreaming implements BuiltinEnum<JSONStreaming> {
+            parseElements(2);
+
+            private final int length;
+
+            JSONStreaming(int length) {
+                this.length = length;
+            }
+
+            @Override
+            public int getLength() {
+                return length;
+            }
+        }
+
+        @Override
+        protected Object createNode(JSContext context, JSBuiltin builtin, boolean construct, boolean newTarget, JSONStreaming builtinEnum) {
+            switch (builtinEnum) {
+                case parseElements:
+                    return JSONParseElementsNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
+            }
+            return null;
+        }
+    }
+
     public abstract static class JSONOperation extends JSBuiltinNode {
         public JSONOperation(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -196,6 +239,102 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         }
     }
 
+    /**
+     * JSON.parseElements(source, callback): parses a JSON text consisting of a single array and
+     * calls {@code callback(element, index)} for each element as soon as it has been parsed,
+     * without building the array. The source is either a string or UTF-8 encoded text in an
+     * ArrayBuffer or TypedArray (e.g., a Node.js Buffer). Returns the number of elements.
+     */
+    public abstract static class JSONParseElementsNode extends JSONOperation {
+
+        public JSONParseElementsNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization(guards = {"isCallable(callback)", "isBinarySource(source)"})
+        protected Object parseBinary(DynamicObject source, DynamicObject callback) {
+            return parseElements(getBytes(source), getArrayBuffer(source), callback);
+        }
+
+        @Specialization(guards = {"isCallable(callback)", "!isBinarySource(source)"})
+        protected Object parseText(Object source, DynamicObject callback) {
+            return parseElements(toString(source), callback);
+        }
+
+        @Specialization(guards = "!isCallable(callback)")
+        protected Object notCallable(@SuppressWarnings("unused") Object source, Object callback) {
+            throw Errors.createTypeErrorNotAFunction(callback);
+        }
+
+        protected static boolean isBinarySource(Object source) {
+            return JSArrayBufferView.isJSArrayBufferView(source) || JSAbstractBuffer.isJSAbstractBuffer(source);
+        }
+
+        @TruffleBoundary
+        private ByteBuffer getBytes(DynamicObject source) {
+            DynamicObject arrayBuffer;
+            if (JSArrayBufferView.isJSArrayBufferView(source)) {
+                if (JSArrayBufferView.hasDetachedBuffer(source, getContext())) {
+                    throw Errors.createTypeErrorDetachedBuffer();
+                }
+                arrayBuffer = JSArrayBufferView.getArrayBuffer(source);
+            } else {
+                if (!JSSharedArrayBuffer.isJSSharedArrayBuffer(source) && JSArrayBuffer.isDetachedBuffer(source)) {
+                    throw Errors.createTypeErrorDetachedBuffer();
+                }
+                arrayBuffer = source;
+            }
+            ByteBuffer bytes;
+            if (JSArrayBuffer.isJSDirectArrayBuffer(arrayBuffer) || JSSharedArrayBuffer.isJSSharedArrayBuffer(arrayBuffer)) {
+                bytes = JSArrayBuffer.getDirectByteBuffer(arrayBuffer).duplicate();
+            } else {
+                bytes = ByteBuffer.wrap(JSAbstractBuffer.getByteArray(arrayBuffer));
+            }
+            if (arrayBuffer != source) {
+                int offset = JSArrayBufferView.getByteOffset(source, true, getContext());
+                bytes.limit(offset + JSArrayBufferView.getByteLength(source, true, getContext())).position(offset);
+            } else {
+                bytes.clear();
+            }
+            return bytes;
+        }
+
+        private static DynamicObject getArrayBuffer(DynamicObject source) {
+            return JSArrayBufferView.isJSArrayBufferView(source) ? JSArrayBufferView.getArrayBuffer(source) : source;
+        }
+
+        /**
+         * The parser reads the buffer after each callback returns, so a callback that detaches the
+         * buffer (e.g., by unmapping a memory-mapped buffer) ends the parse before the buffer is
+         * accessed again.
+         */
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private Object parseElements(ByteBuffer bytes, DynamicObject arrayBuffer, DynamicObject callback) {
+            boolean detachable = !JSSharedArrayBuffer.isJSSharedArrayBuffer(arrayBuffer);
+            long count = new TruffleJSONStreamParser(getContext()).parseElements(bytes, (index, element) -> {
+                callElementCallback(callback, index, element);
+                if (detachable && JSArrayBuffer.isDetachedBuffer(arrayBuffer)) {
+                    throw Errors.createTypeErrorDetachedBuffer();
+                }
+            });
+            return JSRuntime.longToIntOrDouble(count);
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private Object parseElements(String text, DynamicObject callback) {
+            try {
+                long count = new TruffleJSONStreamParser(getContext()).parseElements(new StringReader(text), (index, element) -> callElementCallback(callback, index, element));
+                return JSRuntime.longToIntOrDouble(count);
+            } catch (IOException ex) {
+                throw Errors.shouldNotReachHere(ex);
+            }
+        }
+
+        private static void callElementCallback(DynamicObject callback, long index, Object element) {
+            JSRuntime.call(callback, Undefined.instance, new Object[]{element, JSRuntime.longToIntOrDouble(index)});
+        }
+    }
+
     public abstract static class JSONStringifyNode extends JSONOperation {
 
         public JSONStringifyNode(JSContext context, JSBuiltin builtin) {
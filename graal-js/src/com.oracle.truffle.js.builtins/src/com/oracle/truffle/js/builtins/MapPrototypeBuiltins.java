@@ -195,6 +195,19 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected static Object getInt(DynamicObject thisObj, int key) {
+            Object value = JSMap.getInternalMap(thisObj).get(key);
+            return value != null ? value : Undefined.instance;
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected static Object getDouble(DynamicObject thisObj, double key) {
+            JSHashMap map = JSMap.getInternalMap(thisObj);
+            Object value = JSRuntime.doubleIsRepresentableAsInt(key, true) ? map.get((int) key) : map.get(key);
+            return value != null ? value : Undefined.instance;
+        }
+
         @Specialization(guards = "isJSMap(thisObj)")
         protected Object get(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
@@ -222,6 +235,23 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected static DynamicObject setInt(DynamicObject thisObj, int key, Object value) {
+            JSMap.getInternalMap(thisObj).put(key, value);
+            return thisObj;
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected static DynamicObject setDouble(DynamicObject thisObj, double key, Object value) {
+            JSHashMap map = JSMap.getInternalMap(thisObj);
+            if (JSRuntime.doubleIsRepresentableAsInt(key, true)) {
+                map.put((int) key, value);
+            } else {
+                map.put(key, value);
+            }
+            return thisObj;
+        }
+
         @Specialization(guards = "isJSMap(thisObj)")
         protected DynamicObject set(DynamicObject thisObj, Object key, Object value) {
             Object normalizedKey = normalize(key);
@@ -245,6 +275,17 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected static boolean hasInt(DynamicObject thisObj, int key) {
+            return JSMap.getInternalMap(thisObj).has(key);
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)")
+        protected static boolean hasDouble(DynamicObject thisObj, double key) {
+            JSHashMap map = JSMap.getInternalMap(thisObj);
+            return JSRuntime.doubleIsRepresentableAsInt(key, true) ? map.has((int) key) : map.has(key);
+        }
+
         @Specialization(guards = "isJSMap(thisObj)")
         protected boolean has(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
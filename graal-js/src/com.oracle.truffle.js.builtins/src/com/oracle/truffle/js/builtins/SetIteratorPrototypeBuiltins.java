@@ -43,24 +43,17 @@ package com.oracle.truffle.js.builtins;
 import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.builtins.SetIteratorPrototypeBuiltinsFactory.SetIteratorNextNodeGen;
+import com.oracle.truffle.js.nodes.access.BuiltinIteratorStepNode;
 import com.oracle.truffle.js.nodes.access.CreateIterResultObjectNode;
-import com.oracle.truffle.js.nodes.access.HasHiddenKeyCacheNode;
-import com.oracle.truffle.js.nodes.access.PropertyGetNode;
-import com.oracle.truffle.js.nodes.access.PropertySetNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
-import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
-import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSSet;
 import com.oracle.truffle.js.runtime.objects.Undefined;
-import com.oracle.truffle.js.runtime.util.JSHashMap;
 
 /**
  * Contains functions of the %SetIteratorPrototype% object.
@@ -95,50 +88,22 @@ public final class SetIteratorPrototypeBuiltins extends JSBuiltinsContainer.Swit
     }
 
     public abstract static class SetIteratorNextNode extends JSBuiltinNode {
-        @Child private HasHiddenKeyCacheNode isSetIteratorNode;
-        @Child private PropertyGetNode getIteratedObjectNode;
-        @Child private PropertyGetNode getNextIndexNode;
-        @Child private PropertyGetNode getIterationKindNode;
-        @Child private PropertySetNode setIteratedObjectNode;
+        @Child private BuiltinIteratorStepNode iteratorStepNode;
         @Child private CreateIterResultObjectNode createIterResultObjectNode;
-        private final ConditionProfile detachedProf = ConditionProfile.createBinaryProfile();
-        private final ConditionProfile doneProf = ConditionProfile.createBinaryProfile();
-        private final ConditionProfile iterKindProf = ConditionProfile.createBinaryProfile();
 
         public SetIteratorNextNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
-            this.isSetIteratorNode = HasHiddenKeyCacheNode.create(JSSet.SET_ITERATION_KIND_ID);
-            this.getIteratedObjectNode = PropertyGetNode.createGetHidden(JSRuntime.ITERATED_OBJECT_ID, context);
-            this.getNextIndexNode = PropertyGetNode.createGetHidden(JSRuntime.ITERATOR_NEXT_INDEX, context);
-            this.getIterationKindNode = PropertyGetNode.createGetHidden(JSSet.SET_ITERATION_KIND_ID, context);
-            this.setIteratedObjectNode = PropertySetNode.createSetHidden(JSRuntime.ITERATED_OBJECT_ID, context);
+            this.iteratorStepNode = BuiltinIteratorStepNode.createSetIteratorStep(context);
             this.createIterResultObjectNode = CreateIterResultObjectNode.create(context);
         }
 
         @Specialization(guards = "isSetIterator(iterator)")
         protected DynamicObject doSetIterator(VirtualFrame frame, DynamicObject iterator) {
-            Object set = getIteratedObjectNode.getValue(iterator);
-            if (detachedProf.profile(set == Undefined.instance)) {
+            Object value = iteratorStepNode.execute(iterator);
+            if (value == null) {
                 return createIterResultObjectNode.execute(frame, Undefined.instance, true);
             }
-
-            JSHashMap.Cursor mapCursor = (JSHashMap.Cursor) getNextIndexNode.getValue(iterator);
-            int itemKind = getIterationKind(iterator);
-
-            if (doneProf.profile(!mapCursor.advance())) {
-                setIteratedObjectNode.setValue(iterator, Undefined.instance);
-                return createIterResultObjectNode.execute(frame, Undefined.instance, true);
-            }
-
-            Object elementValue = mapCursor.getKey();
-            Object result;
-            if (iterKindProf.profile(itemKind == JSRuntime.ITERATION_KIND_VALUE)) {
-                result = elementValue;
-            } else {
-                assert itemKind == JSRuntime.ITERATION_KIND_KEY_PLUS_VALUE;
-                result = JSArray.createConstantObjectArray(getContext(), new Object[]{elementValue, elementValue});
-            }
-            return createIterResultObjectNode.execute(frame, result, false);
+            return createIterResultObjectNode.execute(frame, value, false);
         }
 
         @SuppressWarnings("unused")
@@ -148,16 +113,7 @@ public final class SetIteratorPrototypeBuiltins extends JSBuiltinsContainer.Swit
         }
 
         protected final boolean isSetIterator(Object thisObj) {
-            // If the [[SetIterationKind]] internal slot is present, the others must be as well.
-            return isSetIteratorNode.executeHasHiddenKey(thisObj);
-        }
-
-        private int getIterationKind(DynamicObject iterator) {
-            try {
-                return getIterationKindNode.getValueInt(iterator);
-            } catch (UnexpectedResultException e) {
-                throw Errors.shouldNotReachHere();
-            }
+            return iteratorStepNode.isIterator(thisObj);
         }
     }
 }
@@ -192,6 +192,23 @@ public final class SetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<S
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected static DynamicObject addInt(DynamicObject thisObj, int key) {
+            JSSet.getInternalSet(thisObj).put(key, PRESENT);
+            return thisObj;
+        }
+
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected static DynamicObject addDouble(DynamicObject thisObj, double key) {
+            JSHashMap set = JSSet.getInternalSet(thisObj);
+            if (JSRuntime.doubleIsRepresentableAsInt(key, true)) {
+                set.put((int) key, PRESENT);
+            } else {
+                set.put(key, PRESENT);
+            }
+            return thisObj;
+        }
+
         @Specialization(guards = "isJSSet(thisObj)")
         protected DynamicObject add(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
@@ -215,6 +232,17 @@ public final class SetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<S
             super(context, builtin);
         }
 
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected static boolean hasInt(DynamicObject thisObj, int key) {
+            return JSSet.getInternalSet(thisObj).has(key);
+        }
+
+        @Specialization(guards = "isJSSet(thisObj)")
+        protected static boolean hasDouble(DynamicObject thisObj, double key) {
+            JSHashMap set = JSSet.getInternalSet(thisObj);
+            return JSRuntime.doubleIsRepresentableAsInt(key, true) ? set.has((int) key) : set.has(key);
+        }
+
         @Specialization(guards = "isJSSet(thisObj)")
         protected boolean has(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
@@ -62,7 +62,6 @@ import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltins.ArraySpeciesConstru
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltins.CreateArrayIteratorNode;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltins.JSArrayOperation;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltins.JSArrayOperationWithToInt;
-import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayCopyWithinNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayEveryNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayFillNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayFilterNodeGen;
@@ -77,6 +76,7 @@ import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArraySlice
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArraySomeNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArraySortNodeGen;
 import com.oracle.truffle.js.builtins.ArrayPrototypeBuiltinsFactory.JSArrayToLocaleStringNodeGen;
+import com.oracle.truffle.js.builtins.TypedArrayPrototypeBuiltinsFactory.JSArrayBufferViewCopyWithinNodeGen;
 import com.oracle.truffle.js.builtins.TypedArrayPrototypeBuiltinsFactory.JSArrayBufferViewFillNodeGen;
 import com.oracle.truffle.js.builtins.TypedArrayPrototypeBuiltinsFactory.JSArrayBufferViewForEachNodeGen;
 import com.oracle.truffle.js.builtins.TypedArrayPrototypeBuiltinsFactory.JSArrayBufferViewIteratorNodeGen;
@@ -89,7 +89,6 @@ import com.oracle.truffle.js.nodes.access.ForEachIndexCallNode.MaybeResultNode;
 import com.oracle.truffle.js.nodes.access.JSGetLengthNode;
 import com.oracle.truffle.js.nodes.cast.JSToBigIntNode;
 import com.oracle.truffle.js.nodes.cast.JSToNumberNode;
-import com.oracle.truffle.js.nodes.control.DeletePropertyNode;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.runtime.BigInt;
@@ -98,6 +97,7 @@ import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.TypedArray;
+import com.oracle.truffle.js.runtime.array.TypedArrayBulkOperations;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
@@ -189,7 +189,7 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
             case every:
                 return JSArrayEveryNodeGen.create(context, builtin, true, args().withThis().fixedArgs(2).createArgumentNodes(context));
             case copyWithin:
-                return JSArrayCopyWithinNodeGen.create(context, builtin, true, args().withThis().fixedArgs(3).createArgumentNodes(context));
+                return JSArrayBufferViewCopyWithinNodeGen.create(context, builtin, args().withThis().fixedArgs(3).createArgumentNodes(context));
             case indexOf:
                 return JSArrayIndexOfNodeGen.create(context, builtin, true, true, args().withThis().varArgs().createArgumentNodes(context));
             case lastIndexOf:
@@ -320,6 +320,8 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
         private final ConditionProfile isDirectProf = ConditionProfile.createBinaryProfile();
         private final BranchProfile intToIntBranch = BranchProfile.create();
         private final BranchProfile floatToFloatBranch = BranchProfile.create();
+        private final BranchProfile intToFloatBranch = BranchProfile.create();
+        private final BranchProfile floatToIntBranch = BranchProfile.create();
         private final BranchProfile bigIntToBigIntBranch = BranchProfile.create();
         private final BranchProfile objectToObjectBranch = BranchProfile.create();
 
@@ -472,6 +474,22 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
                     BigInt value = ((TypedArray.TypedBigIntArray<Object>) sourceType).getBigIntImpl(sourceBackingBuffer, sourceByteIndex, i);
                     ((TypedArray.TypedBigIntArray<Object>) targetType).setBigIntImpl(targetBackingBuffer, targetByteOffset, i + targetOffset, value);
                 }
+            } else if (sourceType instanceof TypedArray.TypedIntArray && targetType instanceof TypedArray.TypedFloatArray) {
+                intToFloatBranch.enter();
+                boolean unsigned = sourceType instanceof TypedArray.AbstractUint32Array;
+                for (int i = 0; i < sourceLength; i++) {
+                    int value = ((TypedArray.TypedIntArray<Object>) sourceType).getIntImpl(sourceBackingBuffer, sourceByteIndex, i);
+                    double doubleValue = unsigned ? (double) (value & 0xFFFFFFFFL) : (double) value;
+                    ((TypedArray.TypedFloatArray<Object>) targetType).setDoubleImpl(targetBackingBuffer, targetByteOffset, i + targetOffset, doubleValue);
+                }
+            } else if (sourceType instanceof TypedArray.TypedFloatArray && targetType instanceof TypedArray.TypedIntArray) {
+                floatToIntBranch.enter();
+                boolean clamped = targetType instanceof TypedArray.AbstractUint8ClampedArray;
+                for (int i = 0; i < sourceLength; i++) {
+                    double value = ((TypedArray.TypedFloatArray<Object>) sourceType).getDoubleImpl(sourceBackingBuffer, sourceByteIndex, i);
+                    int intValue = clamped ? TypedArray.AbstractUint8ClampedArray.toInt(value) : JSRuntime.toInt32(value);
+                    ((TypedArray.TypedIntArray<Object>) targetType).setIntImpl(targetBackingBuffer, targetByteOffset, i + targetOffset, intValue);
+                }
             } else if ((sourceType instanceof TypedArray.TypedBigIntArray) != (targetType instanceof TypedArray.TypedBigIntArray)) {
                 throw Errors.createTypeErrorCanNotMixBigIntWithOtherTypes();
             } else {
@@ -554,50 +572,21 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
     }
 
     public abstract static class JSArrayBufferViewReverseNode extends JSArrayOperation {
+        private final ValueProfile typedArrayTypeProfile = ValueProfile.createIdentityProfile();
+
         public JSArrayBufferViewReverseNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin, true);
         }
 
         @Specialization(guards = "isJSArrayBufferView(thisObj)")
-        protected DynamicObject reverse(DynamicObject thisObj,
-                        @Cached("create(THROW_ERROR, getContext())") DeletePropertyNode deletePropertyNode) {
+        protected DynamicObject reverse(DynamicObject thisObj) {
             checkHasDetachedBuffer(thisObj);
-            long len = getLength(thisObj);
-            long middle = (long) JSRuntime.mathFloor(len / 2);
-            long lower = 0;
-
-            while (lower != middle) {
-                long upper = len - lower - 1;
-                Object lowerValue = null;
-                Object upperValue = null;
-                boolean lowerExists = hasProperty(thisObj, lower);
-                if (lowerExists) {
-                    lowerValue = read(thisObj, lower);
-                }
-                boolean upperExists = hasProperty(thisObj, upper);
-                if (upperExists) {
-                    upperValue = read(thisObj, upper);
-                }
-
-                if (lowerExists && upperExists) {
-                    write(thisObj, lower, upperValue);
-                    write(thisObj, upper, lowerValue);
-                } else if (upperExists) {
-                    write(thisObj, lower, upperValue);
-                    deletePropertyNode.executeEvaluated(thisObj, upper);
-                } else if (lowerExists) {
-                    deletePropertyNode.executeEvaluated(thisObj, lower);
-                    write(thisObj, upper, lowerValue);
-                }
-
-                long nextLower = nextElementIndex(thisObj, lower, len);
-                long nextUpper = previousElementIndex(thisObj, upper);
-                if ((len - nextLower - 1) >= nextUpper) {
-                    lower = nextLower;
-                } else {
-                    lower = len - nextUpper - 1;
-                }
-                upper = len - lower - 1;
+            TypedArray typedArray = typedArrayTypeProfile.profile(JSArrayBufferView.typedArrayGetArrayType(thisObj));
+            int len = typedArray.length(thisObj);
+            if (len > 1) {
+                // elements are swapped as raw bytes, there is no need to decode them
+                Object backingStore = typedArray.getBufferFromTypedArray(thisObj, true);
+                TypedArrayBulkOperations.reverse(backingStore, JSArrayBufferView.typedArrayGetOffset(thisObj), typedArray.bytesPerElement(), len);
             }
             return thisObj;
         }
@@ -612,6 +601,7 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
     public abstract static class JSArrayBufferViewFillNode extends JSArrayOperationWithToInt {
         private final ConditionProfile offsetProfile1 = ConditionProfile.createBinaryProfile();
         private final ConditionProfile offsetProfile2 = ConditionProfile.createBinaryProfile();
+        private final ValueProfile typedArrayTypeProfile = ValueProfile.createIdentityProfile();
         @Child private JSToNumberNode toNumberNode;
         @Child private JSToBigIntNode toBigIntNode;
 
@@ -628,8 +618,13 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
             long lStart = JSRuntime.getOffset(toIntegerSpecial(start), len, offsetProfile1);
             long lEnd = end == Undefined.instance ? len : JSRuntime.getOffset(toIntegerSpecial(end), len, offsetProfile2);
             checkHasDetachedBuffer(thisJSObj);
-            for (long idx = lStart; idx < lEnd; idx++) {
-                write(thisJSObj, idx, convValue);
+            if (lStart < lEnd) {
+                // convert and store the value once, then replicate its bytes
+                write(thisJSObj, lStart, convValue);
+                TypedArray typedArray = typedArrayTypeProfile.profile(JSArrayBufferView.typedArrayGetArrayType(thisJSObj));
+                int elementSize = typedArray.bytesPerElement();
+                int byteIndex = JSArrayBufferView.typedArrayGetOffset(thisJSObj) + (int) lStart * elementSize;
+                TypedArrayBulkOperations.fill(typedArray.getBufferFromTypedArray(thisJSObj, true), byteIndex, elementSize, (int) (lEnd - lStart));
             }
             return thisJSObj;
         }
@@ -651,6 +646,37 @@ public final class TypedArrayPrototypeBuiltins extends JSBuiltinsContainer.Switc
         }
     }
 
+    public abstract static class JSArrayBufferViewCopyWithinNode extends JSArrayOperationWithToInt {
+        private final ConditionProfile offsetProfile1 = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile offsetProfile2 = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile offsetProfile3 = ConditionProfile.createBinaryProfile();
+        private final ValueProfile typedArrayTypeProfile = ValueProfile.createIdentityProfile();
+
+        public JSArrayBufferViewCopyWithinNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin, true);
+        }
+
+        @Specialization
+        protected TruffleObject copyWithin(Object thisObj, Object target, Object start, Object end) {
+            validateTypedArray(thisObj);
+            DynamicObject thisJSObj = (DynamicObject) thisObj;
+            long len = getLength(thisJSObj);
+            long to = JSRuntime.getOffset(toIntegerSpecial(target), len, offsetProfile1);
+            long from = JSRuntime.getOffset(toIntegerSpecial(start), len, offsetProfile2);
+            long finalIdx = end == Undefined.instance ? len : JSRuntime.getOffset(toIntegerSpecial(end), len, offsetProfile3);
+            long count = Math.min(finalIdx - from, len - to);
+            if (count > 0) {
+                checkHasDetachedBuffer(thisJSObj);
+                TypedArray typedArray = typedArrayTypeProfile.profile(JSArrayBufferView.typedArrayGetArrayType(thisJSObj));
+                int elementSize = typedArray.bytesPerElement();
+                int byteOffset = JSArrayBufferView.typedArrayGetOffset(thisJSObj);
+                Object backingStore = typedArray.getBufferFromTypedArray(thisJSObj, true);
+                TypedArrayBulkOperations.move(backingStore, byteOffset + (int) from * elementSize, byteOffset + (int) to * elementSize, (int) count * elementSize);
+            }
+            return thisJSObj;
+        }
+    }
+
     public abstract static class JSArrayBufferViewIteratorNode extends JSBuiltinNode {
         @Child private CreateArrayIteratorNode createArrayIteratorNode;
         private final BranchProfile errorBranch = BranchProfile.create();
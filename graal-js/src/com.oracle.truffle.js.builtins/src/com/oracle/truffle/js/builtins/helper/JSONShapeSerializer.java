@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+
+/**
+ * Precomputed serialization plan of {@code JSON.stringify} for ordinary objects of one shape: the
+ * enumerable own properties in output order together with their already quoted keys.
+ *
+ * @see JSONStringifyStringNode
+ */
+public final class JSONShapeSerializer {
+
+    private final Shape shape;
+    /** Properties in enumeration order, or {@code null} if the shape needs the generic path. */
+    private final Property[] properties;
+    private final String[] keys;
+    /** Quoted keys including the colon, e.g. {@code "name":}. */
+    private final String[] quotedKeys;
+
+    JSONShapeSerializer(Shape shape, Property[] properties, String[] keys, String[] quotedKeys) {
+        assert properties == null || (properties.length == keys.length && keys.length == quotedKeys.length);
+        this.shape = shape;
+        this.properties = properties;
+        this.keys = keys;
+        this.quotedKeys = quotedKeys;
+    }
+
+    static JSONShapeSerializer generic(Shape shape) {
+        return new JSONShapeSerializer(shape, null, null, null);
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    public boolean isGeneric() {
+        return properties == null;
+    }
+
+    public int getPropertyCount() {
+        return properties.length;
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    public String getQuotedKey(int index) {
+        return quotedKeys[index];
+    }
+
+    /**
+     * Reads the value of the property at {@code index}. The object may have changed its shape
+     * since serialization started (e.g., in a {@code toJSON} method or replacer function), in which
+     * case the property is looked up by key.
+     */
+    public Object getValue(DynamicObject object, int index) {
+        if (object.getShape() == shape) {
+            return properties[index].get(object, shape);
+        }
+        return JSObject.get(object, keys[index]);
+    }
+}
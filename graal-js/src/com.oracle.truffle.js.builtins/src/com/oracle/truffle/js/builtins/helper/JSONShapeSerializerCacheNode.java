@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.util.List;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
+import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.util.DelimitedStringBuilder;
+
+/**
+ * Inline cache of {@link JSONShapeSerializer}s of ordinary objects, keyed by shape. Entries of
+ * obsolete shapes are dropped; once more than {@link JSTruffleOptions#JSONStringifyShapeCacheLimit}
+ * shapes have been seen, the cache goes generic and returns {@code null}.
+ */
+public abstract class JSONShapeSerializerCacheNode extends JavaScriptBaseNode {
+
+    JSONShapeSerializerCacheNode() {
+    }
+
+    public static JSONShapeSerializerCacheNode create() {
+        return JSONShapeSerializerCacheNodeGen.create();
+    }
+
+    /**
+     * Returns the serializer for the shape of {@code object}, or {@code null} if the cache is
+     * generic.
+     */
+    public abstract JSONShapeSerializer execute(DynamicObject object);
+
+    @Specialization(guards = "cachedShape.check(object)", assumptions = "cachedShape.getValidAssumption()", limit = "getCacheLimit()")
+    static JSONShapeSerializer doCached(@SuppressWarnings("unused") DynamicObject object,
+                    @Cached("object.getShape()") @SuppressWarnings("unused") Shape cachedShape,
+                    @Cached("createSerializer(cachedShape)") JSONShapeSerializer serializer) {
+        return serializer;
+    }
+
+    @Specialization(replaces = "doCached")
+    static JSONShapeSerializer doGeneric(@SuppressWarnings("unused") DynamicObject object) {
+        return null;
+    }
+
+    static int getCacheLimit() {
+        return JSTruffleOptions.JSONStringifyShapeCacheLimit;
+    }
+
+    @TruffleBoundary
+    static JSONShapeSerializer createSerializer(Shape shape) {
+        List<String> names = JSShape.getEnumerablePropertyNames(shape);
+        int count = names.size();
+        Property[] properties = new Property[count];
+        String[] keys = new String[count];
+        String[] quotedKeys = new String[count];
+        BranchProfile appendProfile = BranchProfile.create();
+        for (int i = 0; i < count; i++) {
+            String name = names.get(i);
+            Property property = shape.getProperty(name);
+            if (property == null || JSProperty.isAccessor(property) || JSProperty.isProxy(property)) {
+                return JSONShapeSerializer.generic(shape);
+            }
+            DelimitedStringBuilder quoted = new DelimitedStringBuilder(name.length() + 3);
+            JSONStringifyStringNode.jsonQuote(quoted, name, appendProfile);
+            quoted.append(':', appendProfile);
+            properties[i] = property;
+            keys[i] = name;
+            quotedKeys[i] = quoted.toString();
+        }
+        return new JSONShapeSerializer(shape, properties, keys, quotedKeys);
+    }
+}
@@ -70,6 +70,7 @@ import com.oracle.truffle.js.runtime.builtins.JSClass;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSNumber;
 import com.oracle.truffle.js.runtime.builtins.JSString;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
@@ -88,6 +89,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
     @Child private Node isNullNode;
     @Child private Node isBoxedNode;
     private final BranchProfile sbAppendProfile = BranchProfile.create();
+    @Child private JSONShapeSerializerCacheNode shapeSerializerCache;
 
     protected JSONStringifyStringNode(JSContext context) {
         this.context = context;
@@ -129,7 +131,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         } else if (value instanceof Boolean) {
             builder.append((boolean) value ? JSBoolean.TRUE_NAME : JSBoolean.FALSE_NAME, sbAppendProfile);
         } else if (JSRuntime.isString(value)) {
-            jsonQuote(builder, value.toString());
+            jsonQuote(builder, value.toString(), sbAppendProfile);
         } else if (JSRuntime.isNumber(value)) {
             appendNumber(builder, (Number) value);
         } else if (JSRuntime.isBigInt(value)) {
@@ -145,7 +147,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             jsonTruffleObject(builder, data, (TruffleObject) value);
         } else if (JSTruffleOptions.NashornJavaInterop || JSRuntime.isJavaPrimitive(value)) {
             // call toString on Java objects, GR-3722
-            jsonQuote(builder, value.toString());
+            jsonQuote(builder, value.toString(), sbAppendProfile);
         } else {
             throw new RuntimeException("JSON.stringify: should never reach here, unknown type: " + value + " " + value.getClass());
         }
@@ -269,6 +271,22 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         int stepback = data.getIndent();
         int indent = data.getIndent() + 1;
         data.setIndent(indent);
+        boolean hasContent;
+        concatStart(builder, '{');
+        JSONShapeSerializer serializer = getShapeSerializer(data, value);
+        if (serializer != null) {
+            hasContent = jsonJOShape(builder, data, (DynamicObject) value, serializer, indent);
+        } else {
+            hasContent = jsonJOGeneric(builder, data, value, indent);
+        }
+        concatEnd(builder, data, stepback, '}', hasContent);
+
+        data.popStack();
+        data.setIndent(stepback);
+
+    }
+
+    private boolean jsonJOGeneric(DelimitedStringBuilder builder, JSONData data, TruffleObject value, int indent) {
         List<? extends Object> keys;
         if (data.getPropertyList() == null) {
             if (JSObject.isJSObject(value)) {
@@ -280,9 +298,6 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
             keys = data.getPropertyList();
         }
         boolean isFirst = true;
-        boolean hasContent = false;
-
-        concatStart(builder, '{');
         for (Object key : keys) {
             String name = (String) key;
             Object strPPrepared = jsonStrPrepare(data, name, value);
@@ -293,20 +308,57 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
                 } else {
                     appendSeparator(builder, data, indent);
                 }
-                jsonQuote(builder, name);
+                jsonQuote(builder, name, sbAppendProfile);
                 builder.append(':', sbAppendProfile);
                 if (data.getGap().length() > 0) {
                     builder.append(' ', sbAppendProfile);
                 }
                 jsonStrExecute(builder, data, strPPrepared);
-                hasContent = true;
             }
         }
-        concatEnd(builder, data, stepback, '}', hasContent);
+        return !isFirst;
+    }
 
-        data.popStack();
-        data.setIndent(stepback);
+    /**
+     * Same as {@link #jsonJOGeneric} for an ordinary object whose keys, property locations and
+     * quoted keys are known from its shape.
+     */
+    private boolean jsonJOShape(DelimitedStringBuilder builder, JSONData data, DynamicObject value, JSONShapeSerializer serializer, int indent) {
+        boolean isFirst = true;
+        for (int i = 0; i < serializer.getPropertyCount(); i++) {
+            Object strPPrepared = jsonStrPreparePart2(data, serializer.getKey(i), value, serializer.getValue(value, i));
+            if (isStringifyable(strPPrepared)) {
+                if (isFirst) {
+                    concatFirstStep(builder, data);
+                    isFirst = false;
+                } else {
+                    appendSeparator(builder, data, indent);
+                }
+                builder.append(serializer.getQuotedKey(i), sbAppendProfile);
+                if (data.getGap().length() > 0) {
+                    builder.append(' ', sbAppendProfile);
+                }
+                jsonStrExecute(builder, data, strPPrepared);
+            }
+        }
+        return !isFirst;
+    }
 
+    /**
+     * Returns the cached serializer for the shape of {@code value}, or {@code null} if the object
+     * has to be serialized generically: non-ordinary objects (e.g. proxies), objects with accessor
+     * or special properties, a replacer property list, or once the shape cache has gone generic.
+     */
+    private JSONShapeSerializer getShapeSerializer(JSONData data, TruffleObject value) {
+        if (!JSTruffleOptions.FastOwnKeys || data.getPropertyList() != null || !JSUserObject.isJSUserObject(value)) {
+            return null;
+        }
+        if (shapeSerializerCache == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            shapeSerializerCache = insert(JSONShapeSerializerCacheNode.create());
+        }
+        JSONShapeSerializer serializer = shapeSerializerCache.execute((DynamicObject) value);
+        return serializer == null || serializer.isGeneric() ? null : serializer;
     }
 
     @TruffleBoundary
@@ -415,7 +467,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         }
     }
 
-    private void jsonQuote(DelimitedStringBuilder builder, String value) {
+    static void jsonQuote(DelimitedStringBuilder builder, String value, BranchProfile sbAppendProfile) {
         builder.append('"', sbAppendProfile);
         for (int i = 0; i < value.length();) {
             char ch = value.charAt(i);
@@ -431,7 +483,7 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
                 } else if (ch == '\t') {
                     builder.append("\\t", sbAppendProfile);
                 } else {
-                    jsonQuoteUnicode(builder, ch);
+                    jsonQuoteUnicode(builder, ch, sbAppendProfile);
                 }
             } else {
                 if (ch == '\\') {
@@ -448,11 +500,11 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
                             i++;
                         } else {
                             // unpaired high surrogate
-                            jsonQuoteSurrogate(builder, ch);
+                            jsonQuoteSurrogate(builder, ch, sbAppendProfile);
                         }
                     } else {
                         // unpaired low surrogate
-                        jsonQuoteSurrogate(builder, ch);
+                        jsonQuoteSurrogate(builder, ch, sbAppendProfile);
                     }
                 } else {
                     builder.append(ch, sbAppendProfile);
@@ -463,13 +515,13 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         builder.append('"', sbAppendProfile);
     }
 
-    private void jsonQuoteUnicode(DelimitedStringBuilder builder, char c) {
+    private static void jsonQuoteUnicode(DelimitedStringBuilder builder, char c, BranchProfile sbAppendProfile) {
         builder.append("\\u00", sbAppendProfile);
         builder.append(Character.forDigit((c >> 4) & 0xF, 16), sbAppendProfile);
         builder.append(Character.forDigit(c & 0xF, 16), sbAppendProfile);
     }
 
-    private void jsonQuoteSurrogate(DelimitedStringBuilder builder, char c) {
+    private static void jsonQuoteSurrogate(DelimitedStringBuilder builder, char c, BranchProfile sbAppendProfile) {
         builder.append("\\ud", sbAppendProfile);
         builder.append(Character.forDigit((c >> 8) & 0xF, 16), sbAppendProfile);
         builder.append(Character.forDigit((c >> 4) & 0xF, 16), sbAppendProfile);
@@ -0,0 +1,541 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSException;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.array.ScriptArray;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.Null;
+
+/**
+ * JSON parser that reads its input incrementally from a {@link Reader} or a UTF-8 encoded
+ * {@link ByteBuffer}, so the source text never has to be materialized as a single {@link String}.
+ * Accepts the same grammar and produces the same values as {@link TruffleJSONParser}.
+ *
+ * {@link #parseElements} additionally hands the elements of a top-level array to an
+ * {@link ElementConsumer} one at a time instead of collecting them into an array, so that only the
+ * element currently being parsed is kept alive. Elements are delivered before the rest of the input
+ * has been validated, i.e., a syntax error may be reported after some elements have been consumed.
+ *
+ * Instances are not thread-safe and not reentrant.
+ */
+public class TruffleJSONStreamParser {
+
+    /**
+     * Receives the elements of a top-level JSON array in order.
+     */
+    public interface ElementConsumer {
+        void accept(long index, Object element);
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final JSContext context;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder scratch = new StringBuilder();
+    private Reader reader;
+    private int bufferPos;
+    private int bufferLen;
+    private long bufferStart;
+    private int parseDepth;
+
+    public TruffleJSONStreamParser(JSContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Parses a complete JSON text read from {@code input}.
+     */
+    @TruffleBoundary
+    public Object parse(Reader input) throws IOException {
+        begin(input);
+        try {
+            skipWhitespace();
+            Object result = parseValue();
+            expectEnd();
+            return result;
+        } catch (StackOverflowError ex) {
+            throw stackError();
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Parses a complete UTF-8 encoded JSON text from the remaining bytes of {@code input}. The
+     * position of {@code input} is not modified.
+     */
+    public Object parse(ByteBuffer input) {
+        try {
+            return parse(new ByteBufferReader(input));
+        } catch (IOException ex) {
+            throw Errors.shouldNotReachHere(ex);
+        }
+    }
+
+    /**
+     * Parses a JSON text consisting of a single array and passes each of its elements to
+     * {@code consumer} as soon as it has been parsed.
+     *
+     * @return the number of elements passed to the consumer
+     */
+    @TruffleBoundary
+    public long parseElements(Reader input, ElementConsumer consumer) throws IOException {
+        begin(input);
+        try {
+            skipWhitespace();
+            if (peek() != '[') {
+                throw unexpected(peek());
+            }
+            advance();
+            skipWhitespace();
+            long index = 0;
+            if (peek() == ']') {
+                advance();
+            } else {
+                while (true) {
+                    consumer.accept(index++, parseValue());
+                    if (!parseListSeparator(']')) {
+                        break;
+                    }
+                }
+            }
+            expectEnd();
+            return index;
+        } catch (StackOverflowError ex) {
+            throw stackError();
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Like {@link #parseElements(Reader, ElementConsumer)}, reading UTF-8 encoded text from the
+     * remaining bytes of {@code input}.
+     */
+    public long parseElements(ByteBuffer input, ElementConsumer consumer) {
+        try {
+            return parseElements(new ByteBufferReader(input), consumer);
+        } catch (IOException ex) {
+            throw Errors.shouldNotReachHere(ex);
+        }
+    }
+
+    private void begin(Reader input) {
+        if (reader != null) {
+            throw Errors.shouldNotReachHere("parser is already in use");
+        }
+        this.reader = input;
+        this.bufferPos = 0;
+        this.bufferLen = 0;
+        this.bufferStart = 0;
+        this.parseDepth = 0;
+    }
+
+    private void end() {
+        this.reader = null;
+        this.scratch.setLength(0);
+    }
+
+    private Object parseValue() throws IOException {
+        int c = peek();
+        Object value;
+        switch (c) {
+            case '{':
+                value = parseObject();
+                break;
+            case '[':
+                value = parseArray();
+                break;
+            case '"':
+                value = parseString();
+                break;
+            case 't':
+                expectLiteral("true");
+                value = true;
+                break;
+            case 'f':
+                expectLiteral("false");
+                value = false;
+                break;
+            case 'n':
+                expectLiteral("null");
+                value = Null.instance;
+                break;
+            default:
+                if (c == '-' || isDigit(c)) {
+                    value = parseNumber();
+                } else {
+                    throw unexpected(c);
+                }
+                break;
+        }
+        skipWhitespace();
+        return value;
+    }
+
+    private DynamicObject parseObject() throws IOException {
+        incDepth();
+        advance(); // '{'
+        skipWhitespace();
+        DynamicObject object = JSUserObject.create(context);
+        if (peek() == '}') {
+            advance();
+        } else {
+            do {
+                if (peek() != '"') {
+                    throw unexpected(peek());
+                }
+                String key = parseString();
+                skipWhitespace();
+                if (peek() != ':') {
+                    throw unexpected(peek());
+                }
+                advance();
+                skipWhitespace();
+                JSRuntime.createDataProperty(object, key, parseValue());
+            } while (parseListSeparator('}'));
+        }
+        parseDepth--;
+        return object;
+    }
+
+    private DynamicObject parseArray() throws IOException {
+        incDepth();
+        advance(); // '['
+        skipWhitespace();
+        DynamicObject array = JSArray.createEmptyZeroLength(context);
+        if (peek() == ']') {
+            advance();
+        } else {
+            ScriptArray scriptArray = JSAbstractArray.arrayGetArrayType(array);
+            long index = 0;
+            do {
+                scriptArray = scriptArray.setElement(array, index++, parseValue(), false);
+            } while (parseListSeparator(']'));
+            JSAbstractArray.arraySetArrayType(array, scriptArray);
+        }
+        parseDepth--;
+        return array;
+    }
+
+    /**
+     * Consumes the separator after a list entry.
+     *
+     * @return {@code true} if another entry follows, {@code false} if the list has been closed
+     */
+    private boolean parseListSeparator(char close) throws IOException {
+        int c = peek();
+        if (c == close) {
+            advance();
+            return false;
+        } else if (c != ',') {
+            throw unexpected(c);
+        }
+        advance();
+        skipWhitespace();
+        return true;
+    }
+
+    private String parseString() throws IOException {
+        advance(); // opening quote
+        scratch.setLength(0);
+        while (true) {
+            if (bufferPos == bufferLen && !fill()) {
+                throw unexpected(-1);
+            }
+            int start = bufferPos;
+            while (bufferPos < bufferLen) {
+                char c = buffer[bufferPos];
+                if (c == '"' || c == '\\' || c < ' ') {
+                    break;
+                }
+                bufferPos++;
+            }
+            scratch.append(buffer, start, bufferPos - start);
+            if (bufferPos < bufferLen) {
+                char c = buffer[bufferPos];
+                if (c == '"') {
+                    bufferPos++;
+                    return scratch.toString();
+                } else if (c == '\\') {
+                    bufferPos++;
+                    scratch.append(parseEscape());
+                } else {
+                    throw unexpected(c);
+                }
+            }
+        }
+    }
+
+    private char parseEscape() throws IOException {
+        int c = peek();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                advance();
+                return (char) c;
+            case 'b':
+                advance();
+                return '\b';
+            case 'f':
+                advance();
+                return '\f';
+            case 'n':
+                advance();
+                return '\n';
+            case 'r':
+                advance();
+                return '\r';
+            case 't':
+                advance();
+                return '\t';
+            case 'u':
+                advance();
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = peek();
+                    int digitValue = digit < 0 ? -1 : JSRuntime.valueInHex((char) digit);
+                    if (digitValue < 0) {
+                        throw unexpected(digit);
+                    }
+                    advance();
+                    value = (value << 4) | digitValue;
+                }
+                return (char) value;
+            default:
+                throw unexpected(c);
+        }
+    }
+
+    private Number parseNumber() throws IOException {
+        scratch.setLength(0);
+        int sign = 1;
+        if (peek() == '-') {
+            advance();
+            sign = -1;
+        }
+        int c = peek();
+        if (c == '0') {
+            // "0" is valid, but "08" is not
+            scratch.append('0');
+            advance();
+            if (isDigit(peek())) {
+                throw unexpected(peek());
+            }
+        } else if (isDigit(c)) {
+            appendDigits();
+        } else {
+            throw unexpected(c);
+        }
+        boolean isInteger = true;
+        if (peek() == '.') {
+            isInteger = false;
+            scratch.append('.');
+            advance();
+            appendDigits();
+        }
+        c = peek();
+        if (c == 'e' || c == 'E') {
+            isInteger = false;
+            scratch.append('e');
+            advance();
+            c = peek();
+            if (c == '+' || c == '-') {
+                scratch.append((char) c);
+                advance();
+            }
+            appendDigits();
+        }
+        String valueStr = scratch.toString();
+        if (isInteger) {
+            try {
+                return TruffleJSONParser.parseAsInt(sign, valueStr, false, 1);
+            } catch (NumberFormatException ex) {
+                // too large for an int
+            }
+        }
+        return TruffleJSONParser.parseAsDouble(sign, valueStr);
+    }
+
+    private void appendDigits() throws IOException {
+        if (!isDigit(peek())) {
+            throw unexpected(peek());
+        }
+        do {
+            scratch.append(buffer[bufferPos]);
+            advance();
+        } while (isDigit(peek()));
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            int c = peek();
+            if (c != literal.charAt(i)) {
+                throw unexpected(c);
+            }
+            advance();
+        }
+    }
+
+    private void expectEnd() throws IOException {
+        skipWhitespace();
+        if (peek() >= 0) {
+            throw unexpected(peek());
+        }
+    }
+
+    private void incDepth() {
+        if (++parseDepth > TruffleJSONParser.MAX_PARSE_DEPTH) {
+            throw stackError();
+        }
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                advance();
+            } else {
+                return;
+            }
+        }
+    }
+
+    // ************************* Input Buffer ****************************************//
+
+    /**
+     * Returns the current character without consuming it, or -1 at the end of the input.
+     */
+    private int peek() throws IOException {
+        if (bufferPos == bufferLen && !fill()) {
+            return -1;
+        }
+        return buffer[bufferPos];
+    }
+
+    private void advance() {
+        assert bufferPos < bufferLen;
+        bufferPos++;
+    }
+
+    private boolean fill() throws IOException {
+        bufferStart += bufferLen;
+        bufferPos = 0;
+        bufferLen = 0;
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        bufferLen = read;
+        return true;
+    }
+
+    private JSException unexpected(int c) {
+        if (c < 0) {
+            return Errors.createSyntaxError(context.isOptionV8CompatibilityMode() ? "Unexpected end of JSON input" : "Unexpected end of input");
+        }
+        return Errors.createSyntaxError("Unexpected token " + (char) c + " in JSON at position " + (bufferStart + bufferPos));
+    }
+
+    private static JSException stackError() {
+        return Errors.createRangeError("Cannot parse JSON constructs nested that deep");
+    }
+
+    /**
+     * Decodes UTF-8 from a byte buffer without copying it. Malformed input is replaced with
+     * U+FFFD, like {@code Buffer.prototype.toString} does.
+     */
+    private static final class ByteBufferReader extends Reader {
+        private final ByteBuffer input;
+        private final CharsetDecoder decoder;
+        private boolean decoded;
+        private boolean flushed;
+
+        ByteBufferReader(ByteBuffer input) {
+            this.input = input.duplicate();
+            this.decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (flushed) {
+                return -1;
+            }
+            CharBuffer output = CharBuffer.wrap(cbuf, off, len);
+            if (!decoded) {
+                decoded = decoder.decode(input, output, true).isUnderflow();
+            }
+            if (decoded) {
+                flushed = decoder.flush(output).isUnderflow();
+            }
+            int read = output.position() - off;
+            return (read == 0 && flushed) ? -1 : read;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
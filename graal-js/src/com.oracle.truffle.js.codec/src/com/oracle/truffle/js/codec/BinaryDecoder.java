@@ -56,6 +56,14 @@ public class BinaryDecoder {
         this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
     }
 
+    /**
+     * Creates a decoder that starts reading at the given absolute position of the buffer.
+     */
+    public BinaryDecoder(ByteBuffer buffer, int position) {
+        this(buffer);
+        this.buffer.position(position);
+    }
+
     private int getU1() {
         return Byte.toUnsignedInt(buffer.get());
     }
@@ -42,6 +42,7 @@ package com.oracle.truffle.js.nodes;
 
 import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -139,6 +140,38 @@ public class JSNodeDecoder {
         return GEN.getChecksum();
     }
 
+    private final ByteBuffer buffer;
+    private final int functionTableOffset;
+    private final int functionCount;
+
+    /**
+     * @param buffer the snapshot; nested functions are decoded from it on demand, so it must stay
+     *            valid as long as any of the decoded functions may be called
+     * @param functionTableOffset absolute position of the function table in the buffer
+     * @param functionCount number of entries in the function table
+     */
+    public JSNodeDecoder(ByteBuffer buffer, int functionTableOffset, int functionCount) {
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.functionTableOffset = functionTableOffset;
+        this.functionCount = functionCount;
+    }
+
+    /**
+     * Decodes the function with the given index in the function table. Functions that are extracted
+     * lazily are only decoded on first use, see {@link Bytecode#ID_CALL_EXTRACTED_LAZY}.
+     */
+    public Object decodeFunction(int index, Object[] arguments, NodeFactory nodeFactory, JSContext context, Source source) {
+        if (index < 0 || index >= functionCount) {
+            throw new IllegalStateException("invalid function index " + index);
+        }
+        int position = buffer.getInt(functionTableOffset + index * Integer.BYTES);
+        if (VERBOSE) {
+            System.err.println("decoding function " + index + " @" + position);
+        }
+        NodeDecoder.DecoderState state = new NodeDecoder.DecoderState(new BinaryDecoder(buffer, position), arguments);
+        return decodeNode(state, nodeFactory, context, source);
+    }
+
     public Object decodeNode(NodeDecoder.DecoderState state, NodeFactory nodeFactory, JSContext context, Source source) {
         while (state.hasRemaining()) {
             Bytecode bc = Bytecode.values[state.getBytecode()];
@@ -268,36 +301,20 @@ public class JSNodeDecoder {
                     storeResult(state, createJumpTarget(state.getInt()));
                     break;
                 case ID_CALL_EXTRACTED: {
-                    final int position = state.getInt32();
-                    if (VERBOSE) {
-                        System.err.println("callex pos:" + position);
-                    }
+                    final int functionIndex = state.getUInt();
                     final Object[] arguments = getObjectArray(state);
-                    final ByteBuffer buffer = ((ByteBuffer) state.getBuffer().duplicate().position(position));
-                    NodeDecoder.DecoderState extracted = new NodeDecoder.DecoderState(new BinaryDecoder(buffer), arguments);
-                    storeResult(state, decodeNode(extracted, nodeFactory, context, source));
+                    storeResult(state, decodeFunction(functionIndex, arguments, nodeFactory, context, source));
                     break;
                 }
                 case ID_CALL_EXTRACTED_LAZY: {
-                    if (VERBOSE) {
-                        System.err.println("callex-lazy@:" + state.getBuffer().position());
-                    }
-                    final int position = state.getInt32();
-                    if (VERBOSE) {
-                        System.err.println("callex-lazy pos:" + position);
-                    }
+                    final int functionIndex = state.getUInt();
                     JSFunctionData functionData = (JSFunctionData) state.getObject();
                     final Object[] arguments = getObjectArray(state);
+                    // must not capture the decoder state, which holds on to all registers
                     functionData.setLazyInit(new JSFunctionData.Initializer() {
-                        private final ByteBuffer buffer = ((ByteBuffer) state.getBuffer().duplicate().position(position));
-
                         @Override
                         public void initializeRoot(JSFunctionData fd) {
-                            if (VERBOSE) {
-                                System.out.println("Decoding: " + fd.getName());
-                            }
-                            NodeDecoder.DecoderState extracted = new NodeDecoder.DecoderState(new BinaryDecoder(buffer), arguments);
-                            decodeNode(extracted, nodeFactory, context, source);
+                            decodeFunction(functionIndex, arguments, nodeFactory, context, source);
                         }
                     });
                     break;
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.nodes.access;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.HiddenKey;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSMap;
+import com.oracle.truffle.js.runtime.builtins.JSSet;
+import com.oracle.truffle.js.runtime.objects.IteratorRecord;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.JSHashMap;
+
+/**
+ * Advances a built-in Array, Set, or Map iterator and returns the next value directly, without
+ * wrapping it in an iterator result object.
+ *
+ * Used by the {@code next} functions of the respective iterator prototypes, and by
+ * {@link IteratorStepSpecialNode} to bypass the {@code next} call entirely when the iterator record
+ * holds the original {@code next} function of the realm.
+ */
+public abstract class BuiltinIteratorStepNode extends JavaScriptBaseNode {
+    protected final JSContext context;
+    @Child private HasHiddenKeyCacheNode isIteratorNode;
+    @Child protected PropertyGetNode getIteratedObjectNode;
+    @Child protected PropertySetNode setIteratedObjectNode;
+    @Child protected PropertyGetNode getNextIndexNode;
+    @Child protected PropertyGetNode getIterationKindNode;
+    protected final ConditionProfile detachedProf = ConditionProfile.createBinaryProfile();
+    protected final ConditionProfile doneProf = ConditionProfile.createBinaryProfile();
+
+    protected BuiltinIteratorStepNode(JSContext context, HiddenKey iterationKindKey) {
+        this.context = context;
+        this.isIteratorNode = HasHiddenKeyCacheNode.create(iterationKindKey);
+        this.getIteratedObjectNode = PropertyGetNode.createGetHidden(JSRuntime.ITERATED_OBJECT_ID, context);
+        this.setIteratedObjectNode = PropertySetNode.createSetHidden(JSRuntime.ITERATED_OBJECT_ID, context);
+        this.getNextIndexNode = PropertyGetNode.createGetHidden(JSRuntime.ITERATOR_NEXT_INDEX, context);
+        this.getIterationKindNode = PropertyGetNode.createGetHidden(iterationKindKey, context);
+    }
+
+    public static BuiltinIteratorStepNode createArrayIteratorStep(JSContext context) {
+        return new ArrayIteratorStepNode(context);
+    }
+
+    public static BuiltinIteratorStepNode createSetIteratorStep(JSContext context) {
+        return new SetIteratorStepNode(context);
+    }
+
+    public static BuiltinIteratorStepNode createMapIteratorStep(JSContext context) {
+        return new MapIteratorStepNode(context);
+    }
+
+    /**
+     * Creates a step node for the original {@code next} function held by the iterator record, or
+     * returns {@code null} if it is not the {@code next} function of a supported built-in iterator.
+     */
+    public static BuiltinIteratorStepNode createForNextMethod(JSContext context, IteratorRecord iteratorRecord) {
+        Object nextMethod = iteratorRecord.getNextMethod();
+        if (nextMethod == null || nextMethod == Undefined.instance) {
+            return null;
+        }
+        JSRealm realm = context.getRealm();
+        if (nextMethod == realm.getArrayIteratorNextFunction()) {
+            return createArrayIteratorStep(context);
+        } else if (nextMethod == realm.getSetIteratorNextFunction()) {
+            return createSetIteratorStep(context);
+        } else if (nextMethod == realm.getMapIteratorNextFunction()) {
+            return createMapIteratorStep(context);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the next value of the iterator, or {@code null} if the iterator is exhausted.
+     *
+     * @param iterator an iterator object accepted by {@link #isIterator}
+     */
+    public abstract Object execute(DynamicObject iterator);
+
+    public final boolean isIterator(Object thisObj) {
+        // If the [[IterationKind]] internal slot is present, the others must be as well.
+        return isIteratorNode.executeHasHiddenKey(thisObj);
+    }
+
+    /**
+     * Whether calling the {@code next} method of the iterator record would be equivalent to
+     * {@link #execute}, i.e. the method is the original {@code next} function of the current realm
+     * and the iterator is of the expected kind.
+     */
+    public final boolean isOriginalNext(IteratorRecord iteratorRecord) {
+        return iteratorRecord.getNextMethod() == getOriginalNextFunction(context.getRealm()) && isIterator(iteratorRecord.getIterator());
+    }
+
+    protected abstract Object getOriginalNextFunction(JSRealm realm);
+
+    protected final int getIterationKind(DynamicObject iterator) {
+        try {
+            return getIterationKindNode.getValueInt(iterator);
+        } catch (UnexpectedResultException e) {
+            throw Errors.shouldNotReachHere();
+        }
+    }
+
+    static final class ArrayIteratorStepNode extends BuiltinIteratorStepNode {
+        @Child private PropertySetNode setNextIndexNode;
+        @Child private JSGetLengthNode getLengthNode;
+        @Child private ReadElementNode readElementNode;
+        private final ConditionProfile intIndexProfile = ConditionProfile.createBinaryProfile();
+        private final BranchProfile errorBranch = BranchProfile.create();
+
+        ArrayIteratorStepNode(JSContext context) {
+            super(context, JSArray.ARRAY_ITERATION_KIND_ID);
+            this.setNextIndexNode = PropertySetNode.createSetHidden(JSRuntime.ITERATOR_NEXT_INDEX, context);
+        }
+
+        @Override
+        public Object execute(DynamicObject iterator) {
+            Object array = getIteratedObjectNode.getValue(iterator);
+            if (detachedProf.profile(array == Undefined.instance)) {
+                return null;
+            }
+
+            long index = getNextIndex(iterator);
+            int itemKind = getIterationKind(iterator);
+            long length;
+            if (JSArrayBufferView.isJSArrayBufferView(array)) {
+                DynamicObject typedArray = (DynamicObject) array;
+                if (JSArrayBufferView.hasDetachedBuffer(typedArray, context)) {
+                    errorBranch.enter();
+                    throw Errors.createTypeError("Cannot perform Array Iterator.prototype.next on a detached ArrayBuffer");
+                }
+                length = JSArrayBufferView.typedArrayGetLength(typedArray);
+            } else {
+                length = getLength().executeLong((TruffleObject) array);
+            }
+
+            if (doneProf.profile(index >= length)) {
+                setIteratedObjectNode.setValue(iterator, Undefined.instance);
+                return null;
+            }
+
+            setNextIndexNode.setValue(iterator, index + 1);
+            if (itemKind == JSRuntime.ITERATION_KIND_KEY) {
+                return indexToJS(index);
+            }
+
+            Object elementValue = readElement().executeWithTargetAndIndex(array, index);
+            if (itemKind == JSRuntime.ITERATION_KIND_VALUE) {
+                return elementValue;
+            } else {
+                assert itemKind == JSRuntime.ITERATION_KIND_KEY_PLUS_VALUE;
+                return JSArray.createConstantObjectArray(context, new Object[]{indexToJS(index), elementValue});
+            }
+        }
+
+        @Override
+        protected Object getOriginalNextFunction(JSRealm realm) {
+            return realm.getArrayIteratorNextFunction();
+        }
+
+        private long getNextIndex(DynamicObject iterator) {
+            try {
+                return getNextIndexNode.getValueLong(iterator);
+            } catch (UnexpectedResultException e) {
+                throw Errors.shouldNotReachHere();
+            }
+        }
+
+        private Object indexToJS(long index) {
+            if (intIndexProfile.profile(JSRuntime.longIsRepresentableAsInt(index))) {
+                return (int) index;
+            } else {
+                return (double) index;
+            }
+        }
+
+        private ReadElementNode readElement() {
+            if (readElementNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                readElementNode = insert(ReadElementNode.create(context));
+            }
+            return readElementNode;
+        }
+
+        private JSGetLengthNode getLength() {
+            if (getLengthNode == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                getLengthNode = insert(JSGetLengthNode.create(context));
+            }
+            return getLengthNode;
+        }
+    }
+
+    static final class SetIteratorStepNode extends BuiltinIteratorStepNode {
+        private final ConditionProfile iterKindProf = ConditionProfile.createBinaryProfile();
+
+        SetIteratorStepNode(JSContext context) {
+            super(context, JSSet.SET_ITERATION_KIND_ID);
+        }
+
+        @Override
+        public Object execute(DynamicObject iterator) {
+            Object set = getIteratedObjectNode.getValue(iterator);
+            if (detachedProf.profile(set == Undefined.instance)) {
+                return null;
+            }
+
+            JSHashMap.Cursor mapCursor = (JSHashMap.Cursor) getNextIndexNode.getValue(iterator);
+            int itemKind = getIterationKind(iterator);
+
+            if (doneProf.profile(!mapCursor.advance())) {
+                setIteratedObjectNode.setValue(iterator, Undefined.instance);
+                return null;
+            }
+
+            Object elementValue = mapCursor.getKey();
+            if (iterKindProf.profile(itemKind == JSRuntime.ITERATION_KIND_VALUE)) {
+                return elementValue;
+            } else {
+                assert itemKind == JSRuntime.ITERATION_KIND_KEY_PLUS_VALUE;
+                return JSArray.createConstantObjectArray(context, new Object[]{elementValue, elementValue});
+            }
+        }
+
+        @Override
+        protected Object getOriginalNextFunction(JSRealm realm) {
+            return realm.getSetIteratorNextFunction();
+        }
+    }
+
+    static final class MapIteratorStepNode extends BuiltinIteratorStepNode {
+        private final ConditionProfile iterKindKey = ConditionProfile.createBinaryProfile();
+        private final ConditionProfile iterKindValue = ConditionProfile.createBinaryProfile();
+
+        MapIteratorStepNode(JSContext context) {
+            super(context, JSMap.MAP_ITERATION_KIND_ID);
+        }
+
+        @Override
+        public Object execute(DynamicObject iterator) {
+            Object map = getIteratedObjectNode.getValue(iterator);
+            if (detachedProf.profile(map == Undefined.instance)) {
+                return null;
+            }
+
+            JSHashMap.Cursor mapCursor = (JSHashMap.Cursor) getNextIndexNode.getValue(iterator);
+            int itemKind = getIterationKind(iterator);
+
+            if (doneProf.profile(!mapCursor.advance())) {
+                setIteratedObjectNode.setValue(iterator, Undefined.instance);
+                return null;
+            }
+
+            Object elementKey = mapCursor.getKey();
+            Object elementValue = mapCursor.getValue();
+            if (iterKindKey.profile(itemKind == JSRuntime.ITERATION_KIND_KEY)) {
+                return elementKey;
+            } else if (iterKindValue.profile(itemKind == JSRuntime.ITERATION_KIND_VALUE)) {
+                return elementValue;
+            } else {
+                assert itemKind == JSRuntime.ITERATION_KIND_KEY_PLUS_VALUE;
+                return JSArray.createConstantObjectArray(context, new Object[]{elementKey, elementValue});
+            }
+        }
+
+        @Override
+        protected Object getOriginalNextFunction(JSRealm realm) {
+            return realm.getMapIteratorNextFunction();
+        }
+    }
+}
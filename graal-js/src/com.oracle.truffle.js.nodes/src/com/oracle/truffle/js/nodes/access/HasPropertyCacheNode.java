@@ -66,6 +66,7 @@ import com.oracle.truffle.js.runtime.interop.JavaImporter;
 import com.oracle.truffle.js.runtime.interop.JavaMember;
 import com.oracle.truffle.js.runtime.interop.JavaPackage;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.MegamorphicPropertyCache;
 import com.oracle.truffle.js.runtime.truffleinterop.JSInteropNodeUtil;
 import com.oracle.truffle.js.runtime.util.JSClassProfile;
 
@@ -220,6 +221,11 @@ public class HasPropertyCacheNode extends PropertyCacheNode<HasPropertyCacheNode
         @Override
         protected boolean hasProperty(Object thisObj, HasPropertyCacheNode root) {
             Object key = root.getKey();
+            MegamorphicPropertyCache cache = root.getContext().getMegamorphicPropertyCache();
+            Boolean cached = cache == null ? null : cache.has((DynamicObject) thisObj, key, root.isOwnProperty());
+            if (cached != null) {
+                return cached;
+            }
             if (root.isOwnProperty()) {
                 return JSObject.hasOwnProperty((DynamicObject) thisObj, key, jsclassProfile);
             } else {
@@ -40,6 +40,7 @@
  */
 package com.oracle.truffle.js.nodes.access;
 
+import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Executed;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -84,6 +85,25 @@ public abstract class IteratorStepSpecialNode extends JavaScriptNode {
         return IteratorStepSpecialNodeGen.create(context, iterator, doneNode, setDoneOnError);
     }
 
+    /**
+     * Steps a built-in iterator whose original {@code next} function has been captured in the
+     * iterator record without calling it, and thus without allocating an iterator result object.
+     */
+    @Specialization(guards = {"builtinStepNode != null", "builtinStepNode.isOriginalNext(iteratorRecord)"}, limit = "1")
+    protected Object doBuiltinIteratorStep(VirtualFrame frame, IteratorRecord iteratorRecord,
+                    @Cached("createBuiltinStep(iteratorRecord)") BuiltinIteratorStepNode builtinStepNode) {
+        Object value;
+        try {
+            value = builtinStepNode.execute(iteratorRecord.getIterator());
+        } catch (Exception ex) {
+            if (setDoneOnError) {
+                doneNode.execute(frame);
+            }
+            throw ex;
+        }
+        return value != null ? value : doneNode.execute(frame);
+    }
+
     @Specialization
     protected Object doIteratorStep(VirtualFrame frame, IteratorRecord iteratorRecord) {
         Object next = iteratorRecord.getNextMethod();
@@ -101,9 +121,12 @@ public abstract class IteratorStepSpecialNode extends JavaScriptNode {
             throw ex;
         }
 
-        Object value = getValueNode.getValue(result);
-        Object done = toBooleanNode.executeBoolean(getDoneNode.getValue(result));
-        return done == Boolean.FALSE ? value : doneNode.execute(frame);
+        boolean done = toBooleanNode.executeBoolean(getDoneNode.getValue(result));
+        return done ? doneNode.execute(frame) : getValueNode.getValue(result);
+    }
+
+    protected BuiltinIteratorStepNode createBuiltinStep(IteratorRecord iteratorRecord) {
+        return BuiltinIteratorStepNode.createForNextMethod(getValueNode.getContext(), iteratorRecord);
     }
 
     public abstract Object execute(VirtualFrame frame, IteratorRecord iteratorRecord);
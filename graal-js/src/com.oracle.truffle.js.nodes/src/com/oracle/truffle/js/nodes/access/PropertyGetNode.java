@@ -121,6 +121,7 @@ import com.oracle.truffle.js.runtime.objects.Accessor;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.JSShape;
+import com.oracle.truffle.js.runtime.objects.MegamorphicPropertyCache;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
@@ -1136,10 +1137,18 @@ public class PropertyGetNode extends PropertyCacheNode<PropertyGetNode.GetCacheN
                     return getFallback(thisObj, root);
                 }
             } else {
+                MegamorphicPropertyCache cache = root.getContext().getMegamorphicPropertyCache();
+                Object result = cache == null ? null : cache.get(thisObj, receiver, root.getKey());
+                if (result != null && result != MegamorphicPropertyCache.ABSENT) {
+                    return result;
+                }
                 if (getFromJSObjectNode == null) {
                     CompilerDirectives.transferToInterpreterAndInvalidate();
                     getFromJSObjectNode = insert(GetPropertyFromJSObjectNode.create(root.getKey(), root.getContext(), root.isRequired()));
                 }
+                if (result == MegamorphicPropertyCache.ABSENT) {
+                    return getFromJSObjectNode.getNoSuchProperty(thisObj, root.isMethod());
+                }
                 return getFromJSObjectNode.executeWithJSObject(thisObj, receiver, root.isMethod());
             }
         }
@@ -93,7 +93,7 @@ public abstract class JSConcatStringsNode extends JavaScriptBaseNode {
             int rightLength = JSRuntime.length(right, rightIsString, rightIsLazyString);
             int resultLength = leftLength + rightLength;
             if (stringLength.profile(resultLength >= JSTruffleOptions.MinLazyStringLength)) {
-                if (shortStringAppend.profile(leftLength == 1 || rightLength == 1)) {
+                if (shortStringAppend.profile(leftLength == 1 || rightLength == 1 || rightLength <= JSTruffleOptions.ConcatToChunkLimit)) {
                     JSLazyString result = JSLazyString.concatToLeafMaybe(left, right, resultLength);
                     if (result != null) {
                         return result;
@@ -54,6 +54,7 @@ import java.util.concurrent.locks.Lock;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
@@ -108,6 +109,7 @@ import com.oracle.truffle.js.runtime.interop.Converters.Converter;
 import com.oracle.truffle.js.runtime.interop.JavaClass;
 import com.oracle.truffle.js.runtime.interop.JavaMethod;
 import com.oracle.truffle.js.runtime.interop.JavaMethod.AbstractJavaMethod;
+import com.oracle.truffle.js.runtime.interop.JavaMethod.OverloadedJavaMethod;
 import com.oracle.truffle.js.runtime.interop.JavaPackage;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Undefined;
@@ -119,6 +121,9 @@ import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 
 public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaScriptFunctionCallNode {
     private static final DebugCounter megamorphicCount = DebugCounter.create("Megamorphic call site count");
+    private static final DebugCounter javaCallCacheHits = DebugCounter.create("Java call cache hits");
+    private static final DebugCounter javaCallCacheMisses = DebugCounter.create("Java call cache misses");
+    private static final DebugCounter javaCallCacheMegamorphic = DebugCounter.create("Megamorphic Java call site count");
 
     static final byte CALL = 0;
     static final byte NEW = 1;
@@ -1467,7 +1472,7 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
         }
 
         public static JavaMethodCallNode create(Object method) {
-            return JSTruffleOptions.JavaConvertersAsMethodHandles ? new MHChainJavaMethodCallNode(method) : new UninitializedJavaMethodCallNode(method);
+            return JSTruffleOptions.JavaConvertersAsMethodHandles ? new MHChainJavaMethodCallNode(method) : new UninitializedJavaMethodCallNode(method, 0);
         }
 
         @TruffleBoundary(allowInlining = true)
@@ -1484,17 +1489,38 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
     }
 
     private static final class UninitializedJavaMethodCallNode extends JavaMethodCallNode {
-        UninitializedJavaMethodCallNode(Object method) {
+        private final int depth;
+
+        UninitializedJavaMethodCallNode(Object method, int depth) {
             super(method);
+            this.depth = depth;
         }
 
         @Override
         public Object executeCall(Object[] arguments) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
-            return this.replace(makeMethodHandleCallNode(JSArguments.extractUserArguments(arguments))).executeCall(arguments);
+            javaCallCacheMisses.inc();
+            if (depth >= JSTruffleOptions.JavaCallCacheLimit) {
+                return rewriteToGeneric().executeCall(arguments);
+            }
+            return this.replace(makeMethodHandleCallNode(JSArguments.extractUserArguments(arguments), depth)).executeCall(arguments);
         }
 
-        private JavaMethodCallNode makeMethodHandleCallNode(Object[] arguments) {
+        /**
+         * Replaces the whole chain of cached overloads with a node that selects the overload on
+         * every call. The head of the chain may be held by a {@link JavaMethodCallNode} field (e.g.
+         * of a bean property access), so the replacement must be a {@link JavaMethodCallNode}, too.
+         */
+        private JavaMethodCallNode rewriteToGeneric() {
+            javaCallCacheMegamorphic.inc();
+            Node head = this;
+            while (head.getParent() instanceof MHJavaMethodCallNode) {
+                head = head.getParent();
+            }
+            return head.replace(new GenericJavaMethodCallNode(method), "megamorphic Java call");
+        }
+
+        private JavaMethodCallNode makeMethodHandleCallNode(Object[] arguments, int cacheDepth) {
             boolean isStatic;
             Pair<AbstractJavaMethod, Converter> bestMethod;
             if (method instanceof JavaMethod) {
@@ -1515,7 +1541,17 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
             // spread arguments array to parameters
             adaptedHandle = adaptedHandle.asSpreader(Object[].class, parameterTypes.length);
 
-            return new MHJavaMethodCallNode(method, adaptedHandle, converter);
+            // overloads are selected by argument type, so key the entry on the exact types seen
+            Class<?>[] argumentTypes = method instanceof OverloadedJavaMethod ? argumentTypes(arguments) : null;
+            return new MHJavaMethodCallNode(method, adaptedHandle, converter, argumentTypes, cacheDepth);
+        }
+
+        private static Class<?>[] argumentTypes(Object[] arguments) {
+            Class<?>[] types = new Class<?>[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                types[i] = arguments[i] == null ? null : arguments[i].getClass();
+            }
+            return types;
         }
 
         private static MethodHandle adaptSignature(MethodHandle originalHandle, boolean isStatic) {
@@ -1533,24 +1569,65 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
     private static final class MHJavaMethodCallNode extends JavaMethodCallNode {
         private final MethodHandle methodHandle;
         private final Converter converter;
+        @CompilationFinal(dimensions = 1) private final Class<?>[] argumentTypes;
         @Child private JavaMethodCallNode next;
 
-        MHJavaMethodCallNode(Object method, MethodHandle methodHandle, Converter converter) {
+        MHJavaMethodCallNode(Object method, MethodHandle methodHandle, Converter converter, Class<?>[] argumentTypes, int depth) {
             super(method);
             this.methodHandle = methodHandle;
             this.converter = converter;
-            this.next = new UninitializedJavaMethodCallNode(method);
+            this.argumentTypes = argumentTypes;
+            this.next = new UninitializedJavaMethodCallNode(method, depth + 1);
         }
 
         @Override
         public Object executeCall(Object[] arguments) {
             Object[] userArgs = JSArguments.extractUserArguments(arguments);
-            if (converter.guard(userArgs)) {
+            if (argumentTypesMatch(userArgs) && converter.guard(userArgs)) {
+                javaCallCacheHits.inc();
                 return Converters.JAVA_TO_JS_CONVERTER.convert(invoke(methodHandle, JSArguments.getThisObject(arguments), (Object[]) converter.convert(userArgs)));
             } else {
                 return next.executeCall(arguments);
             }
         }
+
+        @ExplodeLoop
+        private boolean argumentTypesMatch(Object[] userArgs) {
+            if (argumentTypes == null) {
+                return true;
+            }
+            if (userArgs.length != argumentTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < argumentTypes.length; i++) {
+                Object argument = userArgs[i];
+                Class<?> type = argumentTypes[i];
+                if (type == null ? argument != null : (argument == null || argument.getClass() != type)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Megamorphic end of a {@link JavaMethodCallNode} chain: selects the overload on every call.
+     */
+    private static final class GenericJavaMethodCallNode extends JavaMethodCallNode {
+
+        GenericJavaMethodCallNode(Object method) {
+            super(method);
+            assert method instanceof JavaMethod || method instanceof JavaClass;
+        }
+
+        @Override
+        public Object executeCall(Object[] arguments) {
+            if (method instanceof JavaMethod) {
+                return ((JavaMethod) method).invoke(JSArguments.getThisObject(arguments), JSArguments.extractUserArguments(arguments));
+            } else {
+                return ((JavaClass) method).newInstance(JSArguments.extractUserArguments(arguments));
+            }
+        }
     }
 
     private static class JavaClassCallNode extends JavaDirectCallNode {
@@ -1670,13 +1747,25 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
     }
 
     /**
-     * Generic case for {@link JSFunction}s.
+     * Generic case for {@link JSFunction}s. The call site profiles its targets for its first
+     * {@link JSTruffleOptions#MegamorphicCallProfileBudget} calls, in the interpreter and in compiled
+     * code. Targets that are called frequently within that budget get a direct call node, up to
+     * {@link JSTruffleOptions#MegamorphicDirectCallLimit}, so that they can still be inlined. All
+     * other targets are called indirectly. Once the budget is used up, the profile is dropped and
+     * the call site no longer counts calls.
      */
     private static class GenericJSFunctionCacheNode extends AbstractCacheNode {
         private final byte flags;
 
         @Child private IndirectCallNode indirectCallNode;
         @Child private AbstractCacheNode next;
+        @Child private MegamorphicDirectCallNode directCalls;
+        @CompilationFinal private int directCallCount;
+        @CompilationFinal private boolean profiling;
+        /** Frequent targets and their counts while profiling (a Misra-Gries summary). */
+        private JSFunctionData[] profiledTargets;
+        private int[] profiledCounts;
+        private int profiledCalls;
         private final BranchProfile initBranch;
 
         GenericJSFunctionCacheNode(byte flags, AbstractCacheNode next) {
@@ -1684,14 +1773,32 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
             this.indirectCallNode = Truffle.getRuntime().createIndirectCallNode();
             this.next = next;
             this.initBranch = BranchProfile.create();
+            if (JSTruffleOptions.MegamorphicDirectCallLimit > 0 && JSTruffleOptions.MegamorphicCallProfileBudget > 0) {
+                this.profiling = true;
+                this.profiledTargets = new JSFunctionData[2 * JSTruffleOptions.MegamorphicDirectCallLimit];
+                this.profiledCounts = new int[2 * JSTruffleOptions.MegamorphicDirectCallLimit];
+            }
             megamorphicCount.inc();
         }
 
+        @ExplodeLoop(kind = LoopExplosionKind.FULL_EXPLODE_UNTIL_RETURN)
         @Override
         public Object executeCall(Object[] arguments) {
             Object function = JSArguments.getFunctionObject(arguments);
             DynamicObject functionObject = (DynamicObject) function;
             JSFunctionData functionData = JSFunction.getFunctionData(functionObject);
+            if (JSTruffleOptions.TraceMegamorphicCalls) {
+                functionData.getContext().getMegamorphicCallTargets().traceCall(functionData, this);
+            }
+            for (MegamorphicDirectCallNode c = directCalls; c != null; c = c.next) {
+                if (c.functionData == functionData) {
+                    return c.callNode.call(arguments);
+                }
+            }
+            if (profiling && profileCall(functionData)) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                updateDirectCalls(functionData);
+            }
             if (isNewTarget(flags)) {
                 return indirectCallNode.call(functionData.getConstructNewTarget(initBranch), arguments);
             } else if (isNew(flags)) {
@@ -1701,12 +1808,117 @@ public abstract class JSFunctionCallNode extends JavaScriptNode implements JavaS
             }
         }
 
+        /**
+         * Counts an indirect call of the target and returns whether the target has become hot or the
+         * profiling budget is used up, i.e., whether {@link #updateDirectCalls} has to be called.
+         * Concurrent calls may be miscounted.
+         */
+        @TruffleBoundary
+        private boolean profileCall(JSFunctionData functionData) {
+            JSFunctionData[] targets = profiledTargets;
+            int[] counts = profiledCounts;
+            if (targets == null) {
+                // profiling has just been stopped
+                return true;
+            }
+            boolean hot = false;
+            int index = indexOf(targets, functionData);
+            if (index >= 0) {
+                hot = ++counts[index] >= JSTruffleOptions.MegamorphicDirectCallThreshold;
+            } else if ((index = indexOf(targets, null)) >= 0) {
+                targets[index] = functionData;
+                counts[index] = 1;
+                hot = JSTruffleOptions.MegamorphicDirectCallThreshold <= 1;
+            } else {
+                // all slots are taken by other targets; free the slots of the infrequent ones
+                for (int i = 0; i < targets.length; i++) {
+                    if (--counts[i] <= 0) {
+                        targets[i] = null;
+                    }
+                }
+            }
+            return hot || ++profiledCalls >= JSTruffleOptions.MegamorphicCallProfileBudget;
+        }
+
+        private static int indexOf(JSFunctionData[] targets, JSFunctionData functionData) {
+            for (int i = 0; i < targets.length; i++) {
+                if (targets[i] == functionData) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Gives the target a direct call if it is hot, and stops profiling if the budget or the
+         * direct call limit is used up.
+         */
+        private void updateDirectCalls(JSFunctionData functionData) {
+            CompilerAsserts.neverPartOfCompilation();
+            Lock lock = getLock();
+            lock.lock();
+            try {
+                if (!profiling) {
+                    return;
+                }
+                int index = indexOf(profiledTargets, functionData);
+                if (index >= 0 && profiledCounts[index] >= JSTruffleOptions.MegamorphicDirectCallThreshold) {
+                    profiledTargets[index] = null;
+                    profiledCounts[index] = 0;
+                    addDirectCall(functionData);
+                }
+                if (profiledCalls >= JSTruffleOptions.MegamorphicCallProfileBudget || directCallCount >= JSTruffleOptions.MegamorphicDirectCallLimit) {
+                    profiling = false;
+                    profiledTargets = null;
+                    profiledCounts = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void addDirectCall(JSFunctionData functionData) {
+            CallTarget callTarget;
+            if (isNewTarget(flags)) {
+                callTarget = functionData.getConstructNewTarget();
+            } else if (isNew(flags)) {
+                callTarget = functionData.getConstructTarget();
+            } else {
+                callTarget = functionData.getCallTarget();
+            }
+            if (JSTruffleOptions.TraceFunctionCache) {
+                System.out.printf("FUNCTION CACHE megamorphic direct call to %s %s (depth=%d)\n", functionData.getName(), getEncapsulatingSourceSection(), directCallCount + 1);
+            }
+            directCalls = insert(new MegamorphicDirectCallNode(functionData, callTarget, directCalls));
+            directCallCount++;
+        }
+
         @Override
         protected boolean accept(Object function) {
             return JSFunction.isJSFunction(function);
         }
     }
 
+    /**
+     * Direct call of a hot target of a megamorphic call site, see {@link GenericJSFunctionCacheNode}.
+     */
+    private static final class MegamorphicDirectCallNode extends JavaScriptBaseNode {
+        final JSFunctionData functionData;
+        @Child DirectCallNode callNode;
+        @Child MegamorphicDirectCallNode next;
+
+        MegamorphicDirectCallNode(JSFunctionData functionData, CallTarget callTarget, MegamorphicDirectCallNode next) {
+            this.functionData = functionData;
+            this.callNode = Truffle.getRuntime().createDirectCallNode(callTarget);
+            this.next = next;
+        }
+
+        @Override
+        public NodeCost getCost() {
+            return NodeCost.NONE;
+        }
+    }
+
     private static class JSProxyCacheNode extends AbstractCacheNode {
         @Child private JSProxyCallNode proxyCall;
         @Child private AbstractCacheNode next;
@@ -100,16 +100,14 @@ public class PerformPromiseThenNode extends JavaScriptBaseNode {
             ((SimpleArrayList<? super PromiseReactionRecord>) getPromiseRejectReactions.getValue(promise)).add(rejectReaction, growProfile);
         } else if (fulfilledProf.profile(promiseState == JSPromise.FULFILLED)) {
             Object value = getPromiseResult(promise);
-            DynamicObject job = getPromiseReactionJob(fulfillReaction, value);
-            context.promiseEnqueueJob(job);
+            enqueuePromiseReactionJob(fulfillReaction, value);
         } else {
             assert promiseState == JSPromise.REJECTED;
             Object reason = getPromiseResult(promise);
             if (unhandledProf.profile(!getPromiseIsHandled(promise))) {
                 context.notifyPromiseRejectionTracker(promise, JSPromise.REJECTION_TRACKER_OPERATION_HANDLE);
             }
-            DynamicObject job = getPromiseReactionJob(rejectReaction, reason);
-            context.promiseEnqueueJob(job);
+            enqueuePromiseReactionJob(rejectReaction, reason);
         }
         setPromiseIsHandled.setValueBoolean(promise, true);
         if (resultCapability == null) {
@@ -118,12 +116,12 @@ public class PerformPromiseThenNode extends JavaScriptBaseNode {
         return resultCapability.getPromise();
     }
 
-    private DynamicObject getPromiseReactionJob(PromiseReactionRecord reaction, Object value) {
+    private void enqueuePromiseReactionJob(PromiseReactionRecord reaction, Object value) {
         if (promiseReactionJob == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             promiseReactionJob = insert(PromiseReactionJobNode.create(context));
         }
-        return promiseReactionJob.execute(reaction, value);
+        promiseReactionJob.enqueue(reaction, value);
     }
 
     private Object getPromiseResult(DynamicObject promise) {
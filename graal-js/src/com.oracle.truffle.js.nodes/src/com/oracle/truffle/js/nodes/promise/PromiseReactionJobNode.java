@@ -44,56 +44,42 @@ import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.profiles.ValueProfile;
 import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
-import com.oracle.truffle.js.nodes.access.PropertyGetNode;
-import com.oracle.truffle.js.nodes.access.PropertySetNode;
 import com.oracle.truffle.js.nodes.control.TryCatchNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
 import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSContext;
-import com.oracle.truffle.js.runtime.JSFrameUtil;
 import com.oracle.truffle.js.runtime.JavaScriptRootNode;
 import com.oracle.truffle.js.runtime.PromiseHook;
-import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 import com.oracle.truffle.js.runtime.objects.PromiseCapabilityRecord;
 import com.oracle.truffle.js.runtime.objects.PromiseReactionRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
+/**
+ * Enqueues a PromiseReactionJob. The job is not represented by a function object; the reaction and
+ * argument are passed to its call target directly by the promise job queue.
+ */
 public class PromiseReactionJobNode extends JavaScriptBaseNode {
-    static final HiddenKey REACTION_KEY = new HiddenKey("Reaction");
-    static final HiddenKey ARGUMENT_KEY = new HiddenKey("Argument");
-
     private final JSContext context;
-    @Child private PropertySetNode setReaction;
-    @Child private PropertySetNode setArgument;
 
     protected PromiseReactionJobNode(JSContext context) {
         this.context = context;
-        this.setReaction = PropertySetNode.createSetHidden(REACTION_KEY, context);
-        this.setArgument = PropertySetNode.createSetHidden(ARGUMENT_KEY, context);
     }
 
     public static PromiseReactionJobNode create(JSContext context) {
         return new PromiseReactionJobNode(context);
     }
 
-    public DynamicObject execute(Object reaction, Object argument) {
+    public void enqueue(Object reaction, Object argument) {
         JSFunctionData functionData = context.getOrCreateBuiltinFunctionData(JSContext.BuiltinFunctionKey.PromiseReactionJob, (c) -> createPromiseReactionJobImpl(c));
-        DynamicObject function = JSFunction.create(context.getRealm(), functionData);
-        setReaction.setValue(function, reaction);
-        setArgument.setValue(function, argument);
-        return function;
+        context.promiseEnqueueJob(functionData, reaction, argument);
     }
 
     private static JSFunctionData createPromiseReactionJobImpl(JSContext context) {
         class PromiseReactionJob extends JavaScriptRootNode {
-            @Child private PropertyGetNode getReaction = PropertyGetNode.createGetHidden(REACTION_KEY, context);
-            @Child private PropertyGetNode getArgument = PropertyGetNode.createGetHidden(ARGUMENT_KEY, context);
             @Child private JSFunctionCallNode callResolveNode;
             @Child private JSFunctionCallNode callRejectNode;
             @Child private JSFunctionCallNode callHandlerNode;
@@ -103,9 +89,9 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
 
             @Override
             public Object execute(VirtualFrame frame) {
-                DynamicObject functionObject = JSFrameUtil.getFunctionObject(frame);
-                PromiseReactionRecord reaction = (PromiseReactionRecord) getReaction.getValue(functionObject);
-                Object argument = getArgument.getValue(functionObject);
+                Object[] arguments = frame.getArguments();
+                PromiseReactionRecord reaction = (PromiseReactionRecord) JSArguments.getUserArgument(arguments, 0);
+                Object argument = JSArguments.getUserArgument(arguments, 1);
 
                 PromiseCapabilityRecord promiseCapability = reaction.getCapability();
                 Object handler = reaction.getHandler();
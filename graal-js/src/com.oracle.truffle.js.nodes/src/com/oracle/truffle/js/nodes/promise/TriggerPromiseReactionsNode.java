@@ -40,18 +40,15 @@
  */
 package com.oracle.truffle.js.nodes.promise;
 
-import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 
 public class TriggerPromiseReactionsNode extends JavaScriptBaseNode {
-    private final JSContext context;
     @Child private PromiseReactionJobNode promiseReactionJob;
 
     protected TriggerPromiseReactionsNode(JSContext context) {
-        this.context = context;
         this.promiseReactionJob = PromiseReactionJobNode.create(context);
     }
 
@@ -67,8 +64,7 @@ public class TriggerPromiseReactionsNode extends JavaScriptBaseNode {
         SimpleArrayList<?> list = (SimpleArrayList<?>) reactions;
         for (int i = 0; i < list.size(); i++) {
             Object reaction = list.get(i);
-            DynamicObject job = promiseReactionJob.execute(reaction, argument);
-            context.promiseEnqueueJob(job);
+            promiseReactionJob.enqueue(reaction, argument);
         }
         return Undefined.instance;
     }
@@ -41,16 +41,16 @@
 package com.oracle.truffle.js.parser;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.codec.BinaryDecoder;
-import com.oracle.truffle.js.codec.NodeDecoder;
 import com.oracle.truffle.js.nodes.JSNodeDecoder;
 import com.oracle.truffle.js.nodes.NodeFactory;
 import com.oracle.truffle.js.runtime.JSContext;
 
 public class BinarySnapshotProvider implements SnapshotProvider {
-    public static final int MAGIC = 0x314e4942;
+    public static final int MAGIC = 0x324e4942;
     private final ByteBuffer buffer;
 
     public BinarySnapshotProvider(ByteBuffer buffer) {
@@ -84,6 +84,21 @@ public class BinarySnapshotProvider implements SnapshotProvider {
         if (code.length() != sourceLength || code.hashCode() != sourceHash) {
             throw new IllegalArgumentException("Snapshot verification failed");
         }
-        return new JSNodeDecoder().decodeNode(new NodeDecoder.DecoderState(decoder), nodeFactory, context, source);
+        int functionCount = decoder.getInt32();
+        int functionTableOffset = decoder.getBuffer().position();
+        long functionTableEnd = functionTableOffset + (long) functionCount * Integer.BYTES;
+        if (functionCount <= 0 || functionTableEnd > buffer.limit()) {
+            throw new IllegalArgumentException("Snapshot verification failed");
+        }
+        // nested functions are decoded lazily, so check every entry before anything is decoded
+        ByteBuffer functionTable = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < functionCount; i++) {
+            int functionOffset = functionTable.getInt(functionTableOffset + i * Integer.BYTES);
+            if (functionOffset < functionTableEnd || functionOffset >= buffer.limit()) {
+                throw new IllegalArgumentException("Snapshot verification failed");
+            }
+        }
+        // only the entry point is decoded eagerly, nested functions are decoded on first call
+        return new JSNodeDecoder(buffer, functionTableOffset, functionCount).decodeFunction(0, new Object[0], nodeFactory, context, source);
     }
 }
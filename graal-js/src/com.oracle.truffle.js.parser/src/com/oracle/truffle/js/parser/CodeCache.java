@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.nodes.JSNodeDecoder;
+import com.oracle.truffle.js.nodes.NodeFactory;
+import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.nodes.function.FunctionRootNode;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+
+/**
+ * Persistent cache of translated scripts.
+ *
+ * Each entry is a binary snapshot (as read by {@link BinarySnapshotProvider}) stored in a file
+ * named after a hash of the source code, the engine version, the node encoding checksum and the
+ * parser option values. The snapshot is preceded by its length and CRC32 checksum, which are
+ * verified before anything is decoded, so corrupt nested functions are detected before the entry
+ * is used. On a hit, the file is memory-mapped and decoded instead of running the parser and
+ * translator. Only the top-level program is decoded up front; nested functions are decoded from
+ * the mapping when they are first called. Entries that fail validation are deleted. When the
+ * total size of the cache exceeds its limit, the least recently used entries are evicted.
+ *
+ * Writing entries requires a {@link SnapshotRecorder}. The recorder of the snapshot project is
+ * installed when a context with a code cache is created, see {@link #installDefaultRecorder}.
+ * Without a recorder, the cache is read-only, e.g. populated ahead of time by the snapshot tool.
+ */
+public final class CodeCache {
+    public static final String FILE_SUFFIX = ".bin";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String DEFAULT_RECORDER_CLASS_NAME = "com.oracle.truffle.js.snapshot.CodeCacheRecorder";
+
+    /** Entry header: magic, snapshot length and CRC32 of the snapshot. */
+    private static final int ENTRY_MAGIC = 0x45434a47;
+    private static final int ENTRY_HEADER_SIZE = 3 * Integer.BYTES;
+
+    private static final ConcurrentHashMap<Path, CodeCache> CACHES = new ConcurrentHashMap<>();
+    private static volatile SnapshotRecorder recorder;
+
+    private final Path directory;
+    private final long maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+
+    /**
+     * Translates a script and writes its binary snapshot encoding.
+     */
+    public interface SnapshotRecorder {
+        ScriptNode translate(NodeFactory nodeFactory, JSContext context, Source source, boolean isStrict, OutputStream out);
+    }
+
+    private CodeCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public static void setRecorder(SnapshotRecorder snapshotRecorder) {
+        recorder = snapshotRecorder;
+    }
+
+    /**
+     * Installs the recorder of the snapshot project, unless a recorder is already installed. The
+     * snapshot project depends on the parser, so it is looked up by name.
+     */
+    static void installDefaultRecorder() {
+        if (recorder != null) {
+            return;
+        }
+        try {
+            Class.forName(DEFAULT_RECORDER_CLASS_NAME).getMethod("install").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // recorder not available, the cache is read-only
+        }
+    }
+
+    /**
+     * Returns the code cache of the directory. There is one instance per directory, which evicts
+     * entries according to its size limit, so all users of a directory must agree on the limit.
+     *
+     * @throws IllegalArgumentException if the cache of the directory is already in use with a
+     *             different size limit
+     */
+    public static CodeCache getInstance(Path directory, long maxSize) {
+        CodeCache cache = CACHES.computeIfAbsent(directory.toAbsolutePath().normalize(), dir -> new CodeCache(dir, maxSize));
+        if (cache.maxSize != maxSize) {
+            throw new IllegalArgumentException("Code cache " + cache.directory + " is already in use with a maximum size of " + cache.maxSize + " bytes, cannot use it with " + maxSize + " bytes");
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the code cache configured for this context, or {@code null} if it is disabled.
+     */
+    static CodeCache fromContext(JSContext context) {
+        String dir = context.getContextOptions().getCodeCacheDir();
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        return getInstance(Paths.get(dir), context.getContextOptions().getCodeCacheMaxSize());
+    }
+
+    static boolean isCacheable(Source source) {
+        return !source.isInternal() && !source.isInteractive();
+    }
+
+    public ScriptNode parseScriptNode(JSContext context, Source source, boolean isStrict) {
+        CompilerAsserts.neverPartOfCompilation();
+        NodeFactory nodeFactory = NodeFactory.getInstance(context);
+        Path file = directory.resolve(computeKey(context, source, isStrict) + FILE_SUFFIX);
+        ByteBuffer buffer = map(file);
+        if (buffer != null) {
+            try {
+                buffer = verifyEntry(buffer);
+                ScriptNode program = ScriptNode.fromFunctionRoot(context, (FunctionRootNode) new BinarySnapshotProvider(buffer).apply(nodeFactory, context, source));
+                hits.incrementAndGet();
+                touch(file);
+                return program;
+            } catch (RuntimeException e) {
+                // corrupt or stale entry
+                invalid.incrementAndGet();
+                delete(file);
+            }
+        }
+        misses.incrementAndGet();
+        SnapshotRecorder snapshotRecorder = recorder;
+        if (snapshotRecorder == null || JSTruffleOptions.LazyTranslation) {
+            return JavaScriptTranslator.translateScript(nodeFactory, context, source, isStrict);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScriptNode program = snapshotRecorder.translate(nodeFactory, context, source, isStrict, out);
+        if (out.size() != 0) {
+            store(file, out.toByteArray());
+        }
+        return program;
+    }
+
+    /**
+     * Writes an entry for the given source, e.g. to populate the cache ahead of time. The snapshot
+     * must have been recorded with the strictness of the context's parser options.
+     */
+    public void put(JSContext context, Source source, byte[] snapshot) {
+        boolean isStrict = ((GraalJSParserOptions) context.getParserOptions()).isStrict();
+        store(directory.resolve(computeKey(context, source, isStrict) + FILE_SUFFIX), snapshot);
+    }
+
+    /**
+     * Checks the header and checksum of an entry and returns the snapshot it contains.
+     */
+    private static ByteBuffer verifyEntry(ByteBuffer entry) {
+        ByteBuffer header = entry.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (header.remaining() < ENTRY_HEADER_SIZE || header.getInt() != ENTRY_MAGIC) {
+            throw new IllegalArgumentException("Unknown format");
+        }
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length != header.remaining()) {
+            throw new IllegalArgumentException("Truncated entry");
+        }
+        ByteBuffer snapshot = header.slice();
+        CRC32 crc = new CRC32();
+        crc.update(snapshot.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IllegalArgumentException("Checksum mismatch");
+        }
+        return snapshot;
+    }
+
+    private static byte[] createEntry(byte[] snapshot) {
+        CRC32 crc = new CRC32();
+        crc.update(snapshot);
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER_SIZE + snapshot.length).order(ByteOrder.LITTLE_ENDIAN);
+        entry.putInt(ENTRY_MAGIC).putInt(snapshot.length).putInt((int) crc.getValue()).put(snapshot);
+        return entry.array();
+    }
+
+    private static ByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            // no entry
+            return null;
+        }
+    }
+
+    private void store(Path file, byte[] snapshot) {
+        try {
+            Files.createDirectories(directory);
+            // write to a temporary file first, so that concurrent readers never see partial entries
+            Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), TEMP_FILE_SUFFIX);
+            try {
+                Files.write(tempFile, createEntry(snapshot));
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            stores.incrementAndGet();
+        } catch (IOException e) {
+            // the cache is best effort
+            return;
+        }
+        evictIfNecessary();
+    }
+
+    private synchronized void evictIfNecessary() {
+        List<Path> files = new ArrayList<>();
+        long totalSize = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+                totalSize += Files.size(file);
+            }
+        } catch (IOException e) {
+            return;
+        }
+        if (totalSize <= maxSize) {
+            return;
+        }
+        files.sort(Comparator.comparing(CodeCache::lastModifiedTime));
+        for (Path file : files) {
+            if (totalSize <= maxSize) {
+                break;
+            }
+            try {
+                long size = Files.size(file);
+                if (Files.deleteIfExists(file)) {
+                    totalSize -= size;
+                    evictions.incrementAndGet();
+                }
+            } catch (IOException e) {
+                // concurrently removed
+            }
+        }
+    }
+
+    private static FileTime lastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // only affects eviction order
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private static String computeKey(JSContext context, Source source, boolean isStrict) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // option values rather than their hash code, which may collide
+        String engineKey = AbstractJavaScriptLanguage.VERSION_NUMBER + ':' + JSNodeDecoder.getChecksum() + ':' + context.getParserOptions() + ':' + isStrict;
+        digest.update(engineKey.getBytes(StandardCharsets.UTF_8));
+        digest.update(source.getCharacters().toString().getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getStores() {
+        return stores.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidEntries() {
+        return invalid.get();
+    }
+
+    @Override
+    public String toString() {
+        return "CodeCache[" + directory + ", hits=" + getHits() + ", misses=" + getMisses() + ", stores=" + getStores() + ", evictions=" + getEvictions() + ", invalid=" + getInvalidEntries() + "]";
+    }
+}
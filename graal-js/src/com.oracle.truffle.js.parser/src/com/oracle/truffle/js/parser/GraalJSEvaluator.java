@@ -95,6 +95,7 @@ import com.oracle.truffle.js.runtime.objects.ExportResolution;
 import com.oracle.truffle.js.runtime.objects.JSModuleLoader;
 import com.oracle.truffle.js.runtime.objects.JSModuleRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.EvalCache;
 import com.oracle.truffle.js.runtime.util.Pair;
 
 /**
@@ -120,6 +121,14 @@ public final class GraalJSEvaluator implements JSParser {
      */
     @Override
     public ScriptNode parseFunction(JSContext context, String parameterList, String body, boolean generatorFunction, boolean asyncFunction, String sourceName) {
+        EvalCache evalCache = EvalCache.isCacheable(body, parameterList) ? context.getEvalCache() : null;
+        int kind = EvalCache.FUNCTION | (generatorFunction ? EvalCache.GENERATOR : 0) | (asyncFunction ? EvalCache.ASYNC : 0);
+        if (evalCache != null) {
+            ScriptNode cached = (ScriptNode) evalCache.get(body, parameterList, sourceName, null, kind);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
             GraalJSParserHelper.checkFunctionSyntax((GraalJSParserOptions) context.getParserOptions(), parameterList, body, generatorFunction, asyncFunction);
         } catch (com.oracle.js.parser.ParserException e) {
@@ -152,7 +161,11 @@ public final class GraalJSEvaluator implements JSParser {
         code.append("})");
         Source source = Source.newBuilder(AbstractJavaScriptLanguage.ID, code.toString(), sourceName).build();
 
-        return parseEval(context, null, null, source, false);
+        ScriptNode scriptNode = parseEval(context, null, null, source, false);
+        if (evalCache != null) {
+            evalCache.put(body, parameterList, sourceName, null, kind, scriptNode);
+        }
+        return scriptNode;
     }
 
     /**
@@ -178,10 +191,29 @@ public final class GraalJSEvaluator implements JSParser {
     @TruffleBoundary
     private static Object doEvaluate(JSRealm realm, Node lastNode, Environment env, Object thisObj, MaterializedFrame materializedFrame, Source source, boolean isStrict) {
         JSContext context = realm.getContext();
-        ScriptNode scriptNode = parseEval(context, lastNode, env, source, isStrict);
+        ScriptNode scriptNode = parseEvalCached(context, lastNode, env, source, isStrict);
         return runParsed(scriptNode, realm, thisObj, materializedFrame);
     }
 
+    /**
+     * Parses eval code, reusing an earlier parse of the same source text against the same scope.
+     * Nothing is cached if eval is disabled, so a cache hit needs no further check.
+     */
+    private static ScriptNode parseEvalCached(JSContext context, Node lastNode, Environment env, Source source, boolean isStrict) {
+        EvalCache evalCache = context.getEvalCache();
+        if (evalCache == null || !EvalCache.isCacheable(source.getCharacters(), null)) {
+            return parseEval(context, lastNode, env, source, isStrict);
+        }
+        String code = source.getCharacters().toString();
+        int kind = isStrict ? EvalCache.STRICT : 0;
+        ScriptNode scriptNode = (ScriptNode) evalCache.get(code, null, source.getName(), env, kind);
+        if (scriptNode == null) {
+            scriptNode = parseEval(context, lastNode, env, source, isStrict);
+            evalCache.put(code, null, source.getName(), env, kind, scriptNode);
+        }
+        return scriptNode;
+    }
+
     private static Object runParsed(ScriptNode scriptNode, JSRealm realm, Object thisObj, MaterializedFrame materializedFrame) {
         DynamicObject functionObj = JSFunction.create(realm, scriptNode.getFunctionData(), materializedFrame);
         return scriptNode.run(JSArguments.createZeroArg(thisObj, functionObj));
@@ -249,6 +281,10 @@ public final class GraalJSEvaluator implements JSParser {
         if (source.getName().startsWith(MODULE_SOURCE_NAME_PREFIX) || source.getName().endsWith(MODULE_SOURCE_NAME_SUFFIX)) {
             return fakeScriptForModule(context, source);
         }
+        CodeCache codeCache = CodeCache.fromContext(context);
+        if (codeCache != null && CodeCache.isCacheable(source)) {
+            return codeCache.parseScriptNode(context, source, po.isStrict());
+        }
         return JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, source, po.isStrict());
     }
 
@@ -310,11 +346,25 @@ public final class GraalJSEvaluator implements JSParser {
         }
     }
 
+    @Override
+    public JSModuleRecord tryParseModule(JSContext context, Source source, JSModuleLoader moduleLoader) {
+        com.oracle.js.parser.ir.FunctionNode parsed = GraalJSParserHelper.tryParseModule(source, ((GraalJSParserOptions) context.getParserOptions()).putStrict(true));
+        if (parsed == null) {
+            return null;
+        }
+        return JavaScriptTranslator.translateModule(NodeFactory.getInstance(context), context, source, moduleLoader, parsed);
+    }
+
     @Override
     public JSModuleRecord hostResolveImportedModule(JSModuleRecord referencingModule, String specifier) {
         return referencingModule.getModuleLoader().resolveImportedModule(referencingModule, specifier);
     }
 
+    @Override
+    public List<String> getRequestedModules(JSModuleRecord moduleRecord) {
+        return ((Module) moduleRecord.getModule()).getRequestedModules();
+    }
+
     Collection<String> getExportedNames(JSModuleRecord moduleRecord) {
         return getExportedNames(moduleRecord, new HashSet<>());
     }
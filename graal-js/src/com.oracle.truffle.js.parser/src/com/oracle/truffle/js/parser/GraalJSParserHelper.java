@@ -86,6 +86,23 @@ public class GraalJSParserHelper {
         return parseSource(truffleSource, parserOptions, true, false);
     }
 
+    /**
+     * Parses a module without reporting syntax errors, which would create error objects and
+     * therefore requires an entered context. Returns {@code null} if the module has syntax errors.
+     */
+    public static FunctionNode tryParseModule(com.oracle.truffle.api.source.Source truffleSource, GraalJSParserOptions parserOptions) {
+        CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
+        com.oracle.js.parser.Source source = com.oracle.js.parser.Source.sourceFor(truffleSource.getName(), truffleSource.getCharacters(), false);
+        ErrorManager errors = new ErrorManager.StringBuilderErrorManager();
+        errors.setLimit(0);
+        try {
+            FunctionNode parsed = createParser(makeScriptEnvironment(parserOptions), source, errors, parserOptions).parseModule(":module");
+            return errors.hasErrors() ? null : parsed;
+        } catch (ParserException e) {
+            return null;
+        }
+    }
+
     private static FunctionNode parseSource(com.oracle.truffle.api.source.Source truffleSource, GraalJSParserOptions parserOptions, boolean parseModule, boolean eval) {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         CharSequence code = truffleSource.getCharacters();
@@ -302,4 +302,11 @@ public final class GraalJSParserOptions implements ParserOptions {
         }
         return true;
     }
+
+    @Override
+    public String toString() {
+        return "GraalJSParserOptions [strict=" + strict + ", scripting=" + scripting + ", shebang=" + shebang + ", ecmaScriptVersion=" + ecmaScriptVersion + ", syntaxExtensions=" +
+                        syntaxExtensions + ", constAsVar=" + constAsVar + ", functionStatementError=" + functionStatementError + ", dumpOnError=" + dumpOnError + ", emptyStatements=" +
+                        emptyStatements + ", annexB=" + annexB + "]";
+    }
 }
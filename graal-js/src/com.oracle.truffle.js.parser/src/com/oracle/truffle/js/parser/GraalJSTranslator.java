@@ -1826,19 +1826,20 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
 
     private JavaScriptNode desugarForInOrOfBody(ForNode forNode, JavaScriptNode iterator, JumpTargetCloseable<ContinueTarget> jumpTarget) {
         VarRef iteratorVar = environment.createTempVar();
-        JavaScriptNode iteratorInit = iteratorVar.createWriteNode(iterator);
-        VarRef nextResultVar = environment.createTempVar();
+        VarRef nextValueVar = environment.createTempVar();
         VarRef doneVar = environment.createTempVar();
-        JavaScriptNode iteratorNext = factory.createIteratorNext(iteratorVar.createReadNode());
-        // nextResult = IteratorNext(iterator)
-        // while(!(done = IteratorComplete(nextResult)))
-        JavaScriptNode condition = factory.createUnary(UnaryOperation.NOT, doneVar.createWriteNode(factory.createIteratorComplete(context, nextResultVar.createWriteNode(iteratorNext))));
+        JavaScriptNode iteratorInit = iteratorVar.createWriteNode(iterator);
+        JavaScriptNode doneInit = doneVar.createWriteNode(factory.createConstantBoolean(false));
+        // Steps the iterator and extracts the value in one go (done is set when exhausted), which
+        // allows built-in iterators to skip creating the iterator result object.
+        JavaScriptNode setDone = factory.createExprBlock(doneVar.createWriteNode(factory.createConstantBoolean(true)), factory.createConstantUndefined());
+        JavaScriptNode iteratorStep = factory.createIteratorStepSpecial(context, iteratorVar.createReadNode(), setDone, true);
+        // while(nextValue = IteratorStep(iterator), !done)
+        JavaScriptNode condition = factory.createDual(context, nextValueVar.createWriteNode(iteratorStep), factory.createUnary(UnaryOperation.NOT, doneVar.createReadNode()));
         JavaScriptNode wrappedBody;
         try (EnvironmentCloseable blockEnv = forNode.hasPerIterationScope() ? enterBlockEnvironment(lc.getCurrentBlock()) : new EnvironmentCloseable(environment)) {
-            // var nextValue = IteratorValue(nextResult);
-            VarRef nextResultVar2 = environment.findTempVar(nextResultVar.getFrameSlot());
-            JavaScriptNode nextResult = nextResultVar2.createReadNode();
-            JavaScriptNode nextValue = factory.createIteratorValue(context, nextResult);
+            VarRef nextValueVar2 = environment.findTempVar(nextValueVar.getFrameSlot());
+            JavaScriptNode nextValue = nextValueVar2.createReadNode();
             JavaScriptNode writeNext = tagStatement(desugarForHeadAssignment(forNode, nextValue), forNode);
             JavaScriptNode body = transform(forNode.getBody());
             wrappedBody = blockEnv.wrapBlockScope(createBlock(writeNext, body));
@@ -1848,7 +1849,7 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         JavaScriptNode wrappedWhile = factory.createIteratorCloseIfNotDone(context, jumpTarget.wrapBreakTargetNode(whileNode), iteratorVar.createReadNode(), doneVar.createReadNode());
         JavaScriptNode resetIterator = iteratorVar.createWriteNode(factory.createConstant(JSFrameUtil.DEFAULT_VALUE));
         wrappedWhile = factory.createTryFinally(wrappedWhile, resetIterator);
-        return createBlock(iteratorInit, wrappedWhile);
+        return createBlock(iteratorInit, doneInit, wrappedWhile);
     }
 
     private JavaScriptNode desugarForHeadAssignment(ForNode forNode, JavaScriptNode next) {
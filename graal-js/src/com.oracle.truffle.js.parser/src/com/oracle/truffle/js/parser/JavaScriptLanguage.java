@@ -432,6 +432,9 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
         }
 
         context.setInteropRuntime(interopRuntime());
+        if (CodeCache.fromContext(context) != null) {
+            CodeCache.installDefaultRecorder();
+        }
         return context;
     }
 
@@ -483,6 +486,9 @@ public class JavaScriptLanguage extends AbstractJavaScriptLanguage {
 
     @Override
     protected void disposeContext(JSRealm realm) {
+        JSContext context = realm.getContext();
+        context.disposeModuleLoader();
+        context.printMegamorphicCallTargets();
     }
 
     @Override
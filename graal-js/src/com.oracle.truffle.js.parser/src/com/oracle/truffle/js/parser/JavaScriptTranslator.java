@@ -101,6 +101,14 @@ public final class JavaScriptTranslator extends GraalJSTranslator {
 
     public static JSModuleRecord translateModule(NodeFactory factory, JSContext context, Source source, JSModuleLoader moduleLoader) {
         FunctionNode parsed = GraalJSParserHelper.parseModule(source, ((GraalJSParserOptions) context.getParserOptions()).putStrict(true));
+        return translateModule(factory, context, source, moduleLoader, parsed);
+    }
+
+    /**
+     * Creates the module record of an already parsed module. The module body is translated when the
+     * module is instantiated.
+     */
+    public static JSModuleRecord translateModule(NodeFactory factory, JSContext context, Source source, JSModuleLoader moduleLoader, FunctionNode parsed) {
         JavaScriptTranslator translator = new JavaScriptTranslator(factory, context, source, null, true);
         return translator.moduleRecord = new JSModuleRecord(parsed.getModule(), context, moduleLoader, source, () -> translator.translateModule(parsed));
     }
@@ -40,6 +40,8 @@
  */
 package com.oracle.truffle.js.runtime;
 
+import java.util.List;
+
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.source.Source;
@@ -81,8 +83,20 @@ public interface Evaluator {
 
     JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader);
 
+    /**
+     * Parses a module like {@link #parseModule}, but does not create any JavaScript objects, so it
+     * may be called on a thread that has not entered the context. Returns {@code null} if the module
+     * has syntax errors; {@link #parseModule} reports them.
+     */
+    JSModuleRecord tryParseModule(JSContext context, Source source, JSModuleLoader moduleLoader);
+
     JSModuleRecord hostResolveImportedModule(JSModuleRecord referencingModule, String specifier);
 
+    /**
+     * Returns the specifiers of the modules imported by the given module, in source order.
+     */
+    List<String> getRequestedModules(JSModuleRecord moduleRecord);
+
     void moduleDeclarationInstantiation(JSModuleRecord moduleRecord);
 
     Object moduleEvaluation(JSRealm realm, JSModuleRecord moduleRecord);
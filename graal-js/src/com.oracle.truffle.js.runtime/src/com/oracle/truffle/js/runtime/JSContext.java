@@ -44,9 +44,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.time.ZoneId;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -132,11 +130,17 @@ import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSPrototypeData;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.JSShapeData;
+import com.oracle.truffle.js.runtime.objects.MegamorphicPropertyCache;
 import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.ParallelModuleLoader;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.CompilableBiFunction;
 import com.oracle.truffle.js.runtime.util.CompilableFunction;
+import com.oracle.truffle.js.runtime.util.DaylightSavingCache;
 import com.oracle.truffle.js.runtime.util.DebugJSAgent;
+import com.oracle.truffle.js.runtime.util.EvalCache;
+import com.oracle.truffle.js.runtime.util.MegamorphicCallTargets;
+import com.oracle.truffle.js.runtime.util.PromiseJobQueue;
 import com.oracle.truffle.js.runtime.util.TimeProfiler;
 import com.oracle.truffle.regex.CachingRegexEngine;
 import com.oracle.truffle.regex.RegexCompiler;
@@ -194,7 +198,7 @@ public class JSContext {
     /**
      * ECMA 8.4 "PromiseJobs" job queue.
      */
-    private final Deque<DynamicObject> promiseJobsQueue;
+    private final PromiseJobQueue promiseJobsQueue;
     private final Assumption promiseJobsQueueNotUsedAssumption;
 
     private final Object nodeFactory;
@@ -207,6 +211,9 @@ public class JSContext {
 
     /** The RegExp engine, as obtained from RegexLanguage. */
     private TruffleObject regexEngine;
+    private volatile EvalCache evalCache;
+    private volatile MegamorphicPropertyCache megamorphicPropertyCache;
+    private volatile MegamorphicCallTargets megamorphicCallTargets;
 
     private JSModuleLoader moduleLoader;
 
@@ -292,9 +299,10 @@ public class JSContext {
     @CompilationFinal private JSAgent agent;
 
     /**
-     * Java Interop Workers factory.
+     * Java Interop Workers factory. The main worker is volatile since it may be created by other
+     * threads, see {@link #createMainWorker()}.
      */
-    @CompilationFinal private EcmaAgent mainWorker;
+    private volatile EcmaAgent mainWorker;
     @CompilationFinal private EcmaAgent.Factory javaInteropWorkersFactory;
     @CompilationFinal private boolean shouldProcessJavaInteropAsyncTasks = true;
 
@@ -406,7 +414,7 @@ public class JSContext {
 
         this.moduleNamespaceFactory = JSObjectFactory.createBound(this, Null.instance, JSModuleNamespace.makeInitialShape(this).createFactory());
 
-        this.promiseJobsQueue = new ArrayDeque<>(4);
+        this.promiseJobsQueue = new PromiseJobQueue();
         this.promiseJobsQueueNotUsedAssumption = Truffle.getRuntime().createAssumption("promiseJobsQueueNotUsedAssumption");
 
         this.promiseHookNotUsedAssumption = Truffle.getRuntime().createAssumption("promiseHookNotUsedAssumption");
@@ -652,6 +660,10 @@ public class JSContext {
         return getLocalTimeZoneHolder().localTZA;
     }
 
+    public final DaylightSavingCache getDaylightSavingCache() {
+        return getLocalTimeZoneHolder().daylightSavingCache;
+    }
+
     public final Map<String, Symbol> getSymbolRegistry() {
         if (symbolRegistry == null) {
             createSymbolRegistry();
@@ -671,12 +683,38 @@ public class JSContext {
      */
     public final void promiseEnqueueJob(DynamicObject job) {
         invalidatePromiseQueueNotUsedAssumption();
-        promiseJobQueueAdd(job);
+        promiseJobsQueue.add(job);
     }
 
+    /**
+     * EnqueueJob for a built-in job taking two arguments, without creating a job function.
+     */
+    public final void promiseEnqueueJob(JSFunctionData job, Object argument0, Object argument1) {
+        invalidatePromiseQueueNotUsedAssumption();
+        promiseJobsQueue.add(job, argument0, argument1, getRealm());
+    }
+
+    /**
+     * EnqueueJob from a thread other than the one running this context, e.g. by an embedder. The
+     * job is handed to the main agent the same way Java interop workers post their results back,
+     * which wakes the event loop in Node.js mode, and is enqueued when the main agent runs it on the
+     * owning thread.
+     *
+     * @param sender the agent of the calling thread, see {@link #getJavaInteropWorkerFactory()}
+     */
     @TruffleBoundary
-    private void promiseJobQueueAdd(DynamicObject job) {
-        promiseJobsQueue.push(job);
+    public final void promiseEnqueueJobFromOtherThread(EcmaAgent sender, DynamicObject job) {
+        if (promiseJobsQueueNotUsedAssumption.isValid()) {
+            promiseJobsQueueNotUsedAssumption.invalidate("promise jobs queue unused assumption");
+        }
+        getMainWorker().execute(sender, () -> promiseEnqueueJob(job));
+    }
+
+    /**
+     * Returns the promise job queue, e.g. to query its length and drain time.
+     */
+    public PromiseJobQueue getPromiseJobQueue() {
+        return promiseJobsQueue;
     }
 
     private void invalidatePromiseQueueNotUsedAssumption() {
@@ -696,21 +734,7 @@ public class JSContext {
     private void processAllPromises() {
         boolean queueContainsJobs;
         do {
-            queueContainsJobs = false;
-            Object thisArg = Undefined.instance;
-            while (promiseJobsQueue.size() > 0) {
-                DynamicObject nextJob = promiseJobsQueue.pollLast();
-                if (JSFunction.isJSFunction(nextJob)) {
-                    JSRealm functionRealm = JSFunction.getRealm(nextJob);
-                    Object prev = functionRealm.getTruffleContext().enter();
-                    try {
-                        JSFunction.call(nextJob, thisArg, JSArguments.EMPTY_ARGUMENTS_ARRAY);
-                    } finally {
-                        functionRealm.getTruffleContext().leave(prev);
-                    }
-                    queueContainsJobs = true;
-                }
-            }
+            queueContainsJobs = promiseJobsQueue.runJobs();
 
             // In node.js-mode, tasks are processed by the uv loop.
             if (shouldProcessJavaInteropAsyncTasks) {
@@ -966,9 +990,20 @@ public class JSContext {
         return moduleLoader;
     }
 
+    /**
+     * Releases the resources of the module loader, if one has been created.
+     */
+    public synchronized void disposeModuleLoader() {
+        if (moduleLoader != null) {
+            moduleLoader.dispose();
+        }
+    }
+
     @TruffleBoundary
     private synchronized void createModuleLoader() {
-        if (moduleLoader == null) {
+        if (moduleLoader == null && contextOptions.getModuleLoaderThreads() > 0) {
+            moduleLoader = new ParallelModuleLoader(this, contextOptions.getModuleLoaderThreads());
+        } else if (moduleLoader == null) {
             moduleLoader = new JSModuleLoader() {
                 private final Map<String, JSModuleRecord> moduleMap = new HashMap<>();
 
@@ -1019,10 +1054,12 @@ public class JSContext {
     private static class LocalTimeZoneHolder {
         final ZoneId localTimeZoneId;
         final long localTZA;
+        final DaylightSavingCache daylightSavingCache;
 
         LocalTimeZoneHolder(ZoneId zoneId) {
             this.localTimeZoneId = zoneId;
             this.localTZA = JSDate.getLocalTZA(zoneId);
+            this.daylightSavingCache = new DaylightSavingCache(zoneId);
         }
 
         LocalTimeZoneHolder() {
@@ -1295,6 +1332,82 @@ public class JSContext {
         return contextOptions.isDisableWith();
     }
 
+    public boolean isOptionWeakKeyTable() {
+        return contextOptions.isWeakKeyTable();
+    }
+
+    public boolean isOptionJSONStreaming() {
+        return contextOptions.isJSONStreaming();
+    }
+
+    public boolean isOptionMappedArrayBuffer() {
+        return contextOptions.isMappedArrayBuffer();
+    }
+
+    /**
+     * Returns the context-wide cache of parsed eval and Function constructor code, or {@code null}
+     * if disabled.
+     */
+    public EvalCache getEvalCache() {
+        if (evalCache == null && contextOptions.getEvalCacheSize() > 0) {
+            createEvalCache();
+        }
+        return evalCache;
+    }
+
+    @TruffleBoundary
+    private synchronized void createEvalCache() {
+        if (evalCache == null) {
+            evalCache = new EvalCache(contextOptions.getEvalCacheSize());
+        }
+    }
+
+    /**
+     * Returns the lookup cache shared by the megamorphic property access nodes of this context, or
+     * {@code null} if disabled.
+     */
+    public MegamorphicPropertyCache getMegamorphicPropertyCache() {
+        if (megamorphicPropertyCache == null && JSTruffleOptions.MegamorphicPropertyCacheSize > 0) {
+            createMegamorphicPropertyCache();
+        }
+        return megamorphicPropertyCache;
+    }
+
+    @TruffleBoundary
+    private synchronized void createMegamorphicPropertyCache() {
+        if (megamorphicPropertyCache == null) {
+            megamorphicPropertyCache = new MegamorphicPropertyCache(JSTruffleOptions.MegamorphicPropertyCacheSize);
+        }
+    }
+
+    /**
+     * Returns the trace of the functions called through megamorphic call sites of this context (see
+     * {@link JSTruffleOptions#TraceMegamorphicCalls}).
+     */
+    public MegamorphicCallTargets getMegamorphicCallTargets() {
+        if (megamorphicCallTargets == null) {
+            createMegamorphicCallTargets();
+        }
+        return megamorphicCallTargets;
+    }
+
+    /**
+     * Prints the megamorphic call trace of this context, if one has been created.
+     */
+    public void printMegamorphicCallTargets() {
+        MegamorphicCallTargets targets = megamorphicCallTargets;
+        if (targets != null) {
+            targets.printCallSites();
+        }
+    }
+
+    @TruffleBoundary
+    private synchronized void createMegamorphicCallTargets() {
+        if (megamorphicCallTargets == null) {
+            megamorphicCallTargets = new MegamorphicCallTargets();
+        }
+    }
+
     public long getTimerResolution() {
         return contextOptions.getTimerResolution();
     }
@@ -1325,8 +1438,20 @@ public class JSContext {
     }
 
     public EcmaAgent getMainWorker() {
-        if (mainWorker == null) {
+        EcmaAgent worker = mainWorker;
+        if (worker == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
+            worker = createMainWorker();
+        }
+        return worker;
+    }
+
+    /**
+     * Synchronized since jobs may be handed to the main agent by other threads, see
+     * {@link #promiseEnqueueJobFromOtherThread}.
+     */
+    private synchronized EcmaAgent createMainWorker() {
+        if (mainWorker == null) {
             mainWorker = new DefaultMainWorker();
         }
         return mainWorker;
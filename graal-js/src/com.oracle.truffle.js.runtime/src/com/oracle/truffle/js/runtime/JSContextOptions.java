@@ -182,6 +182,42 @@ public final class JSContextOptions {
     private static final String DISABLE_WITH_HELP = "User code is not allowed to use the 'with' statement.";
     @CompilationFinal private boolean disableWith;
 
+    public static final String WEAK_KEY_TABLE_NAME = JS_OPTION_PREFIX + "weak-key-table";
+    public static final OptionKey<Boolean> WEAK_KEY_TABLE = new OptionKey<>(false);
+    private static final String WEAK_KEY_TABLE_HELP = "Store WeakMap and WeakSet entries in a weak-keyed table instead of on the key objects. " +
+                    "Avoids shape changes of keys, but a value that references its own key keeps the entry alive.";
+    @CompilationFinal private boolean weakKeyTable;
+
+    public static final String CODE_CACHE_DIR_NAME = JS_OPTION_PREFIX + "code-cache-dir";
+    public static final OptionKey<String> CODE_CACHE_DIR = new OptionKey<>("");
+    private static final String CODE_CACHE_DIR_HELP = "Directory of the persistent code cache for translated scripts. Disabled if empty.";
+    @CompilationFinal private String codeCacheDir;
+
+    public static final String CODE_CACHE_MAX_SIZE_NAME = JS_OPTION_PREFIX + "code-cache-max-size";
+    public static final OptionKey<Long> CODE_CACHE_MAX_SIZE = new OptionKey<>(256L * 1024 * 1024);
+    private static final String CODE_CACHE_MAX_SIZE_HELP = "Maximum total size of the persistent code cache in bytes, least recently used entries are evicted.";
+    @CompilationFinal private long codeCacheMaxSize;
+
+    public static final String JSON_STREAMING_NAME = JS_OPTION_PREFIX + "json-streaming";
+    public static final OptionKey<Boolean> JSON_STREAMING = new OptionKey<>(false);
+    private static final String JSON_STREAMING_HELP = "Provide JSON.parseElements for incremental parsing of large top-level arrays from strings and buffers.";
+    @CompilationFinal private boolean jsonStreaming;
+
+    public static final String MAPPED_ARRAY_BUFFER_NAME = JS_OPTION_PREFIX + "mapped-array-buffer";
+    private static final OptionKey<Boolean> MAPPED_ARRAY_BUFFER = new OptionKey<>(false);
+    private static final String MAPPED_ARRAY_BUFFER_HELP = "Provide ArrayBuffer.mapFile and ArrayBuffer.unmap for array buffers backed by memory-mapped file regions.";
+    @CompilationFinal private boolean mappedArrayBuffer;
+
+    public static final String EVAL_CACHE_SIZE_NAME = JS_OPTION_PREFIX + "eval-cache-size";
+    public static final OptionKey<Integer> EVAL_CACHE_SIZE = new OptionKey<>(128);
+    private static final String EVAL_CACHE_SIZE_HELP = "Number of parsed eval and Function constructor sources kept in the context-wide cache (0 to disable).";
+    @CompilationFinal private int evalCacheSize;
+
+    public static final String MODULE_LOADER_THREADS_NAME = JS_OPTION_PREFIX + "module-loader-threads";
+    public static final OptionKey<Integer> MODULE_LOADER_THREADS = new OptionKey<>(0);
+    private static final String MODULE_LOADER_THREADS_HELP = "Number of threads used to load and parse the import graph of an ES module in parallel (0 to load modules on demand).";
+    @CompilationFinal private int moduleLoaderThreads;
+
     /**
      * Options which can be patched without throwing away the pre-initialized context.
      */
@@ -231,6 +267,13 @@ public final class JSContextOptions {
         this.awaitOptimization = readBooleanOption(AWAIT_OPTIMIZATION, AWAIT_OPTIMIZATION_NAME);
         this.disableEval = readBooleanOption(DISABLE_EVAL, DISABLE_EVAL_NAME);
         this.disableWith = readBooleanOption(DISABLE_WITH, DISABLE_WITH_NAME);
+        this.weakKeyTable = readBooleanOption(WEAK_KEY_TABLE, WEAK_KEY_TABLE_NAME);
+        this.codeCacheDir = readStringOption(CODE_CACHE_DIR, CODE_CACHE_DIR_NAME);
+        this.codeCacheMaxSize = readLongOption(CODE_CACHE_MAX_SIZE, CODE_CACHE_MAX_SIZE_NAME);
+        this.jsonStreaming = readBooleanOption(JSON_STREAMING, JSON_STREAMING_NAME);
+        this.mappedArrayBuffer = readBooleanOption(MAPPED_ARRAY_BUFFER, MAPPED_ARRAY_BUFFER_NAME);
+        this.evalCacheSize = readIntegerOption(EVAL_CACHE_SIZE, EVAL_CACHE_SIZE_NAME);
+        this.moduleLoaderThreads = readIntegerOption(MODULE_LOADER_THREADS, MODULE_LOADER_THREADS_NAME);
     }
 
     private boolean readBooleanOption(OptionKey<Boolean> key, String name) {
@@ -273,6 +316,14 @@ public final class JSContextOptions {
         return Long.getLong("polyglot." + name, key.getDefaultValue());
     }
 
+    private String readStringOption(OptionKey<String> key, String name) {
+        if (optionValues == null) {
+            return System.getProperty("polyglot." + name, key.getDefaultValue());
+        } else {
+            return key.getValue(optionValues);
+        }
+    }
+
     public static String helpWithDefault(String helpMessage, OptionKey<? extends Object> key) {
         return helpMessage + " (default:" + key.getDefaultValue() + ")";
     }
@@ -308,6 +359,13 @@ public final class JSContextOptions {
         options.add(newOptionDescriptor(AWAIT_OPTIMIZATION, AWAIT_OPTIMIZATION_NAME, OptionCategory.DEBUG, AWAIT_OPTIMIZATION_HELP));
         options.add(newOptionDescriptor(DISABLE_EVAL, DISABLE_EVAL_NAME, OptionCategory.EXPERT, DISABLE_EVAL_HELP));
         options.add(newOptionDescriptor(DISABLE_WITH, DISABLE_WITH_NAME, OptionCategory.EXPERT, DISABLE_WITH_HELP));
+        options.add(newOptionDescriptor(WEAK_KEY_TABLE, WEAK_KEY_TABLE_NAME, OptionCategory.EXPERT, WEAK_KEY_TABLE_HELP));
+        options.add(newOptionDescriptor(CODE_CACHE_DIR, CODE_CACHE_DIR_NAME, OptionCategory.EXPERT, CODE_CACHE_DIR_HELP));
+        options.add(newOptionDescriptor(CODE_CACHE_MAX_SIZE, CODE_CACHE_MAX_SIZE_NAME, OptionCategory.EXPERT, CODE_CACHE_MAX_SIZE_HELP));
+        options.add(newOptionDescriptor(JSON_STREAMING, JSON_STREAMING_NAME, OptionCategory.EXPERT, JSON_STREAMING_HELP));
+        options.add(newOptionDescriptor(MAPPED_ARRAY_BUFFER, MAPPED_ARRAY_BUFFER_NAME, OptionCategory.EXPERT, MAPPED_ARRAY_BUFFER_HELP));
+        options.add(newOptionDescriptor(EVAL_CACHE_SIZE, EVAL_CACHE_SIZE_NAME, OptionCategory.EXPERT, EVAL_CACHE_SIZE_HELP));
+        options.add(newOptionDescriptor(MODULE_LOADER_THREADS, MODULE_LOADER_THREADS_NAME, OptionCategory.EXPERT, MODULE_LOADER_THREADS_HELP));
     }
 
     /**
@@ -417,6 +475,34 @@ public final class JSContextOptions {
         return disableWith;
     }
 
+    public boolean isWeakKeyTable() {
+        return weakKeyTable;
+    }
+
+    public String getCodeCacheDir() {
+        return codeCacheDir;
+    }
+
+    public long getCodeCacheMaxSize() {
+        return codeCacheMaxSize;
+    }
+
+    public boolean isJSONStreaming() {
+        return jsonStreaming;
+    }
+
+    public boolean isMappedArrayBuffer() {
+        return mappedArrayBuffer;
+    }
+
+    public int getEvalCacheSize() {
+        return evalCacheSize;
+    }
+
+    public int getModuleLoaderThreads() {
+        return moduleLoaderThreads;
+    }
+
     public boolean isConsole() {
         return CONSOLE.getValue(optionValues);
     }
@@ -455,6 +541,13 @@ public final class JSContextOptions {
         hash = 53 * hash + (this.awaitOptimization ? 1 : 0);
         hash = 53 * hash + (this.disableEval ? 1 : 0);
         hash = 53 * hash + (this.disableWith ? 1 : 0);
+        hash = 53 * hash + (this.weakKeyTable ? 1 : 0);
+        hash = 53 * hash + Objects.hashCode(this.codeCacheDir);
+        hash = 53 * hash + (int) this.codeCacheMaxSize;
+        hash = 53 * hash + (this.jsonStreaming ? 1 : 0);
+        hash = 53 * hash + (this.mappedArrayBuffer ? 1 : 0);
+        hash = 53 * hash + this.evalCacheSize;
+        hash = 53 * hash + this.moduleLoaderThreads;
         return hash;
     }
 
@@ -524,6 +617,27 @@ public final class JSContextOptions {
         if (this.disableWith != other.disableWith) {
             return false;
         }
+        if (this.weakKeyTable != other.weakKeyTable) {
+            return false;
+        }
+        if (!Objects.equals(this.codeCacheDir, other.codeCacheDir)) {
+            return false;
+        }
+        if (this.codeCacheMaxSize != other.codeCacheMaxSize) {
+            return false;
+        }
+        if (this.jsonStreaming != other.jsonStreaming) {
+            return false;
+        }
+        if (this.mappedArrayBuffer != other.mappedArrayBuffer) {
+            return false;
+        }
+        if (this.evalCacheSize != other.evalCacheSize) {
+            return false;
+        }
+        if (this.moduleLoaderThreads != other.moduleLoaderThreads) {
+            return false;
+        }
         return Objects.equals(this.parserOptions, other.parserOptions);
     }
 
@@ -229,6 +229,9 @@ public class JSRealm {
     private final JSConstructor javaInteropWorkerConstructor;
 
     private final DynamicObject arrayProtoValuesIterator;
+    private final Object arrayIteratorNextFunction;
+    private final Object setIteratorNextFunction;
+    private final Object mapIteratorNextFunction;
     @CompilationFinal private DynamicObject typedArrayConstructor;
     @CompilationFinal private DynamicObject typedArrayPrototype;
 
@@ -376,6 +379,9 @@ public class JSRealm {
         this.generatorObjectPrototype = es6 ? (DynamicObject) generatorFunctionConstructor.getPrototype().get(JSObject.PROTOTYPE, null) : null;
         this.enumerateIteratorPrototype = JSFunction.createEnumerateIteratorPrototype(this);
         this.arrayProtoValuesIterator = (DynamicObject) getArrayConstructor().getPrototype().get(Symbol.SYMBOL_ITERATOR, Undefined.instance);
+        this.arrayIteratorNextFunction = es6 ? arrayIteratorPrototype.get(JSRuntime.NEXT, Undefined.instance) : null;
+        this.setIteratorNextFunction = es6 ? setIteratorPrototype.get(JSRuntime.NEXT, Undefined.instance) : null;
+        this.mapIteratorNextFunction = es6 ? mapIteratorPrototype.get(JSRuntime.NEXT, Undefined.instance) : null;
 
         if (context.isOptionSharedArrayBuffer()) {
             this.sharedArrayBufferConstructor = JSSharedArrayBuffer.createConstructor(this);
@@ -1063,6 +1069,27 @@ public class JSRealm {
         return arrayProtoValuesIterator;
     }
 
+    /**
+     * Returns the original %ArrayIteratorPrototype%.next function.
+     */
+    public Object getArrayIteratorNextFunction() {
+        return arrayIteratorNextFunction;
+    }
+
+    /**
+     * Returns the original %SetIteratorPrototype%.next function.
+     */
+    public Object getSetIteratorNextFunction() {
+        return setIteratorNextFunction;
+    }
+
+    /**
+     * Returns the original %MapIteratorPrototype%.next function.
+     */
+    public Object getMapIteratorNextFunction() {
+        return mapIteratorNextFunction;
+    }
+
     private DynamicObject createReflect() {
         DynamicObject obj = JSObject.createInit(this, this.getObjectPrototype(), JSUserObject.INSTANCE);
         JSObjectUtil.putDataProperty(context, obj, Symbol.SYMBOL_TO_STRING_TAG, REFLECT_CLASS_NAME, JSAttributes.configurableNotEnumerableNotWritable());
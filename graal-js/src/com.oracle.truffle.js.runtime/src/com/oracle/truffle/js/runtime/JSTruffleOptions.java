@@ -72,6 +72,15 @@ public class JSTruffleOptions {
     // Inline cache configuration
     public static int PropertyCacheLimit = integerOption("PropertyCacheLimit", 5);
     public static int FunctionCacheLimit = integerOption("FunctionCacheLimit", 4);
+    public static int JSONStringifyShapeCacheLimit = integerOption("JSONStringifyShapeCacheLimit", 16);
+    /** Number of targets a megamorphic call site may call directly (0 = off). */
+    public static final int MegamorphicDirectCallLimit = integerOption("MegamorphicDirectCallLimit", 4);
+    /** Calls from a megamorphic call site after which a target gets a direct call at that site. */
+    public static final int MegamorphicDirectCallThreshold = integerOption("MegamorphicDirectCallThreshold", 1000);
+    /** Number of calls a megamorphic call site profiles to find targets for direct calls. */
+    public static final int MegamorphicCallProfileBudget = integerOption("MegamorphicCallProfileBudget", 10000);
+    /** Number of entries of the per-context lookup cache of megamorphic property accesses (0 = off). */
+    public static final int MegamorphicPropertyCacheSize = integerOption("MegamorphicPropertyCacheSize", 1024);
 
     public static final boolean AssertFinalPropertySpecialization = booleanOption("AssertFinalPropertySpecialization", false);
     /** Try to cache by function object instead of call target. */
@@ -92,6 +101,9 @@ public class JSTruffleOptions {
     public static final boolean LazyStrings = booleanOption("LazyStrings", true);
     public static final int MinLazyStringLength = integerOption("MinLazyStringLength", 20);
     public static final int ConcatToLeafLimit = integerOption("ConcatToLeafLimit", MinLazyStringLength / 2);
+    /** Strings up to this length appended to a lazy string are copied into an append chunk. */
+    public static final int ConcatToChunkLimit = integerOption("ConcatToChunkLimit", 256);
+    public static final int LazyStringChunkSize = integerOption("LazyStringChunkSize", 4096);
     public static final int MaxLoadCacheLength = integerOption("MaxLoadCacheLength", 0);
     public static final int MaxCompiledRegexCacheLength = integerOption("MaxCompiledRegexCacheLength", 4);
     public static final boolean TrimLoadCache = booleanOption("TrimLoadCache", false);
@@ -158,6 +170,7 @@ public class JSTruffleOptions {
     // Java Interop options
     public static final boolean NashornJavaInterop = !SubstrateVM && booleanOption("NashornJavaInterop", false);
     public static final boolean JavaCallCache = booleanOption("JavaCallCache", true);
+    public static final int JavaCallCacheLimit = integerOption("JavaCallCacheLimit", 4);
     public static final boolean SingleThreaded = booleanOption("SingleThreaded", false);
     public static final boolean JavaConvertersAsMethodHandles = booleanOption("JavaConvertersAsMethodHandles", false);
 
@@ -165,6 +178,8 @@ public class JSTruffleOptions {
     public static final boolean TracePolymorphicPropertyAccess = booleanOption("TracePolymorphicPropertyAccess", false);
     public static final boolean TraceMegamorphicPropertyAccess = booleanOption("TraceMegamorphicPropertyAccess", false);
     public static final boolean TraceFunctionCache = booleanOption("TraceFunctionCache", false);
+    /** Prints the call target distribution of megamorphic call sites on context disposal. */
+    public static final boolean TraceMegamorphicCalls = booleanOption("TraceMegamorphicCalls", false);
     /** Traces transitions between dynamic array types. */
     public static final boolean TraceArrayTransitions = booleanOption("TraceArrayTransitions", false);
     /** Traces all array writes with their access mode. */
@@ -46,18 +46,14 @@ import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArr
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetLength;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.TreeMap;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.js.runtime.Boundaries;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
- * Array that stores its elements in a HashMap-like structure, e.g. in a TreeMap.
+ * Array that stores its elements in a map-like structure, see {@link SparseArrayPageTable}.
  */
 public final class SparseArray extends DynamicArray {
 
@@ -72,7 +68,7 @@ public final class SparseArray extends DynamicArray {
     }
 
     public static SparseArray makeSparseArray(DynamicObject object, long length) {
-        TreeMap<Long, Object> arrayMap = createArrayMap();
+        SparseArrayPageTable arrayMap = createArrayMap();
         arraySetLength(object, length);
         arraySetArray(object, arrayMap);
         return createSparseArray();
@@ -82,7 +78,7 @@ public final class SparseArray extends DynamicArray {
         if (fromArray instanceof SparseArray) {
             return (SparseArray) fromArray;
         }
-        TreeMap<Long, Object> arrayMap = createArrayMap();
+        SparseArrayPageTable arrayMap = createArrayMap();
         copyArrayToMap(object, fromArray, arrayMap);
         arraySetLength(object, fromArray.length(object));
         arraySetArray(object, arrayMap);
@@ -90,20 +86,26 @@ public final class SparseArray extends DynamicArray {
     }
 
     @TruffleBoundary
-    public static TreeMap<Long, Object> createArrayMap() {
-        return new TreeMap<>();
+    public static SparseArrayPageTable createArrayMap() {
+        return new SparseArrayPageTable();
     }
 
-    protected static void copyArrayToMap(DynamicObject object, ScriptArray fromArray, Map<Long, Object> toMap) {
+    protected static void copyArrayToMap(DynamicObject object, ScriptArray fromArray, SparseArrayPageTable toMap) {
         for (long index = fromArray.firstElementIndex(object); index <= fromArray.lastElementIndex(object); index = fromArray.nextElementIndex(object, index)) {
             assert fromArray.hasElement(object, index);
-            Boundaries.mapPut(toMap, index, fromArray.getElement(object, index));
+            toMap.put(index, fromArray.getElement(object, index));
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private static TreeMap<Long, Object> arrayMap(DynamicObject object, boolean condition) {
-        return (TreeMap<Long, Object>) arrayGetArray(object, condition);
+    private static SparseArrayPageTable arrayMap(DynamicObject object, boolean condition) {
+        return (SparseArrayPageTable) arrayGetArray(object, condition);
+    }
+
+    /**
+     * Returns the backing store of a sparse array, e.g. for footprint measurements.
+     */
+    public static SparseArrayPageTable getArrayMap(DynamicObject object) {
+        return arrayMap(object, arrayCondition());
     }
 
     @TruffleBoundary
@@ -149,42 +151,34 @@ public final class SparseArray extends DynamicArray {
     @Override
     public SparseArray setLengthImpl(DynamicObject object, long len, boolean condition, ProfileHolder profile) {
         arraySetLength(object, len);
-        arrayMap(object, condition).tailMap(len).clear();
+        arrayMap(object, condition).truncate(len);
         return this;
     }
 
     @TruffleBoundary
     @Override
     public long firstElementIndex(DynamicObject object, boolean condition) {
-        try {
-            return arrayMap(object, condition).firstKey();
-        } catch (NoSuchElementException ex) {
-            return 0;
-        }
+        SparseArrayPageTable arrayMap = arrayMap(object, condition);
+        return arrayMap.isEmpty() ? 0 : arrayMap.firstKey();
     }
 
     @TruffleBoundary
     @Override
     public long lastElementIndex(DynamicObject object, boolean condition) {
-        try {
-            return arrayMap(object, condition).lastKey();
-        } catch (NoSuchElementException ex) {
-            return -1;
-        }
+        return arrayMap(object, condition).lastKey();
     }
 
     @TruffleBoundary
     @Override
     public long nextElementIndex(DynamicObject object, long index, boolean condition) {
-        Long nextIndex = arrayMap(object, condition).higherKey(index);
-        return nextIndex != null ? nextIndex.longValue() : JSRuntime.MAX_SAFE_INTEGER_LONG;
+        long nextIndex = arrayMap(object, condition).higherKey(index);
+        return nextIndex >= 0 ? nextIndex : JSRuntime.MAX_SAFE_INTEGER_LONG;
     }
 
     @TruffleBoundary
     @Override
     public long previousElementIndex(DynamicObject object, long index, boolean condition) {
-        Long nextIndex = arrayMap(object, condition).lowerKey(index);
-        return nextIndex != null ? nextIndex.longValue() : -1;
+        return arrayMap(object, condition).lowerKey(index);
     }
 
     @Override
@@ -210,10 +204,7 @@ public final class SparseArray extends DynamicArray {
     @TruffleBoundary
     @Override
     public boolean hasElement(DynamicObject object, long index, boolean condition) {
-        if (arrayMap(object, condition).containsKey(index)) {
-            return true;
-        }
-        return false;
+        return arrayMap(object, condition).containsKey(index);
     }
 
     @Override
@@ -0,0 +1,597 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.array;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Ordered map from {@code long} indices to array elements, used as the backing store of
+ * {@link SparseArray}.
+ *
+ * Indices are grouped into pages of {@value #PAGE_SIZE} consecutive slots. A page keeps a bitmap of
+ * its occupied slots and stores their values packed in index order in an {@code int[]},
+ * {@code double[]} or {@code Object[]}, depending on the values written so far. A page holding
+ * both int and double values is an {@code Object[]} page, so every element keeps its type. Neither
+ * the keys nor int/double values are boxed. Pages are held in an array sorted by page number and
+ * located by binary search, so ordered traversal (first/last/next/previous index) does not need a
+ * tree.
+ */
+public final class SparseArrayPageTable {
+    static final int PAGE_SHIFT = 6;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final int INITIAL_TABLE_SIZE = 4;
+    private static final int INITIAL_PAGE_CAPACITY = 2;
+
+    /** Estimated sizes (in bytes) assuming a 64-bit VM with compressed oops. */
+    private static final int OBJECT_HEADER_SIZE = 12;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+    /** TreeMap.Entry (header, 5 references, color flag) plus a boxed Long key and a boxed value. */
+    private static final int TREE_MAP_BYTES_PER_ENTRY = 40 + 16 + 16;
+    private static final int TREE_MAP_BASE_SIZE = 48;
+
+    private long[] pageNumbers;
+    private Page[] pages;
+    private int pageCount;
+    private long size;
+    /** Position of the most recently accessed page, speeds up sequential access. */
+    private int lastPos;
+
+    public SparseArrayPageTable() {
+        this.pageNumbers = new long[INITIAL_TABLE_SIZE];
+        this.pages = new Page[INITIAL_TABLE_SIZE];
+    }
+
+    /**
+     * Number of elements stored in this table.
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the element at the given index, or {@code null} if there is none.
+     */
+    @TruffleBoundary
+    public Object get(long index) {
+        int pos = findPage(index >>> PAGE_SHIFT);
+        if (pos < 0) {
+            return null;
+        }
+        Page page = pages[pos];
+        int slot = (int) (index & PAGE_MASK);
+        return page.has(slot) ? page.getAt(page.position(slot)) : null;
+    }
+
+    @TruffleBoundary
+    public boolean containsKey(long index) {
+        int pos = findPage(index >>> PAGE_SHIFT);
+        return pos >= 0 && pages[pos].has((int) (index & PAGE_MASK));
+    }
+
+    @TruffleBoundary
+    public void put(long index, Object value) {
+        assert index >= 0 && value != null;
+        long pageNumber = index >>> PAGE_SHIFT;
+        int slot = (int) (index & PAGE_MASK);
+        int pos = findPage(pageNumber);
+        if (pos < 0) {
+            pos = -(pos + 1);
+            insertPage(pos, pageNumber, Page.create(value));
+        }
+        Page page = pages[pos];
+        if (!page.has(slot)) {
+            size++;
+        }
+        pages[pos] = page.put(slot, value);
+    }
+
+    /**
+     * Removes the element at the given index.
+     *
+     * @return {@code true} if an element was removed
+     */
+    @TruffleBoundary
+    public boolean remove(long index) {
+        int pos = findPage(index >>> PAGE_SHIFT);
+        if (pos < 0) {
+            return false;
+        }
+        Page page = pages[pos];
+        int slot = (int) (index & PAGE_MASK);
+        if (!page.has(slot)) {
+            return false;
+        }
+        page.remove(slot);
+        size--;
+        if (page.bitmap == 0) {
+            removePages(pos, pos + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all elements with an index greater than or equal to {@code length}.
+     */
+    @TruffleBoundary
+    public void truncate(long length) {
+        long pageNumber = length >>> PAGE_SHIFT;
+        int slot = (int) (length & PAGE_MASK);
+        int pos = lowerBound(pageNumber);
+        if (pos < pageCount && pageNumbers[pos] == pageNumber) {
+            Page page = pages[pos];
+            size -= page.truncate(slot);
+            if (page.bitmap != 0) {
+                pos++;
+            }
+        }
+        for (int i = pos; i < pageCount; i++) {
+            size -= pages[i].count();
+        }
+        removePages(pos, pageCount);
+    }
+
+    /**
+     * Returns the lowest index in this table, or -1 if the table is empty.
+     */
+    public long firstKey() {
+        return pageCount == 0 ? -1 : firstKeyOf(0);
+    }
+
+    /**
+     * Returns the highest index in this table, or -1 if the table is empty.
+     */
+    public long lastKey() {
+        return pageCount == 0 ? -1 : lastKeyOf(pageCount - 1);
+    }
+
+    /**
+     * Returns the lowest index strictly greater than {@code index}, or -1 if there is none.
+     */
+    @TruffleBoundary
+    public long higherKey(long index) {
+        if (index < 0) {
+            return firstKey();
+        }
+        long pageNumber = index >>> PAGE_SHIFT;
+        int slot = (int) (index & PAGE_MASK);
+        int pos = lowerBound(pageNumber);
+        if (pos < pageCount && pageNumbers[pos] == pageNumber) {
+            long above = slot == PAGE_MASK ? 0 : pages[pos].bitmap & (-1L << (slot + 1));
+            if (above != 0) {
+                return (pageNumber << PAGE_SHIFT) | Long.numberOfTrailingZeros(above);
+            }
+            pos++;
+        }
+        return pos < pageCount ? firstKeyOf(pos) : -1;
+    }
+
+    /**
+     * Returns the highest index strictly lower than {@code index}, or -1 if there is none.
+     */
+    @TruffleBoundary
+    public long lowerKey(long index) {
+        if (index <= 0) {
+            return -1;
+        }
+        long pageNumber = index >>> PAGE_SHIFT;
+        int slot = (int) (index & PAGE_MASK);
+        int pos = lowerBound(pageNumber);
+        if (pos < pageCount && pageNumbers[pos] == pageNumber) {
+            long below = pages[pos].bitmap & ((1L << slot) - 1);
+            if (below != 0) {
+                return (pageNumber << PAGE_SHIFT) | (PAGE_MASK - Long.numberOfLeadingZeros(below));
+            }
+        }
+        return pos > 0 ? lastKeyOf(pos - 1) : -1;
+    }
+
+    /**
+     * Estimated retained size of this table in bytes.
+     */
+    @TruffleBoundary
+    public long estimateMemoryFootprint() {
+        long bytes = OBJECT_HEADER_SIZE + 2 * REFERENCE_SIZE + 8 + 4 + 4;
+        bytes += align(ARRAY_HEADER_SIZE + 8L * pageNumbers.length);
+        bytes += align(ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE * pages.length);
+        for (int i = 0; i < pageCount; i++) {
+            bytes += pages[i].footprint();
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimated retained size of a {@code TreeMap<Long, Object>} with the same number of boxed
+     * entries, for comparison with {@link #estimateMemoryFootprint()}.
+     */
+    public long estimateTreeMapFootprint() {
+        return TREE_MAP_BASE_SIZE + size * TREE_MAP_BYTES_PER_ENTRY;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    private long firstKeyOf(int pos) {
+        return (pageNumbers[pos] << PAGE_SHIFT) | Long.numberOfTrailingZeros(pages[pos].bitmap);
+    }
+
+    private long lastKeyOf(int pos) {
+        return (pageNumbers[pos] << PAGE_SHIFT) | (PAGE_MASK - Long.numberOfLeadingZeros(pages[pos].bitmap));
+    }
+
+    /**
+     * Returns the position of the page, or {@code -(insertionPoint + 1)} if it does not exist.
+     */
+    private int findPage(long pageNumber) {
+        int last = lastPos;
+        if (last < pageCount && pageNumbers[last] == pageNumber) {
+            return last;
+        }
+        int pos = lowerBound(pageNumber);
+        if (pos < pageCount && pageNumbers[pos] == pageNumber) {
+            lastPos = pos;
+            return pos;
+        }
+        return -(pos + 1);
+    }
+
+    /**
+     * Returns the position of the first page with a page number not lower than the given one.
+     */
+    private int lowerBound(long pageNumber) {
+        int count = pageCount;
+        if (count == 0 || pageNumbers[count - 1] < pageNumber) {
+            // appending in ascending order is the common case
+            return count;
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midNumber = pageNumbers[mid];
+            if (midNumber < pageNumber) {
+                low = mid + 1;
+            } else if (midNumber > pageNumber) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return low;
+    }
+
+    private void insertPage(int pos, long pageNumber, Page page) {
+        if (pageCount == pages.length) {
+            int newLength = pages.length + (pages.length >> 1) + 1;
+            pageNumbers = Arrays.copyOf(pageNumbers, newLength);
+            pages = Arrays.copyOf(pages, newLength);
+        }
+        System.arraycopy(pageNumbers, pos, pageNumbers, pos + 1, pageCount - pos);
+        System.arraycopy(pages, pos, pages, pos + 1, pageCount - pos);
+        pageNumbers[pos] = pageNumber;
+        pages[pos] = page;
+        pageCount++;
+    }
+
+    private void removePages(int from, int to) {
+        int removed = to - from;
+        if (removed == 0) {
+            return;
+        }
+        System.arraycopy(pageNumbers, to, pageNumbers, from, pageCount - to);
+        System.arraycopy(pages, to, pages, from, pageCount - to);
+        Arrays.fill(pages, pageCount - removed, pageCount, null);
+        pageCount -= removed;
+        lastPos = 0;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static int growCapacity(int capacity, int minCapacity) {
+        return Math.min(PAGE_SIZE, Math.max(minCapacity, capacity << 1));
+    }
+
+    /**
+     * A page of {@value #PAGE_SIZE} slots. Occupied slots are marked in {@link #bitmap} and their
+     * values are stored packed, i.e. the value of a slot is at the position given by the number of
+     * occupied slots below it.
+     */
+    abstract static class Page {
+        long bitmap;
+
+        static Page create(Object value) {
+            if (value instanceof Integer) {
+                return new IntPage(new int[INITIAL_PAGE_CAPACITY], 0);
+            } else if (value instanceof Double) {
+                return new DoublePage(new double[INITIAL_PAGE_CAPACITY], 0);
+            } else {
+                return new ObjectPage(new Object[INITIAL_PAGE_CAPACITY], 0);
+            }
+        }
+
+        final boolean has(int slot) {
+            return (bitmap & (1L << slot)) != 0;
+        }
+
+        final int position(int slot) {
+            return Long.bitCount(bitmap & ((1L << slot) - 1));
+        }
+
+        final int count() {
+            return Long.bitCount(bitmap);
+        }
+
+        /**
+         * Stores the value in the given slot, generalizing the page if necessary.
+         *
+         * @return this page or its generalized replacement
+         */
+        final Page put(int slot, Object value) {
+            Page page = accepts(value) ? this : generalize(value);
+            int pos = page.position(slot);
+            if (page.has(slot)) {
+                page.setAt(pos, value);
+            } else {
+                page.insertAt(pos, page.count(), value);
+                page.bitmap |= 1L << slot;
+            }
+            return page;
+        }
+
+        final void remove(int slot) {
+            removeAt(position(slot), count());
+            bitmap &= ~(1L << slot);
+        }
+
+        /**
+         * Removes all slots starting at {@code slot}.
+         *
+         * @return the number of removed elements
+         */
+        final int truncate(int slot) {
+            int oldCount = count();
+            bitmap &= (1L << slot) - 1;
+            int newCount = count();
+            clearRange(newCount, oldCount);
+            return oldCount - newCount;
+        }
+
+        abstract boolean accepts(Object value);
+
+        abstract Page generalize(Object value);
+
+        abstract Object getAt(int pos);
+
+        abstract void setAt(int pos, Object value);
+
+        abstract void insertAt(int pos, int count, Object value);
+
+        abstract void removeAt(int pos, int count);
+
+        abstract void clearRange(int from, int to);
+
+        abstract long footprint();
+
+        static long pageFootprint(int elementSize, int capacity) {
+            return align(OBJECT_HEADER_SIZE + 8 + REFERENCE_SIZE) + align(ARRAY_HEADER_SIZE + (long) elementSize * capacity);
+        }
+    }
+
+    static final class IntPage extends Page {
+        private int[] values;
+
+        IntPage(int[] values, long bitmap) {
+            this.values = values;
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Integer;
+        }
+
+        @Override
+        Page generalize(Object value) {
+            // int elements must keep their type, so mixed int/double pages are generic
+            int count = count();
+            Object[] objects = new Object[values.length];
+            for (int i = 0; i < count; i++) {
+                objects[i] = values[i];
+            }
+            return new ObjectPage(objects, bitmap);
+        }
+
+        @Override
+        Object getAt(int pos) {
+            return values[pos];
+        }
+
+        @Override
+        void setAt(int pos, Object value) {
+            values[pos] = (int) value;
+        }
+
+        @Override
+        void insertAt(int pos, int count, Object value) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, growCapacity(values.length, count + 1));
+            }
+            System.arraycopy(values, pos, values, pos + 1, count - pos);
+            values[pos] = (int) value;
+        }
+
+        @Override
+        void removeAt(int pos, int count) {
+            System.arraycopy(values, pos + 1, values, pos, count - pos - 1);
+        }
+
+        @Override
+        void clearRange(int from, int to) {
+        }
+
+        @Override
+        long footprint() {
+            return pageFootprint(Integer.BYTES, values.length);
+        }
+    }
+
+    static final class DoublePage extends Page {
+        private double[] values;
+
+        DoublePage(double[] values, long bitmap) {
+            this.values = values;
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Double;
+        }
+
+        @Override
+        Page generalize(Object value) {
+            int count = count();
+            Object[] objects = new Object[values.length];
+            for (int i = 0; i < count; i++) {
+                objects[i] = values[i];
+            }
+            return new ObjectPage(objects, bitmap);
+        }
+
+        @Override
+        Object getAt(int pos) {
+            return values[pos];
+        }
+
+        @Override
+        void setAt(int pos, Object value) {
+            values[pos] = (double) value;
+        }
+
+        @Override
+        void insertAt(int pos, int count, Object value) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, growCapacity(values.length, count + 1));
+            }
+            System.arraycopy(values, pos, values, pos + 1, count - pos);
+            values[pos] = (double) value;
+        }
+
+        @Override
+        void removeAt(int pos, int count) {
+            System.arraycopy(values, pos + 1, values, pos, count - pos - 1);
+        }
+
+        @Override
+        void clearRange(int from, int to) {
+        }
+
+        @Override
+        long footprint() {
+            return pageFootprint(Double.BYTES, values.length);
+        }
+    }
+
+    static final class ObjectPage extends Page {
+        private Object[] values;
+
+        ObjectPage(Object[] values, long bitmap) {
+            this.values = values;
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return true;
+        }
+
+        @Override
+        Page generalize(Object value) {
+            throw new IllegalStateException();
+        }
+
+        @Override
+        Object getAt(int pos) {
+            return values[pos];
+        }
+
+        @Override
+        void setAt(int pos, Object value) {
+            values[pos] = value;
+        }
+
+        @Override
+        void insertAt(int pos, int count, Object value) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, growCapacity(values.length, count + 1));
+            }
+            System.arraycopy(values, pos, values, pos + 1, count - pos);
+            values[pos] = value;
+        }
+
+        @Override
+        void removeAt(int pos, int count) {
+            System.arraycopy(values, pos + 1, values, pos, count - pos - 1);
+            values[count - 1] = null;
+        }
+
+        @Override
+        void clearRange(int from, int to) {
+            Arrays.fill(values, from, to, null);
+        }
+
+        @Override
+        long footprint() {
+            return pageFootprint(REFERENCE_SIZE, values.length);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.array;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bulk operations on the backing store of typed arrays, i.e. a {@code byte[]} or a direct
+ * {@link ByteBuffer} as returned by {@link TypedArray#getBufferFromTypedArray}. All indices are
+ * absolute byte indices into the backing store; the operations are independent of the element type
+ * except for its size and do not check bounds.
+ */
+public final class TypedArrayBulkOperations {
+
+    private TypedArrayBulkOperations() {
+    }
+
+    /**
+     * Copies {@code byteLength} bytes from {@code sourceByteIndex} to {@code targetByteIndex} as if
+     * through a temporary buffer, i.e. the regions may overlap.
+     */
+    public static void move(Object backingStore, int sourceByteIndex, int targetByteIndex, int byteLength) {
+        if (byteLength <= 0 || sourceByteIndex == targetByteIndex) {
+            return;
+        }
+        if (backingStore instanceof byte[]) {
+            byte[] array = (byte[]) backingStore;
+            System.arraycopy(array, sourceByteIndex, array, targetByteIndex, byteLength);
+        } else {
+            ByteBuffer buffer = (ByteBuffer) backingStore;
+            boolean overlapping = sourceByteIndex < targetByteIndex + byteLength && targetByteIndex < sourceByteIndex + byteLength;
+            if (overlapping) {
+                byte[] temp = new byte[byteLength];
+                ((ByteBuffer) buffer.duplicate().position(sourceByteIndex)).get(temp);
+                ((ByteBuffer) buffer.duplicate().position(targetByteIndex)).put(temp);
+            } else {
+                copyDisjoint(buffer, sourceByteIndex, targetByteIndex, byteLength);
+            }
+        }
+    }
+
+    /**
+     * Replicates the element at {@code byteIndex}, which must already hold the fill value, into the
+     * following {@code count - 1} elements by repeatedly doubling the filled region.
+     */
+    public static void fill(Object backingStore, int byteIndex, int elementSize, int count) {
+        int totalBytes = count * elementSize;
+        if (backingStore instanceof byte[]) {
+            byte[] array = (byte[]) backingStore;
+            if (elementSize == 1) {
+                Arrays.fill(array, byteIndex + 1, byteIndex + count, array[byteIndex]);
+                return;
+            }
+            for (int filled = elementSize; filled < totalBytes; filled <<= 1) {
+                System.arraycopy(array, byteIndex, array, byteIndex + filled, Math.min(filled, totalBytes - filled));
+            }
+        } else {
+            ByteBuffer buffer = (ByteBuffer) backingStore;
+            for (int filled = elementSize; filled < totalBytes; filled <<= 1) {
+                copyDisjoint(buffer, byteIndex, byteIndex + filled, Math.min(filled, totalBytes - filled));
+            }
+        }
+    }
+
+    /**
+     * Reverses the order of {@code count} elements of {@code elementSize} bytes starting at
+     * {@code byteIndex}.
+     */
+    public static void reverse(Object backingStore, int byteIndex, int elementSize, int count) {
+        if (backingStore instanceof byte[]) {
+            reverse((byte[]) backingStore, byteIndex, elementSize, count);
+        } else {
+            reverse((ByteBuffer) backingStore, byteIndex, elementSize, count);
+        }
+    }
+
+    private static void reverse(byte[] array, int byteIndex, int elementSize, int count) {
+        int lower = byteIndex;
+        int upper = byteIndex + (count - 1) * elementSize;
+        while (lower < upper) {
+            for (int i = 0; i < elementSize; i++) {
+                byte tmp = array[lower + i];
+                array[lower + i] = array[upper + i];
+                array[upper + i] = tmp;
+            }
+            lower += elementSize;
+            upper -= elementSize;
+        }
+    }
+
+    private static void reverse(ByteBuffer buffer, int byteIndex, int elementSize, int count) {
+        int lower = byteIndex;
+        int upper = byteIndex + (count - 1) * elementSize;
+        // the byte order does not matter as each element is read and written in the same order
+        switch (elementSize) {
+            case 1:
+                for (; lower < upper; lower++, upper--) {
+                    byte tmp = buffer.get(lower);
+                    buffer.put(lower, buffer.get(upper));
+                    buffer.put(upper, tmp);
+                }
+                break;
+            case 2:
+                for (; lower < upper; lower += 2, upper -= 2) {
+                    short tmp = buffer.getShort(lower);
+                    buffer.putShort(lower, buffer.getShort(upper));
+                    buffer.putShort(upper, tmp);
+                }
+                break;
+            case 4:
+                for (; lower < upper; lower += 4, upper -= 4) {
+                    int tmp = buffer.getInt(lower);
+                    buffer.putInt(lower, buffer.getInt(upper));
+                    buffer.putInt(upper, tmp);
+                }
+                break;
+            case 8:
+                for (; lower < upper; lower += 8, upper -= 8) {
+                    long tmp = buffer.getLong(lower);
+                    buffer.putLong(lower, buffer.getLong(upper));
+                    buffer.putLong(upper, tmp);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("element size " + elementSize);
+        }
+    }
+
+    private static void copyDisjoint(ByteBuffer buffer, int sourceByteIndex, int targetByteIndex, int byteLength) {
+        ByteBuffer source = ((ByteBuffer) buffer.duplicate().position(sourceByteIndex).limit(sourceByteIndex + byteLength)).slice();
+        ((ByteBuffer) buffer.duplicate().position(targetByteIndex)).put(source);
+    }
+}
@@ -45,10 +45,12 @@ import static com.oracle.truffle.api.CompilerDirectives.injectBranchProbability;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArray;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
+import com.oracle.truffle.js.runtime.util.PrimitiveArraySort;
 
 public abstract class AbstractDoubleArray extends AbstractWritableArray {
 
@@ -180,6 +182,19 @@ public abstract class AbstractDoubleArray extends AbstractWritableArray {
         return new double[length];
     }
 
+    /**
+     * Sorts the elements [0, length) of this array in place. The range must not contain holes.
+     *
+     * @return {@code false} if the array was left unchanged because the order is not well-defined
+     * @see PrimitiveArraySort#sort(double[], int, int, PrimitiveArraySort.Order)
+     */
+    @TruffleBoundary
+    public final boolean sortInPlace(DynamicObject object, int length, PrimitiveArraySort.Order order) {
+        assert !isHolesType() && !hasHoles(object);
+        int start = prepareInBoundsFast(object, 0, arrayCondition());
+        return PrimitiveArraySort.sort(getArray(object), start, start + length, order);
+    }
+
     @Override
     protected abstract AbstractDoubleArray withIntegrityLevel(int newIntegrityLevel);
 }
@@ -46,9 +46,11 @@ import static com.oracle.truffle.api.CompilerDirectives.injectBranchProbability;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArray;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSTruffleOptions;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
+import com.oracle.truffle.js.runtime.util.PrimitiveArraySort;
 
 public abstract class AbstractIntArray extends AbstractWritableArray {
 
@@ -202,6 +204,16 @@ public abstract class AbstractIntArray extends AbstractWritableArray {
         return new int[length];
     }
 
+    /**
+     * Sorts the elements [0, length) of this array in place. The range must not contain holes.
+     */
+    @TruffleBoundary
+    public final void sortInPlace(DynamicObject object, int length, PrimitiveArraySort.Order order) {
+        assert !isHolesType() && !hasHoles(object);
+        int start = prepareInBoundsFast(object, 0, arrayCondition());
+        PrimitiveArraySort.sort(getArray(object), start, start + length, order);
+    }
+
     @Override
     protected abstract AbstractIntArray withIntegrityLevel(int newIntegrityLevel);
 }
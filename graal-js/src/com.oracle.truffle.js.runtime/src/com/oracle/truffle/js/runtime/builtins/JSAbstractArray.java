@@ -47,7 +47,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.TreeMap;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -67,6 +66,7 @@ import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.SparseArray;
+import com.oracle.truffle.js.runtime.array.SparseArrayPageTable;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantEmptyPrototypeArray;
 import com.oracle.truffle.js.runtime.array.dyn.LazyRegexResultArray;
 import com.oracle.truffle.js.runtime.objects.JSAttributes;
@@ -198,7 +198,7 @@ public abstract class JSAbstractArray extends JSBuiltinObject {
 
     public static void arraySetArray(DynamicObject thisObj, Object array) {
         assert JSObject.hasArray(thisObj);
-        assert array != null && (array.getClass().isArray() || array instanceof TreeMap<?, ?>);
+        assert array != null && (array.getClass().isArray() || array instanceof SparseArrayPageTable);
         JSAbstractArray.ARRAY_PROPERTY.setSafe(thisObj, array, null);
     }
 
@@ -44,13 +44,16 @@ import static com.oracle.truffle.js.runtime.objects.JSObjectUtil.putConstructorP
 import static com.oracle.truffle.js.runtime.objects.JSObjectUtil.putFunctionsFromContainer;
 import static com.oracle.truffle.js.runtime.objects.JSObjectUtil.putHiddenProperty;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.runtime.Errors;
@@ -69,6 +72,9 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
 
     public static final String CLASS_NAME = "ArrayBuffer";
     public static final String PROTOTYPE_NAME = CLASS_NAME + ".prototype";
+    public static final String CLASS_NAME_MAPPED_EXTENSIONS = "ArrayBufferMapped";
+
+    private static final HiddenKey MAPPED_ID = new HiddenKey("mapped");
 
     public static final JSArrayBuffer HEAP_INSTANCE = new JSArrayBuffer();
     public static final JSArrayBuffer DIRECT_INSTANCE = new JSArrayBuffer();
@@ -115,6 +121,51 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
         return obj;
     }
 
+    /**
+     * Creates a direct array buffer over {@code size} bytes of the file starting at
+     * {@code position}. Typed arrays and data views on the result access the file contents without
+     * copying. If {@code writeThrough} is true, writes are stored to the file and the channel must
+     * be open for reading and writing. Otherwise, the file is only read: the region is copied into
+     * the buffer once and writes are only visible through this buffer. The channel may be closed
+     * once the buffer has been created. The memory is released when the buffer is garbage collected
+     * or {@linkplain #unmapArrayBuffer unmapped}.
+     */
+    @TruffleBoundary
+    public static DynamicObject createMappedArrayBuffer(JSContext context, FileChannel channel, long position, int size, boolean writeThrough) throws IOException {
+        DynamicObject obj = createDirectArrayBuffer(context, DirectByteBufferHelper.map(channel, position, size, writeThrough));
+        obj.define(MAPPED_ID, Boolean.TRUE, 0);
+        return obj;
+    }
+
+    public static boolean isMappedArrayBuffer(DynamicObject arrayBuffer) {
+        return isJSDirectArrayBuffer(arrayBuffer) && arrayBuffer.containsKey(MAPPED_ID);
+    }
+
+    /**
+     * Detaches a buffer created by {@link #createMappedArrayBuffer} and releases its mapping
+     * immediately. Subsequent accesses through views of the buffer throw a TypeError. Code that
+     * holds on to the {@link ByteBuffer} of an array buffer while calling user code must check
+     * {@link #isDetachedBuffer} before accessing it again.
+     */
+    @TruffleBoundary
+    public static void unmapArrayBuffer(DynamicObject arrayBuffer) {
+        assert isMappedArrayBuffer(arrayBuffer);
+        ByteBuffer buffer = (ByteBuffer) BYTE_BUFFER_PROPERTY.get(arrayBuffer, true);
+        if (buffer == null) {
+            return;
+        }
+        detachArrayBuffer(arrayBuffer);
+        DirectByteBufferHelper.unmap(buffer);
+    }
+
+    @Override
+    public void fillConstructor(JSRealm realm, DynamicObject constructor) {
+        WithFunctionsAndSpecies.super.fillConstructor(realm, constructor);
+        if (realm.getContext().isOptionMappedArrayBuffer()) {
+            putFunctionsFromContainer(realm, constructor, CLASS_NAME_MAPPED_EXTENSIONS);
+        }
+    }
+
     @Override
     public DynamicObject createPrototype(JSRealm realm, DynamicObject ctor) {
         JSContext context = realm.getContext();
@@ -444,16 +444,26 @@ public final class JSDate extends JSBuiltinObject implements JSConstructorFactor
         return offset;
     }
 
+    /**
+     * Daylight Saving Time Adjustment in the local time zone of the context, using the context's
+     * cache of DST intervals.
+     */
+    public static long daylightSavingTA(JSContext context, double t) {
+        long offset = context.getDaylightSavingCache().getDaylightSavings((long) t);
+        assert 0 <= offset && offset <= MS_MAX_DST;
+        return offset;
+    }
+
     // 15.9.1.9
     @TruffleBoundary
     public static double localTime(double t, JSContext context) {
         long localTZA = context.getLocalTZA();
-        return t + localTZA + daylightSavingTA(context.getLocalTimeZoneId(), t);
+        return t + localTZA + daylightSavingTA(context, t);
     }
 
     private static double utc(double t, JSContext context) {
         long localTZA = context.getLocalTZA();
-        return t - localTZA - daylightSavingTA(context.getLocalTimeZoneId(), t - localTZA);
+        return t - localTZA - daylightSavingTA(context, t - localTZA);
     }
 
     // 15.9.1.10
@@ -51,6 +51,7 @@ import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 public final class JSON {
 
     public static final String CLASS_NAME = "JSON";
+    public static final String CLASS_NAME_STREAMING_EXTENSIONS = "JSONStreaming";
 
     private JSON() {
     }
@@ -60,6 +61,9 @@ public final class JSON {
         DynamicObject obj = JSObject.createInit(realm, realm.getObjectPrototype(), JSUserObject.INSTANCE);
         JSObjectUtil.putDataProperty(ctx, obj, Symbol.SYMBOL_TO_STRING_TAG, CLASS_NAME, JSAttributes.configurableNotEnumerableNotWritable());
         JSObjectUtil.putFunctionsFromContainer(realm, obj, CLASS_NAME);
+        if (ctx.isOptionJSONStreaming()) {
+            JSObjectUtil.putFunctionsFromContainer(realm, obj, CLASS_NAME_STREAMING_EXTENSIONS);
+        }
         return obj;
     }
 }
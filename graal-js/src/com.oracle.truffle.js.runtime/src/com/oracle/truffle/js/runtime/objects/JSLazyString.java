@@ -40,6 +40,8 @@
  */
 package com.oracle.truffle.js.runtime.objects;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.interop.ForeignAccess;
@@ -94,8 +96,9 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
     }
 
     /**
-     * Try to concatenate a very short string (e.g. a single character) to an already short root
-     * leaf, in order to avoid an excess of lazy string nodes when concatenating many tiny strings.
+     * Try to concatenate a short string to an already short root leaf or to the append chunk of
+     * the root, in order to avoid an excess of lazy string nodes when concatenating many small
+     * strings, e.g. when building a string with {@code +=} in a loop.
      */
     public static JSLazyString concatToLeafMaybe(CharSequence left, CharSequence right, int length) {
         assert assertChecked(left, right, length);
@@ -111,9 +114,46 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
     public static JSLazyString concatToLeafMaybe(JSLazyString left, String right, int length) {
         assert assertChecked(left, right, length);
         CharSequence ll = left.left;
-        CharSequence lr = left.right;
-        if (lr != null && lr instanceof String && lr.length() + right.length() <= JSTruffleOptions.ConcatToLeafLimit) {
-            return createChecked(ll, lr.toString().concat(right), length);
+        Object lr = left.right;
+        if (lr instanceof String && ((String) lr).length() + right.length() <= JSTruffleOptions.ConcatToLeafLimit) {
+            return createChecked(ll, ((String) lr).concat(right), length);
+        }
+        if (right.length() <= JSTruffleOptions.ConcatToChunkLimit) {
+            return appendToChunk(left, right, length);
+        }
+        return null;
+    }
+
+    /**
+     * Appends {@code str} to the append chunk of {@code rope}. The chunk is shared with
+     * {@code rope} and extended in place if {@code rope} still sees all of its characters (i.e.,
+     * nothing else has been appended to it yet). Otherwise, the visible part is copied into a
+     * larger chunk, unless that would exceed the maximum chunk size. A short root leaf is converted
+     * into a new chunk.
+     *
+     * @return the new lazy string, or {@code null} if a new leaf should be started
+     */
+    private static JSLazyString appendToChunk(JSLazyString rope, String str, int length) {
+        CharSequence ll = rope.left;
+        Object lr = rope.right;
+        if (lr instanceof Chunk) {
+            Chunk chunk = (Chunk) lr;
+            int visible = rope.length - ll.length();
+            if (chunk.appendAt(visible, str)) {
+                return new JSLazyString(ll, chunk, length);
+            }
+            if (visible + str.length() <= JSTruffleOptions.LazyStringChunkSize) {
+                Chunk grown = new Chunk(visible + str.length());
+                grown.append(chunk, visible);
+                grown.append(str);
+                return new JSLazyString(ll, grown, length);
+            }
+        } else if (lr instanceof String && ((String) lr).length() + str.length() <= Math.min(2 * JSTruffleOptions.ConcatToChunkLimit, JSTruffleOptions.LazyStringChunkSize)) {
+            String leaf = (String) lr;
+            Chunk chunk = new Chunk(leaf.length() + str.length());
+            chunk.append(leaf);
+            chunk.append(str);
+            return new JSLazyString(ll, chunk, length);
         }
         return null;
     }
@@ -122,9 +162,9 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
     public static JSLazyString concatToLeafMaybe(String left, JSLazyString right, int length) {
         assert assertChecked(left, right, length);
         CharSequence ll = right.left;
-        CharSequence lr = right.right;
+        Object lr = right.right;
         if (lr != null && ll instanceof String && left.length() + ll.length() <= JSTruffleOptions.ConcatToLeafLimit) {
-            return createChecked(left.concat(ll.toString()), lr, length);
+            return new JSLazyString(left.concat(ll.toString()), lr, length);
         }
         return null;
     }
@@ -158,11 +198,16 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
     }
 
     private CharSequence left;
-    private CharSequence right;
+    /**
+     * A {@link CharSequence} or a {@link Chunk} of which the first {@code length - left.length()}
+     * characters belong to this string; {@code null} once flattened.
+     */
+    private Object right;
     private final int length;
 
-    private JSLazyString(CharSequence left, CharSequence right, int length) {
-        assert left.length() > 0 && right.length() > 0 && length == left.length() + right.length();
+    private JSLazyString(CharSequence left, Object right, int length) {
+        assert left.length() > 0 && length > left.length();
+        assert right instanceof Chunk ? length - left.length() <= ((Chunk) right).used : length == left.length() + ((CharSequence) right).length();
         this.left = left;
         this.right = right;
         this.length = length;
@@ -199,61 +244,57 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
     @TruffleBoundary
     private void flatten() {
         char[] dst = new char[length];
-        flatten(this, 0, length, dst, 0);
+        flatten(this, dst);
         left = new String(dst);
         right = null;
     }
 
-    private static void flatten(CharSequence src, int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+    /**
+     * Copies the characters of {@code root} into {@code dst}, right to left. Pending left
+     * subtrees are kept on an explicit stack, so any tree shape can be flattened without
+     * recursion. For the common left-deep trees built by appending, the stack stays tiny.
+     */
+    private static void flatten(JSLazyString root, char[] dst) {
         CompilerAsserts.neverPartOfCompilation();
-        CharSequence str = src;
-        int from = srcBegin;
-        int to = srcEnd;
-        int dstFrom = dstBegin;
+        CharSequence[] stack = null;
+        int stackSize = 0;
+        int end = root.length;
+        CharSequence str = root;
         for (;;) {
-            assert 0 <= from && from <= to && to <= str.length();
             if (str instanceof JSLazyString) {
                 JSLazyString lazyString = (JSLazyString) str;
                 CharSequence left = lazyString.left;
-                CharSequence right = lazyString.right;
-                int mid = left.length();
-
-                if (to - mid >= mid - from) {
-                    // right is longer, recurse left
-                    if (from < mid) {
-                        if (left instanceof String) {
-                            ((String) left).getChars(from, mid, dst, dstFrom);
-                        } else {
-                            flatten(left, from, mid, dst, dstFrom);
-                        }
-                        dstFrom += mid - from;
-                        from = 0;
-                    } else {
-                        from -= mid;
-                    }
-                    to -= mid;
-                    str = right;
-                } else {
-                    // left is longer, recurse right
-                    if (to > mid) {
-                        if (right instanceof String) {
-                            ((String) right).getChars(0, to - mid, dst, dstFrom + mid - from);
-                        } else {
-                            flatten(right, 0, to - mid, dst, dstFrom + mid - from);
-                        }
-                        to = mid;
-                    }
+                Object right = lazyString.right;
+                if (right == null) {
                     str = left;
+                    continue;
+                } else if (right instanceof Chunk) {
+                    int count = lazyString.length - left.length();
+                    end -= count;
+                    ((Chunk) right).getChars(count, dst, end);
+                    str = left;
+                    continue;
+                }
+                if (stack == null) {
+                    stack = new CharSequence[8];
+                } else if (stackSize == stack.length) {
+                    stack = Arrays.copyOf(stack, stackSize * 2);
                 }
-            } else if (str instanceof String) {
-                ((String) str).getChars(from, to, dst, dstFrom);
-                return;
-            } else {
-                assert JSRuntime.isString(str) || str instanceof JSLazyIntWrapper;
-                str.toString().getChars(from, to, dst, dstFrom);
-                return;
+                stack[stackSize++] = left;
+                str = (CharSequence) right;
+                continue;
             }
+            assert JSRuntime.isString(str) || str instanceof JSLazyIntWrapper;
+            String leaf = str.toString();
+            end -= leaf.length();
+            leaf.getChars(0, leaf.length(), dst, end);
+            if (stackSize == 0) {
+                break;
+            }
+            str = stack[--stackSize];
+            stack[stackSize] = null;
         }
+        assert end == 0;
     }
 
     @Override
@@ -330,6 +371,47 @@ public final class JSLazyString implements CharSequence, TruffleObject, JSLazySt
 
     }
 
+    /**
+     * Append buffer of a lazy string. Successive strings built by appending to each other share one
+     * chunk, each seeing a prefix of it. Characters are never modified once written, so a chunk can
+     * be extended in place by a string that sees all of it.
+     */
+    private static final class Chunk {
+        private final char[] chars;
+        private int used;
+
+        Chunk(int minCapacity) {
+            assert minCapacity <= JSTruffleOptions.LazyStringChunkSize;
+            this.chars = new char[Math.min(Math.max(minCapacity * 2, 64), JSTruffleOptions.LazyStringChunkSize)];
+        }
+
+        /**
+         * Appends {@code str} if it fits and {@code visible} characters, as seen by the appending
+         * string, are all characters of this chunk.
+         */
+        synchronized boolean appendAt(int visible, String str) {
+            if (visible != used || used + str.length() > chars.length) {
+                return false;
+            }
+            append(str);
+            return true;
+        }
+
+        void append(String str) {
+            str.getChars(0, str.length(), chars, used);
+            used += str.length();
+        }
+
+        void append(Chunk other, int count) {
+            System.arraycopy(other.chars, 0, chars, used, count);
+            used += count;
+        }
+
+        void getChars(int count, char[] dst, int dstBegin) {
+            System.arraycopy(chars, 0, dst, dstBegin, count);
+        }
+    }
+
     public static boolean isInstance(TruffleObject object) {
         return object instanceof JSLazyString;
     }
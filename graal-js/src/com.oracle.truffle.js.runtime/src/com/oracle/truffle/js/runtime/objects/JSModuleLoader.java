@@ -46,4 +46,11 @@ public interface JSModuleLoader {
     JSModuleRecord resolveImportedModule(JSModuleRecord referencingModule, String specifier);
 
     JSModuleRecord loadModule(Source moduleSource);
+
+    /**
+     * Releases resources held by the loader, e.g. worker threads. Called when a context that uses
+     * the loader is disposed; the loader must remain usable afterwards.
+     */
+    default void dispose() {
+    }
 }
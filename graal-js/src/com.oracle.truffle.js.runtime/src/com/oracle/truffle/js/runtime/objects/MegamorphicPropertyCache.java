@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.objects;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.FinalLocationException;
+import com.oracle.truffle.api.object.IncompatibleLocationException;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.Symbol;
+import com.oracle.truffle.js.runtime.util.DebugCounter;
+
+/**
+ * Context-wide cache of property lookups made by megamorphic (generic) property access nodes,
+ * mapping (receiver shape, key) to the result of the lookup: the data or accessor property found
+ * and the object holding it, or the absence of the property from the whole prototype chain.
+ *
+ * The table is direct-mapped; a store into an occupied slot replaces the previous entry. Entries
+ * are immutable and validated on every lookup, so invalidation is implicit: the receiver shape must
+ * be identical and, for inherited properties, the holder must still have the cached shape. The
+ * prototype chain up to the holder (or, for absent properties, up to its end) is either guarded by
+ * the same prototype and property assumptions the prototype chain shape checks of the property
+ * caches rely on or, if they are not applicable, traversed and compared shape by shape.
+ *
+ * Only objects whose properties are fully described by their shape are cached. Lookups that
+ * cannot be cached (e.g., through a proxy or an exotic object) are remembered as well, so that the
+ * generic lookup is performed without first walking the prototype chain again. Neither a hit nor a
+ * remembered miss allocates.
+ */
+public final class MegamorphicPropertyCache {
+    private static final DebugCounter hitCount = DebugCounter.create("Megamorphic property cache hits");
+    private static final DebugCounter missCount = DebugCounter.create("Megamorphic property cache misses");
+    private static final DebugCounter invalidCount = DebugCounter.create("Megamorphic property cache invalid entries");
+    private static final DebugCounter storeCount = DebugCounter.create("Megamorphic property cache stores");
+
+    /** Upper bound for the prototype chain length traversed when populating the cache. */
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * Returned by {@link #get} if the property is absent from the object and its prototype chain.
+     */
+    public static final Object ABSENT = new Object();
+
+    private static final int DATA = 0;
+    private static final int ACCESSOR = 1;
+    /** The key is not present in the prototype chain. */
+    private static final int NOT_FOUND = 2;
+    /** The lookup cannot be answered from the cache. */
+    private static final int UNCACHEABLE = 3;
+
+    private final Entry[] entries;
+    private final int mask;
+
+    private static final class Entry {
+        final int kind;
+        final Shape shape;
+        final Object key;
+        final Property property;
+        /** Depth of the holder, or of the last prototype if the property is not found. */
+        final int depth;
+        /** Holder and its expected shape (depth > 0 only). */
+        final DynamicObject holder;
+        final Shape holderShape;
+        /** Guards of the prototype chain, or {@code null} if it has to be traversed. */
+        final Assumption[] assumptions;
+        /** Expected shapes of the prototypes from depth 1 to {@link #depth}, if traversed. */
+        final Shape[] prototypeShapes;
+
+        Entry(int kind, Shape shape, Object key, Property property, int depth, DynamicObject holder, Shape holderShape, Assumption[] assumptions, Shape[] prototypeShapes) {
+            this.kind = kind;
+            this.shape = shape;
+            this.key = key;
+            this.property = property;
+            this.depth = depth;
+            this.holder = holder;
+            this.holderShape = holderShape;
+            this.assumptions = assumptions;
+            this.prototypeShapes = prototypeShapes;
+        }
+
+        boolean matches(Shape receiverShape, Object propertyKey) {
+            return shape == receiverShape && (key == propertyKey || key.equals(propertyKey));
+        }
+
+        boolean isFound() {
+            return kind == DATA || kind == ACCESSOR;
+        }
+
+        boolean isValid(DynamicObject receiver) {
+            if (kind == UNCACHEABLE || (depth == 0 && isFound())) {
+                return true;
+            }
+            if (assumptions != null) {
+                for (Assumption assumption : assumptions) {
+                    if (!assumption.isValid()) {
+                        return false;
+                    }
+                }
+                return holder == null || holder.getShape() == holderShape;
+            }
+            DynamicObject last = traverse(receiver);
+            return last != null && (isFound() || JSObject.getPrototype(last) == Null.instance);
+        }
+
+        /**
+         * Returns the object holding the property. The entry must be valid.
+         */
+        DynamicObject getHolder(DynamicObject receiver) {
+            assert isFound();
+            if (depth == 0) {
+                return receiver;
+            } else if (assumptions != null) {
+                return holder;
+            } else {
+                return traverse(receiver);
+            }
+        }
+
+        /**
+         * Follows the prototype chain to {@link #depth}, or returns {@code null} if a prototype does
+         * not have the expected shape.
+         */
+        private DynamicObject traverse(DynamicObject receiver) {
+            DynamicObject current = receiver;
+            for (int i = 0; i < depth; i++) {
+                // the shape of current has already been checked, so its class is known
+                current = JSObject.getPrototype(current);
+                if (current.getShape() != prototypeShapes[i]) {
+                    return null;
+                }
+            }
+            return current;
+        }
+    }
+
+    public MegamorphicPropertyCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 1));
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the value of the own or inherited property with the given key, calling its getter with
+     * {@code receiver} if it is an accessor property. Returns {@link #ABSENT} if the property is not
+     * present, or {@code null} if the lookup cannot be answered from the cache and the generic
+     * lookup has to be performed.
+     */
+    @TruffleBoundary
+    public Object get(DynamicObject store, Object receiver, Object key) {
+        Entry entry = lookup(store, key);
+        if (entry == null || entry.kind == UNCACHEABLE) {
+            return null;
+        } else if (entry.kind == NOT_FOUND) {
+            return ABSENT;
+        }
+        DynamicObject holder = entry.getHolder(store);
+        return JSProperty.getValue(entry.property, holder, receiver, false);
+    }
+
+    /**
+     * Returns whether the object has an (own) property with the given key, or {@code null} if the
+     * lookup cannot be answered from the cache and the generic lookup has to be performed.
+     */
+    @TruffleBoundary
+    public Boolean has(DynamicObject receiver, Object key, boolean own) {
+        Entry entry = lookup(receiver, key);
+        if (entry == null || entry.kind == UNCACHEABLE) {
+            return null;
+        }
+        return entry.isFound() && (!own || entry.depth == 0);
+    }
+
+    /**
+     * Sets the value of an own, writable data property of the receiver. Returns {@code false} if the
+     * property is not in the cache or cannot hold the value, in which case the generic set has to be
+     * performed.
+     */
+    @TruffleBoundary
+    public boolean setOwn(DynamicObject receiver, Object key, Object value) {
+        Entry entry = lookup(receiver, key);
+        if (entry == null || entry.kind != DATA || entry.depth != 0) {
+            return false;
+        }
+        Property property = entry.property;
+        if (!JSProperty.isWritable(property) || JSProperty.isConst(property) || property.getLocation().isFinal() || !property.getLocation().canSet(value)) {
+            return false;
+        }
+        try {
+            property.set(receiver, value, entry.shape);
+        } catch (IncompatibleLocationException | FinalLocationException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private Entry lookup(DynamicObject receiver, Object key) {
+        if (!isCacheableKey(key)) {
+            return null;
+        }
+        Shape shape = receiver.getShape();
+        int index = (System.identityHashCode(shape) * 31 + key.hashCode()) & mask;
+        Entry entry = entries[index];
+        if (entry != null && entry.matches(shape, key)) {
+            if (entry.isValid(receiver)) {
+                hitCount.inc();
+                return entry;
+            }
+            invalidCount.inc();
+        } else {
+            missCount.inc();
+        }
+        entry = createEntry(receiver, shape, key);
+        entries[index] = entry;
+        storeCount.inc();
+        return entry;
+    }
+
+    private static boolean isCacheableKey(Object key) {
+        return (key instanceof String && !JSRuntime.isArrayIndex((String) key)) || key instanceof Symbol;
+    }
+
+    private static Entry createEntry(DynamicObject receiver, Shape shape, Object key) {
+        DynamicObject current = receiver;
+        Shape currentShape = shape;
+        for (int depth = 0; depth <= MAX_DEPTH; depth++) {
+            if (!JSObject.getJSClass(current).hasOnlyShapeProperties(current)) {
+                break;
+            }
+            Property property = currentShape.getProperty(key);
+            if (property != null) {
+                if (JSProperty.isProxy(property)) {
+                    break;
+                }
+                return createEntry(receiver, shape, key, property, depth, current);
+            }
+            DynamicObject prototype = JSObject.getPrototype(current);
+            if (prototype == Null.instance) {
+                return createEntry(receiver, shape, key, null, depth, null);
+            }
+            current = prototype;
+            currentShape = current.getShape();
+        }
+        return new Entry(UNCACHEABLE, shape, key, null, 0, null, null, null, null);
+    }
+
+    /**
+     * Creates an entry for a property found at the given depth of the prototype chain or, if
+     * {@code property} is {@code null}, for a key absent from a chain of the given length.
+     */
+    private static Entry createEntry(DynamicObject receiver, Shape shape, Object key, Property property, int depth, DynamicObject holder) {
+        int kind = property == null ? NOT_FOUND : (JSProperty.isAccessor(property) ? ACCESSOR : DATA);
+        if (depth == 0 && property != null) {
+            return new Entry(kind, shape, key, property, 0, null, null, null, null);
+        }
+        // the prototype links of all objects before the holder, or of all objects if not found
+        Assumption[] assumptions = getPrototypeChainAssumptions(receiver, key, property == null ? depth + 1 : depth);
+        if (assumptions != null) {
+            return new Entry(kind, shape, key, property, depth, holder, holder == null ? null : holder.getShape(), assumptions, null);
+        }
+        Shape[] prototypeShapes = new Shape[depth];
+        DynamicObject current = receiver;
+        for (int i = 0; i < depth; i++) {
+            current = JSObject.getPrototype(current);
+            prototypeShapes[i] = current.getShape();
+        }
+        return new Entry(kind, shape, key, property, depth, null, null, null, prototypeShapes);
+    }
+
+    /**
+     * Collects the assumptions that guarantee that the prototype chain of objects with the receiver's
+     * shape is unchanged up to the given length and that none of the prototypes in it acquires the
+     * key. Returns {@code null} if the chain cannot be guarded by assumptions.
+     */
+    private static Assumption[] getPrototypeChainAssumptions(DynamicObject receiver, Object key, int length) {
+        Assumption[] assumptions = new Assumption[2 * length - 1];
+        DynamicObject current = receiver;
+        for (int i = 0; i < length; i++) {
+            Shape currentShape = current.getShape();
+            if (!JSShape.isPrototypeInShape(currentShape)) {
+                return null;
+            }
+            Assumption prototypeAssumption = JSShape.getPrototypeAssumption(currentShape);
+            if (!prototypeAssumption.isValid()) {
+                return null;
+            }
+            assumptions[2 * i] = prototypeAssumption;
+            if (i != 0) {
+                Assumption propertyAssumption = JSShape.getPropertyAssumption(currentShape, key, true);
+                if (!propertyAssumption.isValid()) {
+                    return null;
+                }
+                assumptions[2 * i - 1] = propertyAssumption;
+            }
+            current = JSObject.getPrototype(current);
+        }
+        return assumptions;
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.objects;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+
+/**
+ * Module loader that loads the whole import graph of a module when the module is loaded. The files
+ * are read and parsed by a pool of worker threads; the parsed modules are linked and evaluated on
+ * the calling thread as before, in the order given by the import statements, so the observable
+ * behavior does not depend on the order in which the workers finish.
+ *
+ * The workers do not enter the context, since it does not allow access from multiple threads, and
+ * therefore must not create JavaScript objects: they only read files and parse them with
+ * {@link com.oracle.truffle.js.runtime.Evaluator#tryParseModule}. A module that could not be read
+ * or has syntax errors is not recorded, and is loaded again when it is resolved during linking, so
+ * that errors are reported in the same order as by a serial loader. Any other exception thrown by a
+ * worker is rethrown on the calling thread.
+ */
+public final class ParallelModuleLoader implements JSModuleLoader {
+    private static final String MODULE_NAME_PREFIX = "module:";
+
+    private final JSContext context;
+    private final int threadCount;
+    /** Module records, by canonical path. */
+    private final ConcurrentMap<String, JSModuleRecord> moduleMap = new ConcurrentHashMap<>();
+    /** Canonical paths of the modules a worker has been started for. */
+    private final Set<String> requestedPaths = ConcurrentHashMap.newKeySet();
+    /** Canonical paths, by resolved path. */
+    private final ConcurrentMap<String, String> canonicalPathCache = new ConcurrentHashMap<>();
+    /** Worker threads, created on first use and shut down by {@link #dispose}. */
+    private ExecutorService executor;
+
+    public ParallelModuleLoader(JSContext context, int threadCount) {
+        assert threadCount > 0;
+        this.context = context;
+        this.threadCount = threadCount;
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord resolveImportedModule(JSModuleRecord referencingModule, String specifier) {
+        try {
+            File moduleFile = resolveSibling(referencingModule.getSource(), specifier);
+            String canonicalPath = getCanonicalPath(moduleFile.getPath());
+            JSModuleRecord existingModule = moduleMap.get(canonicalPath);
+            if (existingModule != null) {
+                return existingModule;
+            }
+            Source source = createSource(context.getRealm().getEnv(), moduleFile, specifier);
+            JSModuleRecord newModule = context.getEvaluator().parseModule(context, source, this);
+            existingModule = moduleMap.putIfAbsent(canonicalPath, newModule);
+            return existingModule != null ? existingModule : newModule;
+        } catch (IOException | SecurityException e) {
+            throw Errors.createErrorFromException(e);
+        }
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord loadModule(Source source) {
+        String path;
+        try {
+            path = getPath(source);
+        } catch (IOException e) {
+            throw Errors.createError(e.getMessage());
+        }
+        JSModuleRecord module = moduleMap.get(path);
+        if (module == null) {
+            module = context.getEvaluator().parseModule(context, source, this);
+            moduleMap.put(path, module);
+            requestedPaths.add(path);
+            loadImports(module);
+        }
+        return module;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+                Thread thread = new Thread(runnable, "graaljs-module-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Loads the modules imported by the given module and, transitively, by the loaded modules, and
+     * waits until all of them have been parsed.
+     */
+    private void loadImports(JSModuleRecord module) {
+        PendingLoads pending = new PendingLoads();
+        submitImports(getExecutor(), pending, context.getRealm().getEnv(), module);
+        pending.await();
+        Throwable failure = pending.failure.get();
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    private void submitImports(ExecutorService pool, PendingLoads pending, TruffleLanguage.Env env, JSModuleRecord module) {
+        for (String specifier : context.getEvaluator().getRequestedModules(module)) {
+            pending.add();
+            try {
+                pool.execute(() -> {
+                    try {
+                        JSModuleRecord importedModule = loadImportedModule(env, module, specifier);
+                        if (importedModule != null) {
+                            submitImports(pool, pending, env, importedModule);
+                        }
+                    } catch (IOException | SecurityException e) {
+                        // reported by resolveImportedModule
+                    } catch (RuntimeException | Error e) {
+                        pending.failure.compareAndSet(null, e);
+                    } finally {
+                        pending.finish();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // disposed concurrently; the module is loaded by resolveImportedModule
+                pending.finish();
+            }
+        }
+    }
+
+    /**
+     * Parses an imported module on a worker thread. Returns {@code null} if the module has already
+     * been requested by another import or has syntax errors.
+     */
+    private JSModuleRecord loadImportedModule(TruffleLanguage.Env env, JSModuleRecord referencingModule, String specifier) throws IOException {
+        File moduleFile = resolveSibling(referencingModule.getSource(), specifier);
+        String canonicalPath = getCanonicalPath(moduleFile.getPath());
+        if (!requestedPaths.add(canonicalPath)) {
+            return null;
+        }
+        long startTime = JSTruffleOptions.ProfileTime ? System.nanoTime() : 0L;
+        JSModuleRecord module = context.getEvaluator().tryParseModule(context, createSource(env, moduleFile, specifier), this);
+        if (JSTruffleOptions.ProfileTime) {
+            context.getTimeProfiler().printElapsed(startTime, "parsing module " + canonicalPath);
+        }
+        if (module != null) {
+            moduleMap.putIfAbsent(canonicalPath, module);
+        }
+        return module;
+    }
+
+    private static Source createSource(TruffleLanguage.Env env, File moduleFile, String specifier) throws IOException {
+        TruffleFile truffleFile = env.getTruffleFile(moduleFile.getPath());
+        return Source.newBuilder(AbstractJavaScriptLanguage.ID, truffleFile).name(specifier).build();
+    }
+
+    private File resolveSibling(Source referencingSource, String specifier) throws IOException {
+        return Paths.get(getPath(referencingSource)).resolveSibling(specifier).toFile();
+    }
+
+    private String getPath(Source source) throws IOException {
+        String path = source.getPath();
+        if (path == null) {
+            path = source.getName();
+            if (path.startsWith(MODULE_NAME_PREFIX)) {
+                path = path.substring(MODULE_NAME_PREFIX.length());
+            }
+        }
+        return getCanonicalPath(path);
+    }
+
+    private String getCanonicalPath(String path) throws IOException {
+        String canonicalPath = canonicalPathCache.get(path);
+        if (canonicalPath == null) {
+            canonicalPath = Paths.get(path).toFile().getCanonicalPath();
+            canonicalPathCache.putIfAbsent(path, canonicalPath);
+        }
+        return canonicalPath;
+    }
+
+    /**
+     * Counts the loads of one import graph that have been submitted but not finished. A load
+     * submits the loads of its imports before it finishes, so the count only drops to zero when
+     * the whole graph has been loaded. Unlike a {@link java.util.concurrent.Phaser}, the number of
+     * pending loads is not limited.
+     */
+    private static final class PendingLoads {
+        /** Starts at one for the calling thread, see {@link #await}. */
+        private final AtomicInteger count = new AtomicInteger(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+        /** First unexpected exception thrown by a worker. */
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        void add() {
+            count.incrementAndGet();
+        }
+
+        void finish() {
+            if (count.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+
+        /**
+         * Waits for all loads. If interrupted, returns early: modules that have not been loaded
+         * yet are loaded by {@link ParallelModuleLoader#resolveImportedModule}.
+         */
+        void await() {
+            finish();
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
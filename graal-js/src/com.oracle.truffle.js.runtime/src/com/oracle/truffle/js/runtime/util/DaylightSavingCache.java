@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Caches the daylight saving time adjustment of a time zone for the intervals between offset
+ * transitions, so that conversions of nearby time values are resolved with a range check instead
+ * of a lookup in the {@link ZoneRules}.
+ */
+public final class DaylightSavingCache {
+    private static final int SIZE = 4;
+
+    private final ZoneRules rules;
+    private final Interval[] intervals = new Interval[SIZE];
+    private int nextIndex;
+
+    public DaylightSavingCache(ZoneId zoneId) {
+        this.rules = zoneId.getRules();
+    }
+
+    /**
+     * Returns the daylight saving time adjustment in milliseconds at the given epoch millisecond.
+     */
+    @TruffleBoundary
+    public long getDaylightSavings(long t) {
+        for (Interval interval : intervals) {
+            if (interval != null && interval.start <= t && t < interval.end) {
+                return interval.offset;
+            }
+        }
+        return lookup(t);
+    }
+
+    private long lookup(long t) {
+        Instant instant = Instant.ofEpochMilli(t);
+        long offset = rules.getDaylightSavings(instant).getSeconds() * 1000L;
+        if (rules.isFixedOffset()) {
+            insert(new Interval(Long.MIN_VALUE, Long.MAX_VALUE, offset));
+            return offset;
+        }
+        // the wall offset is constant between two transitions; the standard offset may change
+        // independently, so only cache the interval if it agrees at both ends
+        ZoneOffsetTransition previous = t == Long.MAX_VALUE ? null : rules.previousTransition(Instant.ofEpochMilli(t + 1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        long start = previous == null ? Long.MIN_VALUE : previous.getInstant().toEpochMilli();
+        long end = next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli();
+        if (start <= t && t < end && standardOffsetMatches(start, instant) && standardOffsetMatches(end - 1, instant)) {
+            insert(new Interval(start, end, offset));
+        }
+        return offset;
+    }
+
+    private boolean standardOffsetMatches(long t, Instant reference) {
+        return rules.getStandardOffset(Instant.ofEpochMilli(t)).equals(rules.getStandardOffset(reference));
+    }
+
+    private void insert(Interval interval) {
+        int index = nextIndex;
+        intervals[index] = interval;
+        nextIndex = (index + 1) % SIZE;
+    }
+
+    private static final class Interval {
+        /** Inclusive start of the interval. */
+        final long start;
+        /** Exclusive end of the interval. */
+        final long end;
+        final long offset;
+
+        Interval(long start, long end, long offset) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+    }
+}
@@ -40,8 +40,14 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -64,4 +70,60 @@ public final class DirectByteBufferHelper {
     public static ByteBuffer cast(ByteBuffer buffer) {
         return CompilerDirectives.castExact(buffer, DIRECT_BYTE_BUFFER_CLASS);
     }
+
+    /**
+     * Maps a region of a file into memory if {@code writeThrough} is true; the channel must then be
+     * open for reading and writing. Otherwise, the region is read into a new buffer and the channel
+     * only needs to be open for reading: array buffers require a writable buffer, and the JDK only
+     * creates private (copy-on-write) mappings of channels that are open for writing.
+     */
+    @TruffleBoundary
+    public static ByteBuffer map(FileChannel channel, long position, int size, boolean writeThrough) throws IOException {
+        if (!writeThrough) {
+            return read(channel, position, size);
+        }
+        ByteBuffer buffer = channel.map(MapMode.READ_WRITE, position, size).order(ByteOrder.nativeOrder());
+        assert buffer.getClass() == DIRECT_BYTE_BUFFER_CLASS;
+        return cast(buffer);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = allocateDirectImpl(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.clear();
+        return cast(buffer);
+    }
+
+    /**
+     * Releases the mapping of a buffer returned by {@link #map} without waiting for it to become
+     * unreachable. The buffer must not be accessed afterwards. Returns false if the running JDK
+     * does not support explicit unmapping, in which case the mapping is released by the GC.
+     */
+    @TruffleBoundary
+    public static boolean unmap(ByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                // JDK 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+                return true;
+            }
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+/**
+ * Bounded cache of code parsed by {@code eval} and the {@code Function} constructor, shared by all
+ * evaluation sites of a context. Entries are keyed by the source text and name, the kind of code
+ * (e.g. strictness, generator or async function) and, for direct eval, the enclosing scope the code
+ * was translated against, which is compared by identity. Values are the parsed scripts of the
+ * evaluator and opaque to the runtime. Least recently used entries are evicted, see
+ * {@link LRUCache}.
+ */
+public final class EvalCache {
+
+    /** Kind flag of strict mode eval code. */
+    public static final int STRICT = 1 << 0;
+    /** Kind flag of code created by a {@code Function} constructor. */
+    public static final int FUNCTION = 1 << 1;
+    public static final int GENERATOR = 1 << 2;
+    public static final int ASYNC = 1 << 3;
+
+    private static final class Key {
+        private final String code;
+        private final String parameters;
+        private final String sourceName;
+        private final Object scope;
+        private final int kind;
+
+        Key(String code, String parameters, String sourceName, Object scope, int kind) {
+            this.code = code;
+            this.parameters = parameters;
+            this.sourceName = sourceName;
+            this.scope = scope;
+            this.kind = kind;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = code.hashCode();
+            hash = 31 * hash + (parameters == null ? 0 : parameters.hashCode());
+            hash = 31 * hash + sourceName.hashCode();
+            hash = 31 * hash + System.identityHashCode(scope);
+            return 31 * hash + kind;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return scope == other.scope && kind == other.kind && code.equals(other.code) && sourceName.equals(other.sourceName) &&
+                            (parameters == null ? other.parameters == null : parameters.equals(other.parameters));
+        }
+    }
+
+    /**
+     * Code longer than this is not cached, so that a one-off evaluation of a large string does not
+     * keep the string and its translation alive.
+     */
+    private static final int MAX_CODE_LENGTH = 64 * 1024;
+
+    private final LRUCache<Key, Object> cache;
+
+    public EvalCache(int capacity) {
+        this.cache = new LRUCache<>(capacity);
+    }
+
+    /**
+     * Whether code with the given source text and {@code Function} constructor parameter list (or
+     * {@code null}) may be cached.
+     */
+    public static boolean isCacheable(CharSequence code, String parameters) {
+        return code.length() + (parameters == null ? 0 : parameters.length()) <= MAX_CODE_LENGTH;
+    }
+
+    /**
+     * Returns the cached parse of the given code, or {@code null}.
+     *
+     * @param parameters the parameter list of a {@code Function} constructor, or {@code null}
+     * @param scope the enclosing scope of direct eval code, or {@code null}
+     */
+    public Object get(String code, String parameters, String sourceName, Object scope, int kind) {
+        return cache.get(new Key(code, parameters, sourceName, scope, kind));
+    }
+
+    public void put(String code, String parameters, String sourceName, Object scope, int kind, Object parsed) {
+        assert isCacheable(code, parameters);
+        cache.put(new Key(code, parameters, sourceName, scope, kind), parsed);
+    }
+}
@@ -40,12 +40,19 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
 /**
  * ES6-compliant hash map implementation.
+ *
+ * Deterministic hash table (after Tyler Close): entries are appended to flat key/value arrays in
+ * insertion order and chained into hash buckets by entry index, so an entry costs a few array
+ * slots instead of separate node objects. Removed entries leave a tombstone ({@code null} key)
+ * until the table is rehashed. Rehashing and clearing replace the {@link Storage}; the old storage
+ * keeps a forwarding pointer and the indices of the dropped tombstones, which allows live
+ * {@link Cursor cursors} to continue at the right entry.
  */
 public final class JSHashMap {
     public interface Cursor {
@@ -72,15 +79,19 @@ public final class JSHashMap {
         Cursor copy();
     }
 
-    private final HashMap<Object, Node> map = new HashMap<>();
-    private final Node head = new Node(null, null, null, null);
-    private Node tail = head;
+    private static final int INITIAL_CAPACITY = 8;
+    /** Number of entries per hash bucket, on average, in a full table. */
+    private static final int LOAD_FACTOR = 2;
+    private static final int NO_ENTRY = -1;
+
+    private Storage storage;
 
     public JSHashMap() {
+        this.storage = new Storage(INITIAL_CAPACITY);
     }
 
     public int size() {
-        return map.size();
+        return storage.liveCount;
     }
 
     /**
@@ -88,172 +99,335 @@ public final class JSHashMap {
      */
     @TruffleBoundary
     public void put(Object key, Object value) {
-        Node newNode = new Node(key, value, null, null);
-        Node oldNode = map.putIfAbsent(key, newNode);
-        if (oldNode == null) {
-            newNode.setPrev(tail);
-            tail.setNext(newNode);
-            tail = newNode;
+        assert key != null;
+        int hash = hash(key.hashCode());
+        int index = storage.find(key, hash);
+        if (index != NO_ENTRY) {
+            storage.values[index] = value;
+        } else {
+            append(key, value, hash);
+        }
+    }
+
+    /**
+     * Like {@link #put(Object, Object)}, but only boxes the key if a new entry is inserted.
+     */
+    @TruffleBoundary
+    public void put(int key, Object value) {
+        int hash = hash(Integer.hashCode(key));
+        int index = storage.findInt(key, hash);
+        if (index != NO_ENTRY) {
+            storage.values[index] = value;
         } else {
-            oldNode.setValue(value);
+            append(key, value, hash);
+        }
+    }
+
+    /**
+     * Like {@link #put(Object, Object)}, but only boxes the key if a new entry is inserted. The key
+     * must be normalized, i.e. not representable as an int.
+     */
+    @TruffleBoundary
+    public void put(double key, Object value) {
+        int hash = hash(Double.hashCode(key));
+        int index = storage.findDouble(key, hash);
+        if (index != NO_ENTRY) {
+            storage.values[index] = value;
+        } else {
+            append(key, value, hash);
         }
     }
 
     @TruffleBoundary
     public Object get(Object key) {
-        Node node = map.get(key);
-        return node == null ? null : node.getValue();
+        int index = storage.find(key, hash(key.hashCode()));
+        return index == NO_ENTRY ? null : storage.values[index];
+    }
+
+    @TruffleBoundary
+    public Object get(int key) {
+        int index = storage.findInt(key, hash(Integer.hashCode(key)));
+        return index == NO_ENTRY ? null : storage.values[index];
+    }
+
+    @TruffleBoundary
+    public Object get(double key) {
+        int index = storage.findDouble(key, hash(Double.hashCode(key)));
+        return index == NO_ENTRY ? null : storage.values[index];
     }
 
     @TruffleBoundary
     public boolean has(Object key) {
-        return map.containsKey(key);
+        return storage.find(key, hash(key.hashCode())) != NO_ENTRY;
     }
 
     @TruffleBoundary
-    public boolean remove(Object key) {
-        Node node = map.remove(key);
-        if (node == null) {
-            return false;
-        } else {
-            unlink(node);
-            return true;
-        }
+    public boolean has(int key) {
+        return storage.findInt(key, hash(Integer.hashCode(key))) != NO_ENTRY;
     }
 
-    private void unlink(Node node) {
-        Node next = node.getNext();
-        Node prev = node.getPrev();
-        prev.setNext(next);
-        if (next != null) {
-            next.setPrev(prev);
-        } else {
-            tail = prev;
+    @TruffleBoundary
+    public boolean has(double key) {
+        return storage.findDouble(key, hash(Double.hashCode(key))) != NO_ENTRY;
+    }
+
+    @TruffleBoundary
+    public boolean remove(Object key) {
+        Storage s = storage;
+        int hash = hash(key.hashCode());
+        int bucket = hash & (s.buckets.length - 1);
+        int prev = NO_ENTRY;
+        for (int index = s.buckets[bucket]; index != NO_ENTRY; prev = index, index = s.chain[index]) {
+            if (s.hashes[index] == hash && key.equals(s.keys[index])) {
+                if (prev == NO_ENTRY) {
+                    s.buckets[bucket] = s.chain[index];
+                } else {
+                    s.chain[prev] = s.chain[index];
+                }
+                s.keys[index] = null;
+                s.values[index] = null;
+                s.liveCount--;
+                if (s.liveCount < s.capacity() / 4 && s.capacity() > INITIAL_CAPACITY) {
+                    rehash(s.capacity() / 2);
+                }
+                return true;
+            }
         }
-        node.setEmpty();
+        return false;
     }
 
     @TruffleBoundary
     public void clear() {
-        map.clear();
-        for (Node current = head.getNext(); current != null; current = current.getNext()) {
-            current.setEmpty();
-        }
-        head.setNext(null);
-        tail = head;
+        Storage newStorage = new Storage(INITIAL_CAPACITY);
+        storage.forwardTo(newStorage, null);
+        storage = newStorage;
     }
 
     @TruffleBoundary
     @Override
     public String toString() {
-        return map.toString();
+        StringBuilder sb = new StringBuilder("{");
+        Storage s = storage;
+        boolean first = true;
+        for (int i = 0; i < s.usedCount; i++) {
+            if (s.keys[i] != null) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(s.keys[i]).append('=').append(s.values[i]);
+                first = false;
+            }
+        }
+        return sb.append('}').toString();
     }
 
     public Cursor getEntries() {
-        return new CursorImpl(head);
+        return new CursorImpl(storage, NO_ENTRY);
     }
 
-    private static final class CursorImpl implements Cursor {
-        private Node current;
-
-        CursorImpl(Node head) {
-            this.current = head;
+    private void append(Object key, Object value, int hash) {
+        Storage s = storage;
+        if (s.usedCount == s.capacity()) {
+            // grow if at least half of the entries are live, otherwise just drop the tombstones
+            rehash(s.liveCount >= s.capacity() / 2 ? s.capacity() * 2 : s.capacity());
+            s = storage;
         }
+        int index = s.usedCount++;
+        int bucket = hash & (s.buckets.length - 1);
+        s.keys[index] = key;
+        s.values[index] = value;
+        s.hashes[index] = hash;
+        s.chain[index] = s.buckets[bucket];
+        s.buckets[bucket] = index;
+        s.liveCount++;
+    }
 
-        @Override
-        public boolean advance() {
-            if (current == null) {
-                return false;
-            } else {
-                // if current is no longer in the map, back up to a previous node still in the map
-                while (current.isEmpty() && current.getPrev() != null) {
-                    current = current.getPrev();
-                }
-                Node next = current.getNext();
-                assert next == null || next.getKey() != null;
-                current = next;
-                return next != null;
+    private void rehash(int newCapacity) {
+        Storage oldStorage = storage;
+        Storage newStorage = new Storage(newCapacity);
+        int[] removed = new int[oldStorage.usedCount - oldStorage.liveCount];
+        int removedCount = 0;
+        int mask = newStorage.buckets.length - 1;
+        for (int i = 0; i < oldStorage.usedCount; i++) {
+            Object key = oldStorage.keys[i];
+            if (key == null) {
+                removed[removedCount++] = i;
+                continue;
             }
+            int index = newStorage.usedCount++;
+            int hash = oldStorage.hashes[i];
+            int bucket = hash & mask;
+            newStorage.keys[index] = key;
+            newStorage.values[index] = oldStorage.values[i];
+            newStorage.hashes[index] = hash;
+            newStorage.chain[index] = newStorage.buckets[bucket];
+            newStorage.buckets[bucket] = index;
         }
+        assert removedCount == removed.length;
+        newStorage.liveCount = newStorage.usedCount;
+        oldStorage.forwardTo(newStorage, removed);
+        storage = newStorage;
+    }
 
-        @Override
-        public Object getKey() {
-            Object key = current.getKey();
-            assert key != null;
-            return key;
-        }
+    private static int hash(int h) {
+        return h ^ (h >>> 16);
+    }
 
-        @Override
-        public Object getValue() {
-            Object value = current.getValue();
-            assert value != null;
-            return value;
+    /**
+     * Backing arrays of the hash table. Replaced on rehash and clear.
+     */
+    private static final class Storage {
+        /** First entry of each bucket's chain. */
+        int[] buckets;
+        /** Entry keys in insertion order; {@code null} marks a removed entry. */
+        Object[] keys;
+        Object[] values;
+        int[] hashes;
+        /** Next entry in the same bucket. */
+        int[] chain;
+        /** Number of entry slots used so far, including removed entries. */
+        int usedCount;
+        int liveCount;
+
+        /** The storage that replaced this one, or {@code null} if this storage is current. */
+        Storage next;
+        /**
+         * Sorted indices of the removed entries that were dropped when moving to {@link #next},
+         * or {@code null} if the map was cleared.
+         */
+        int[] removedIndices;
+
+        Storage(int capacity) {
+            this.buckets = new int[Math.max(1, capacity / LOAD_FACTOR)];
+            Arrays.fill(buckets, NO_ENTRY);
+            this.keys = new Object[capacity];
+            this.values = new Object[capacity];
+            this.hashes = new int[capacity];
+            this.chain = new int[capacity];
         }
 
-        @Override
-        public String toString() {
-            return "Cursor [current=" + current + "]";
+        int capacity() {
+            return keys.length;
         }
 
-        @Override
-        public Cursor copy() {
-            return new CursorImpl(current);
+        int find(Object key, int hash) {
+            for (int index = buckets[hash & (buckets.length - 1)]; index != NO_ENTRY; index = chain[index]) {
+                if (hashes[index] == hash && key.equals(keys[index])) {
+                    return index;
+                }
+            }
+            return NO_ENTRY;
         }
-    }
 
-    private static final class Node {
-        private Object key;
-        private Object value;
-        private Node prev;
-        private Node next;
-
-        Node(Object key, Object value, Node prev, Node next) {
-            this.key = key;
-            this.value = value;
-            this.prev = prev;
-            this.next = next;
+        int findInt(int key, int hash) {
+            for (int index = buckets[hash & (buckets.length - 1)]; index != NO_ENTRY; index = chain[index]) {
+                Object k = keys[index];
+                if (hashes[index] == hash && k instanceof Integer && ((Integer) k).intValue() == key) {
+                    return index;
+                }
+            }
+            return NO_ENTRY;
         }
 
-        Object getKey() {
-            return key;
+        int findDouble(double key, int hash) {
+            long bits = Double.doubleToLongBits(key);
+            for (int index = buckets[hash & (buckets.length - 1)]; index != NO_ENTRY; index = chain[index]) {
+                Object k = keys[index];
+                if (hashes[index] == hash && k instanceof Double && Double.doubleToLongBits((Double) k) == bits) {
+                    return index;
+                }
+            }
+            return NO_ENTRY;
         }
 
-        Object getValue() {
-            return value;
+        void forwardTo(Storage newStorage, int[] removed) {
+            this.next = newStorage;
+            this.removedIndices = removed;
+            // only cursors may still reference this storage, and they only need the forwarding info
+            this.buckets = null;
+            this.keys = null;
+            this.values = null;
+            this.hashes = null;
+            this.chain = null;
         }
 
-        void setValue(Object value) {
-            this.value = value;
+        /**
+         * Maps an entry index of this storage to the corresponding index in {@link #next}.
+         */
+        int forwardIndex(int index) {
+            if (removedIndices == null) {
+                return NO_ENTRY;
+            }
+            // subtract the number of dropped entries at or before index
+            int pos = Arrays.binarySearch(removedIndices, index);
+            int removedBefore = pos >= 0 ? pos + 1 : -(pos + 1);
+            return index - removedBefore;
         }
+    }
 
-        Node getPrev() {
-            return prev;
-        }
+    private static final class CursorImpl implements Cursor {
+        private Storage storage;
+        private int index;
+        private Object key;
+        private Object value;
 
-        void setPrev(Node prev) {
-            this.prev = prev;
+        CursorImpl(Storage storage, int index) {
+            this.storage = storage;
+            this.index = index;
         }
 
-        Node getNext() {
-            return next;
+        @Override
+        public boolean advance() {
+            Storage s = storage;
+            if (s == null) {
+                return false;
+            }
+            while (s.next != null) {
+                index = s.forwardIndex(index);
+                s = s.next;
+            }
+            int i = index + 1;
+            while (i < s.usedCount && s.keys[i] == null) {
+                i++;
+            }
+            if (i < s.usedCount) {
+                storage = s;
+                index = i;
+                key = s.keys[i];
+                value = s.values[i];
+                return true;
+            } else {
+                // exhausted, stays exhausted
+                storage = null;
+                key = null;
+                value = null;
+                return false;
+            }
         }
 
-        void setNext(Node next) {
-            this.next = next;
+        @Override
+        public Object getKey() {
+            assert key != null;
+            return key;
         }
 
-        void setEmpty() {
-            this.key = null;
-            this.value = null;
+        @Override
+        public Object getValue() {
+            assert value != null;
+            return value;
         }
 
-        boolean isEmpty() {
-            return this.key == null;
+        @Override
+        public String toString() {
+            return "Cursor [index=" + index + ", key=" + key + "]";
         }
 
         @Override
-        public String toString() {
-            return "Node [key=" + key + ", value=" + value + "]";
+        public Cursor copy() {
+            CursorImpl copy = new CursorImpl(storage, index);
+            copy.key = key;
+            copy.value = value;
+            return copy;
         }
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+
+/**
+ * Context-wide trace of the functions called through megamorphic call sites, i.e. call sites whose
+ * inline cache has gone generic, enabled by {@link JSTruffleOptions#TraceMegamorphicCalls}. The
+ * distribution of call targets is recorded per call site and printed when the context is disposed.
+ * Which targets get a direct call is decided by each call site from its own profile.
+ */
+public final class MegamorphicCallTargets {
+    private static final String CLASS_NAME = "[" + MegamorphicCallTargets.class.getSimpleName() + "] ";
+    private static final int TRACE_TARGET_LIMIT = 10;
+
+    private final Map<String, Map<JSFunctionData, AtomicLong>> callSiteTargets = new ConcurrentHashMap<>();
+
+    /**
+     * Records a call of the target from a megamorphic call site.
+     */
+    @TruffleBoundary
+    public void traceCall(JSFunctionData target, Node callSite) {
+        assert JSTruffleOptions.TraceMegamorphicCalls;
+        callSiteTargets.computeIfAbsent(String.valueOf(callSite.getEncapsulatingSourceSection()), k -> new ConcurrentHashMap<>()).computeIfAbsent(target, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Prints the call target distribution of each megamorphic call site. Called when a context is
+     * disposed.
+     */
+    @TruffleBoundary
+    public void printCallSites() {
+        for (Map.Entry<String, Map<JSFunctionData, AtomicLong>> site : callSiteTargets.entrySet()) {
+            List<Map.Entry<JSFunctionData, AtomicLong>> targets = new ArrayList<>(site.getValue().entrySet());
+            Collections.sort(targets, (a, b) -> Long.compare(b.getValue().get(), a.getValue().get()));
+            long total = 0;
+            for (Map.Entry<JSFunctionData, AtomicLong> target : targets) {
+                total += target.getValue().get();
+            }
+            System.out.println(CLASS_NAME + site.getKey() + ": " + targets.size() + " targets, " + total + " calls");
+            for (Map.Entry<JSFunctionData, AtomicLong> target : targets.subList(0, Math.min(targets.size(), TRACE_TARGET_LIMIT))) {
+                System.out.printf("%s  %8d %s\n", CLASS_NAME, target.getValue().get(), target.getKey().getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.oracle.truffle.js.runtime.JSRuntime;
+
+/**
+ * In-place sorting of {@code int[]} and {@code double[]} array storage, used by
+ * {@code Array.prototype.sort} to avoid boxing the elements of int and double arrays.
+ */
+public final class PrimitiveArraySort {
+
+    /**
+     * Sort orders supported on primitive storage.
+     */
+    public enum Order {
+        /** Default order of {@code Array.prototype.sort}, i.e., by {@code ToString} of the values. */
+        DEFAULT,
+        /** Order of the comparator {@code (a, b) => a - b}. */
+        ASCENDING,
+        /** Order of the comparator {@code (a, b) => b - a}. */
+        DESCENDING
+    }
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final String ID = "([A-Za-z_$][\\w$]*)";
+    private static final String PARAMETERS = "\\(\\s*" + ID + "\\s*,\\s*" + ID + "\\s*\\)\\s*";
+    private static final String DIFFERENCE = ID + "\\s*-\\s*" + ID;
+    private static final String RETURN_DIFFERENCE = "\\{\\s*return\\s+" + DIFFERENCE + "\\s*;?\\s*\\}";
+    private static final Pattern ARROW_COMPARATOR = Pattern.compile(PARAMETERS + "=>\\s*(?:" + DIFFERENCE + "|" + RETURN_DIFFERENCE + ")");
+    private static final Pattern FUNCTION_COMPARATOR = Pattern.compile("function\\s*(?:[A-Za-z_$][\\w$]*)?\\s*" + PARAMETERS + RETURN_DIFFERENCE);
+
+    private PrimitiveArraySort() {
+    }
+
+    /**
+     * Recognizes the source code of the common numeric comparators {@code (a, b) => a - b} and
+     * {@code (a, b) => b - a} (also as {@code function} or with a block body). For numbers, such a
+     * comparator can be replaced by a numeric comparison without calling it.
+     *
+     * @return the order implemented by the comparator, or {@code null} if not recognized
+     */
+    public static Order numericComparatorOrder(CharSequence source) {
+        Matcher matcher = ARROW_COMPARATOR.matcher(source);
+        if (!matcher.matches()) {
+            matcher = FUNCTION_COMPARATOR.matcher(source);
+            if (!matcher.matches()) {
+                return null;
+            }
+        }
+        String first = matcher.group(1);
+        String second = matcher.group(2);
+        String minuend = matcher.group(3) != null ? matcher.group(3) : matcher.group(5);
+        String subtrahend = matcher.group(3) != null ? matcher.group(4) : matcher.group(6);
+        if (first.equals(second)) {
+            return null;
+        } else if (first.equals(minuend) && second.equals(subtrahend)) {
+            return Order.ASCENDING;
+        } else if (second.equals(minuend) && first.equals(subtrahend)) {
+            return Order.DESCENDING;
+        }
+        return null;
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)} in the given order.
+     */
+    public static void sort(int[] array, int fromIndex, int toIndex, Order order) {
+        switch (order) {
+            case DEFAULT:
+                // Elements that compare equal are equal, so stability does not matter.
+                int[] scratch = Arrays.copyOfRange(array, fromIndex, toIndex);
+                mergeSortAsStrings(scratch, array, fromIndex, toIndex, -fromIndex);
+                break;
+            case ASCENDING:
+                Arrays.sort(array, fromIndex, toIndex);
+                break;
+            case DESCENDING:
+                Arrays.sort(array, fromIndex, toIndex);
+                for (int i = fromIndex, j = toIndex - 1; i < j; i++, j--) {
+                    int tmp = array[i];
+                    array[i] = array[j];
+                    array[j] = tmp;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(String.valueOf(order));
+        }
+    }
+
+    /**
+     * Sorts {@code array[fromIndex, toIndex)} in the given order. The sort is stable, so that
+     * {@code 0} and {@code -0} (which compare as equal) keep their relative order.
+     *
+     * @return {@code false} (leaving the array unchanged) if the numeric order is not well-defined
+     *         because of a {@code NaN} element, {@code true} otherwise.
+     */
+    public static boolean sort(double[] array, int fromIndex, int toIndex, Order order) {
+        if (order != Order.DEFAULT) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                if (Double.isNaN(array[i])) {
+                    return false;
+                }
+            }
+        }
+        double[] scratch = Arrays.copyOfRange(array, fromIndex, toIndex);
+        mergeSort(scratch, array, fromIndex, toIndex, -fromIndex, order);
+        return true;
+    }
+
+    /**
+     * Sorts {@code dst[from, to)}; {@code src[from + srcOffset, to + srcOffset)} holds a copy of
+     * the same elements and is used as scratch space.
+     */
+    private static void mergeSortAsStrings(int[] src, int[] dst, int from, int to, int srcOffset) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int value = dst[i];
+                int j = i - 1;
+                while (j >= from && compareIntsAsStrings(dst[j], value) > 0) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSortAsStrings(dst, src, from + srcOffset, mid + srcOffset, -srcOffset);
+        mergeSortAsStrings(dst, src, mid + srcOffset, to + srcOffset, -srcOffset);
+        int low = from + srcOffset;
+        int lowEnd = mid + srcOffset;
+        int high = lowEnd;
+        int highEnd = to + srcOffset;
+        if (compareIntsAsStrings(src[lowEnd - 1], src[high]) <= 0) {
+            System.arraycopy(src, low, dst, from, to - from);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (high >= highEnd || (low < lowEnd && compareIntsAsStrings(src[low], src[high]) <= 0)) {
+                dst[i] = src[low++];
+            } else {
+                dst[i] = src[high++];
+            }
+        }
+    }
+
+    private static void mergeSort(double[] src, double[] dst, int from, int to, int srcOffset, Order order) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                double value = dst[i];
+                int j = i - 1;
+                while (j >= from && compare(dst[j], value, order) > 0) {
+                    dst[j + 1] = dst[j];
+                    j--;
+                }
+                dst[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(dst, src, from + srcOffset, mid + srcOffset, -srcOffset, order);
+        mergeSort(dst, src, mid + srcOffset, to + srcOffset, -srcOffset, order);
+        int low = from + srcOffset;
+        int lowEnd = mid + srcOffset;
+        int high = lowEnd;
+        int highEnd = to + srcOffset;
+        if (compare(src[lowEnd - 1], src[high], order) <= 0) {
+            System.arraycopy(src, low, dst, from, to - from);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (high >= highEnd || (low < lowEnd && compare(src[low], src[high], order) <= 0)) {
+                dst[i] = src[low++];
+            } else {
+                dst[i] = src[high++];
+            }
+        }
+    }
+
+    private static int compare(double a, double b, Order order) {
+        switch (order) {
+            case DEFAULT:
+                return compareDoublesAsStrings(a, b);
+            case ASCENDING:
+                return a < b ? -1 : (a > b ? 1 : 0);
+            default:
+                return a > b ? -1 : (a < b ? 1 : 0);
+        }
+    }
+
+    /**
+     * Compares two int values like the strings returned by {@code ToString} of the values, without
+     * creating the strings.
+     */
+    public static int compareIntsAsStrings(int a, int b) {
+        return compareLongsAsStrings(a, b);
+    }
+
+    /**
+     * Compares two double values like the strings returned by {@code ToString} of the values.
+     * Integral values are compared without creating the strings.
+     */
+    public static int compareDoublesAsStrings(double a, double b) {
+        if (a == b) {
+            return 0;
+        }
+        if (isSafeInteger(a) && isSafeInteger(b)) {
+            return compareLongsAsStrings((long) a, (long) b);
+        }
+        if (a <= 0 && b > 0) {
+            return -1;
+        } else if (b <= 0 && a > 0) {
+            return 1;
+        }
+        return JSRuntime.doubleToString(a).compareTo(JSRuntime.doubleToString(b));
+    }
+
+    private static boolean isSafeInteger(double value) {
+        return value == (long) value && Math.abs(value) <= MAX_SAFE_INTEGER;
+    }
+
+    private static int compareLongsAsStrings(long a, long b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a < 0) {
+            // '-' sorts before all digits
+            return b < 0 ? compareDigits(-a, -b) : -1;
+        } else if (b < 0) {
+            return 1;
+        }
+        return compareDigits(a, b);
+    }
+
+    /**
+     * Compares the decimal representations of two non-negative values lexicographically.
+     */
+    private static int compareDigits(long a, long b) {
+        int aDigits = digitCount(a);
+        int bDigits = digitCount(b);
+        if (aDigits == bDigits) {
+            return Long.compare(a, b);
+        } else if (aDigits < bDigits) {
+            // if a is a prefix of b, the shorter string comes first
+            return a * POWERS_OF_TEN[bDigits - aDigits] <= b ? -1 : 1;
+        } else {
+            return a < b * POWERS_OF_TEN[aDigits - bDigits] ? -1 : 1;
+        }
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+}
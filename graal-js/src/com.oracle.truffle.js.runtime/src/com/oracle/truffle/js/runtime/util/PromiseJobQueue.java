@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.builtins.JSFunction;
+import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Queue of pending promise jobs (ECMA 8.4 PromiseJobs) of a context.
+ *
+ * Besides job functions, the queue holds built-in jobs that take two arguments (e.g. a
+ * PromiseReactionJob with its reaction and argument) without a function object per job: such a job
+ * is stored as its {@link JSFunctionData}, the arguments and the realm in consecutive slots of a
+ * ring buffer and its call target is called directly when it is run.
+ *
+ * The queue is confined to the thread that owns the context; other threads hand their jobs to the
+ * context's main agent instead (see {@code JSContext#promiseEnqueueJobFromOtherThread}).
+ */
+public final class PromiseJobQueue {
+    /** Slots per job: the job function or function data, two arguments, and the realm. */
+    private static final int STRIDE = 4;
+
+    private Object[] entries = new Object[4 * STRIDE];
+    /** Slot index of the first job. */
+    private int head;
+    /** Number of queued jobs. */
+    private int length;
+
+    private int maxLength;
+    private long jobCount;
+    private long drainCount;
+    private long drainTime;
+    /** Nesting depth of {@link #runJobs()}, so that only the outermost drain is timed. */
+    private int drainDepth;
+
+    @TruffleBoundary
+    public void add(DynamicObject jobFunction) {
+        add(jobFunction, null, null, null);
+    }
+
+    @TruffleBoundary
+    public void add(JSFunctionData job, Object argument0, Object argument1, JSRealm realm) {
+        add((Object) job, argument0, argument1, realm);
+    }
+
+    private void add(Object job, Object argument0, Object argument1, JSRealm realm) {
+        if (length * STRIDE == entries.length) {
+            grow();
+        }
+        int index = (head + length * STRIDE) & (entries.length - 1);
+        entries[index] = job;
+        entries[index + 1] = argument0;
+        entries[index + 2] = argument1;
+        entries[index + 3] = realm;
+        length++;
+        if (length > maxLength) {
+            maxLength = length;
+        }
+    }
+
+    private void grow() {
+        Object[] newEntries = new Object[entries.length * 2];
+        int firstPart = Math.min(length * STRIDE, entries.length - head);
+        System.arraycopy(entries, head, newEntries, 0, firstPart);
+        System.arraycopy(entries, 0, newEntries, firstPart, length * STRIDE - firstPart);
+        entries = newEntries;
+        head = 0;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Runs queued jobs in batches, in FIFO order, until the queue is empty; jobs enqueued by a batch
+     * are run by the next one. Returns {@code true} if any job was run.
+     */
+    @TruffleBoundary
+    public boolean runJobs() {
+        if (length == 0) {
+            return false;
+        }
+        long startTime = drainDepth++ == 0 ? System.nanoTime() : 0;
+        try {
+            while (length > 0) {
+                // a job may drain the queue itself, e.g. when leaving an interop call
+                for (int batch = length; batch > 0 && length > 0; batch--) {
+                    Object job = entries[head];
+                    Object argument0 = entries[head + 1];
+                    Object argument1 = entries[head + 2];
+                    JSRealm realm = (JSRealm) entries[head + 3];
+                    entries[head] = entries[head + 1] = entries[head + 2] = entries[head + 3] = null;
+                    head = (head + STRIDE) & (entries.length - 1);
+                    length--;
+                    jobCount++;
+                    runJob(job, argument0, argument1, realm);
+                }
+            }
+        } finally {
+            if (--drainDepth == 0) {
+                drainCount++;
+                drainTime += System.nanoTime() - startTime;
+            }
+        }
+        return true;
+    }
+
+    private static void runJob(Object job, Object argument0, Object argument1, JSRealm realm) {
+        if (job instanceof JSFunctionData) {
+            Object prev = realm.getTruffleContext().enter();
+            try {
+                ((JSFunctionData) job).getCallTarget().call(JSArguments.create(Undefined.instance, Undefined.instance, argument0, argument1));
+            } finally {
+                realm.getTruffleContext().leave(prev);
+            }
+        } else if (JSFunction.isJSFunction(job)) {
+            DynamicObject jobFunction = (DynamicObject) job;
+            JSRealm functionRealm = JSFunction.getRealm(jobFunction);
+            Object prev = functionRealm.getTruffleContext().enter();
+            try {
+                JSFunction.call(jobFunction, Undefined.instance, JSArguments.EMPTY_ARGUMENTS_ARRAY);
+            } finally {
+                functionRealm.getTruffleContext().leave(prev);
+            }
+        }
+    }
+
+    /** Number of jobs currently queued. */
+    public int getLength() {
+        return length;
+    }
+
+    /** Highest number of jobs queued at the same time. */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /** Number of jobs run so far. */
+    public long getJobCount() {
+        return jobCount;
+    }
+
+    /** Number of times the queue has been drained, not counting nested drains. */
+    public long getDrainCount() {
+        return drainCount;
+    }
+
+    /** Total time spent draining the queue, in nanoseconds. */
+    public long getDrainTime() {
+        return drainTime;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import com.oracle.truffle.api.object.DynamicObject;
+
+/**
+ * Weak-keyed identity hash table for JavaScript WeakMap and WeakSet.
+ *
+ * In contrast to {@link WeakMap}, entries are owned by the table and keys are not modified, so
+ * using an object as a key causes no shape transition. Entries whose key has been collected are
+ * expunged via a {@link ReferenceQueue} on the next access. Note that values are strongly
+ * reachable from the table, so a value that strongly references its own key keeps the entry
+ * alive for as long as the table is alive.
+ */
+public final class WeakKeyTable implements Map<DynamicObject, Object> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReferenceQueue<DynamicObject> queue = new ReferenceQueue<>();
+    private Entry[] table;
+    private int size;
+
+    public WeakKeyTable() {
+        this.table = new Entry[INITIAL_CAPACITY];
+    }
+
+    private static DynamicObject checkKey(Object key) {
+        if (!(key instanceof DynamicObject)) {
+            throw new IllegalArgumentException("key must be instanceof DynamicObject");
+        }
+        return (DynamicObject) key;
+    }
+
+    private static int hash(Object key) {
+        int h = System.identityHashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private Entry find(DynamicObject key) {
+        expungeStaleEntries();
+        int hash = hash(key);
+        for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && e.get() == key) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(checkKey(key)) != null;
+    }
+
+    @Override
+    public Object get(Object key) {
+        Entry e = find(checkKey(key));
+        return e == null ? null : e.value;
+    }
+
+    @Override
+    public Object put(DynamicObject key, Object value) {
+        DynamicObject k = checkKey(key);
+        Entry e = find(k);
+        if (e != null) {
+            Object oldValue = e.value;
+            e.value = value;
+            return oldValue;
+        }
+        if (size >= table.length - (table.length >> 2)) {
+            resize(table.length << 1);
+        }
+        int hash = hash(k);
+        int index = hash & (table.length - 1);
+        table[index] = new Entry(k, value, hash, table[index], queue);
+        size++;
+        return null;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        DynamicObject k = checkKey(key);
+        expungeStaleEntries();
+        int hash = hash(k);
+        int index = hash & (table.length - 1);
+        Entry prev = null;
+        for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+            if (e.hash == hash && e.get() == k) {
+                unlink(index, prev, e);
+                // no need to enqueue it any more
+                e.clear();
+                return e.value;
+            }
+        }
+        return null;
+    }
+
+    private void unlink(int index, Entry prev, Entry e) {
+        if (prev == null) {
+            table[index] = e.next;
+        } else {
+            prev.next = e.next;
+        }
+        size--;
+    }
+
+    private void expungeStaleEntries() {
+        for (Object stale; (stale = queue.poll()) != null;) {
+            Entry entry = (Entry) stale;
+            int index = entry.hash & (table.length - 1);
+            Entry prev = null;
+            for (Entry e = table[index]; e != null; prev = e, e = e.next) {
+                if (e == entry) {
+                    unlink(index, prev, e);
+                    e.value = null;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void resize(int newCapacity) {
+        Entry[] oldTable = table;
+        Entry[] newTable = new Entry[newCapacity];
+        for (Entry head : oldTable) {
+            Entry e = head;
+            while (e != null) {
+                Entry next = e.next;
+                if (e.get() == null) {
+                    // collected, but possibly not enqueued yet
+                    e.value = null;
+                    size--;
+                } else {
+                    int index = e.hash & (newCapacity - 1);
+                    e.next = newTable[index];
+                    newTable[index] = e;
+                }
+                e = next;
+            }
+        }
+        table = newTable;
+    }
+
+    @Override
+    public void putAll(Map<? extends DynamicObject, ? extends Object> m) {
+        m.forEach(this::put);
+    }
+
+    @Override
+    public int size() {
+        expungeStaleEntries();
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        while (queue.poll() != null) {
+            // drain
+        }
+        table = new Entry[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        throw unsupported();
+    }
+
+    @Override
+    public Set<DynamicObject> keySet() {
+        throw unsupported();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        throw unsupported();
+    }
+
+    @Override
+    public Set<java.util.Map.Entry<DynamicObject, Object>> entrySet() {
+        throw unsupported();
+    }
+
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("Not supported by WeakKeyTable");
+    }
+
+    private static final class Entry extends WeakReference<DynamicObject> {
+        final int hash;
+        Object value;
+        Entry next;
+
+        Entry(DynamicObject key, Object value, int hash, Entry next, ReferenceQueue<DynamicObject> queue) {
+            super(key, queue);
+            this.value = value;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.scriptengine.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+
+import org.junit.Test;
+
+public class TestContextPool {
+    private static final String POOL_SIZE_PROPERTY = "graaljs.ContextPoolSize";
+
+    private final ScriptEngineManager manager = new ScriptEngineManager();
+
+    private ScriptEngine getPooledEngine() {
+        String previous = System.setProperty(POOL_SIZE_PROPERTY, "2");
+        try {
+            return manager.getEngineByName(TestEngine.TESTED_ENGINE_NAME);
+        } finally {
+            if (previous == null) {
+                System.clearProperty(POOL_SIZE_PROPERTY);
+            } else {
+                System.setProperty(POOL_SIZE_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    public void pooledBindingsKeepState() throws ScriptException {
+        ScriptEngine engine = getPooledEngine();
+        Bindings bindings = engine.createBindings();
+        Map<?, ?> result = (Map<?, ?>) engine.eval("var o = {a: 1}; o;", bindings);
+        engine.eval("o.a = 2;", bindings);
+        assertEquals(2, result.get("a"));
+        assertEquals(2, engine.eval("o.a;", bindings));
+    }
+
+    @Test
+    public void pooledBindingsAreSeparate() throws ScriptException {
+        ScriptEngine engine = getPooledEngine();
+        // more bindings than the pool holds
+        Bindings[] bindings = new Bindings[4];
+        for (int i = 0; i < bindings.length; i++) {
+            bindings[i] = engine.createBindings();
+            engine.eval("let x = " + i + "; var y = x; Array.prototype.leaked = x;", bindings[i]);
+        }
+        for (int i = 0; i < bindings.length; i++) {
+            assertEquals(i, engine.eval("x + y + [].leaked - 2 * x;", bindings[i]));
+        }
+    }
+
+    @Test
+    public void compiledScriptInPooledBindings() throws ScriptException {
+        ScriptEngine engine = getPooledEngine();
+        CompiledScript script = ((Compilable) engine).compile("let x = 1; x;");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, script.eval(engine.createBindings()));
+        }
+    }
+
+    @Test
+    public void plainBindingsKeepState() throws ScriptException {
+        ScriptEngine engine = getPooledEngine();
+        Bindings bindings = new SimpleBindings();
+        Map<?, ?> result = (Map<?, ?>) engine.eval("var o = {a: 1}; o;", bindings);
+        engine.eval("o.a = 2;", bindings);
+        assertEquals(2, result.get("a"));
+        assertEquals(2, engine.eval("o.a;", bindings));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.scriptengine;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+
+/**
+ * Bounded pool of initialized polyglot contexts from which {@link GraalJSScriptEngine} creates
+ * bindings, so that creating bindings does not have to wait for a context to be built and
+ * initialized. A context is handed out only once: it then belongs to the bindings and stays alive
+ * with them, like a context created on demand. The pool is refilled by a background thread.
+ */
+final class GraalJSContextPool implements AutoCloseable {
+
+    private final ArrayBlockingQueue<Context> idle;
+    private final Supplier<Context> factory;
+    private final ExecutorService refiller;
+    private volatile boolean closed;
+
+    GraalJSContextPool(int capacity, Supplier<Context> factory) {
+        assert capacity > 0;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+        this.refiller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "GraalJS context pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refill();
+    }
+
+    /**
+     * Returns an initialized context, or creates a new one if the pool is empty.
+     */
+    Context acquire() {
+        if (closed) {
+            throw new IllegalStateException("Context already closed.");
+        }
+        Context context = idle.poll();
+        refill();
+        return context != null ? context : factory.get();
+    }
+
+    private void refill() {
+        try {
+            refiller.execute(this::fill);
+        } catch (RejectedExecutionException e) {
+            // pool closed concurrently
+        }
+    }
+
+    private void fill() {
+        while (!closed && idle.remainingCapacity() > 0) {
+            Context context;
+            try {
+                context = factory.get();
+            } catch (PolyglotException | IllegalStateException e) {
+                // engine closed concurrently
+                return;
+            }
+            if (!idle.offer(context) || (closed && idle.remove(context))) {
+                closeQuietly(context);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Closes the contexts that have not been handed out yet.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refiller.shutdown();
+        Context context;
+        while ((context = idle.poll()) != null) {
+            closeQuietly(context);
+        }
+    }
+
+    private static void closeQuietly(Context context) {
+        try {
+            context.close();
+        } catch (PolyglotException | IllegalStateException e) {
+            // already closed
+        }
+    }
+}
@@ -75,8 +75,16 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
     private static final String IN_SYMBOL = "$$internal.in$$";
     private static final String ERR_SYMBOL = "$$internal.err$$";
 
+    /**
+     * System property for the number of initialized polyglot contexts kept ready for
+     * {@link #createBindings()}. It is read when an engine is created; a value of zero (the default)
+     * disables pooling.
+     */
+    static final String CONTEXT_POOL_SIZE_PROPERTY = "graaljs.ContextPoolSize";
+
     private final GraalJSEngineFactory factory;
     private final Context.Builder contextConfig;
+    private final GraalJSContextPool contextPool;
 
     private volatile boolean closed;
     private boolean evalCalled;
@@ -97,10 +105,12 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
         }
         this.factory = new GraalJSEngineFactory(engineToUse);
         this.contextConfig = contextConfigToUse.engine(engineToUse);
+        int contextPoolSize = Integer.getInteger(CONTEXT_POOL_SIZE_PROPERTY, 0);
+        this.contextPool = contextPoolSize > 0 ? new GraalJSContextPool(contextPoolSize, this::createInitializedContext) : null;
         this.context.setBindings(new GraalJSBindings(createDefaultContext()), ScriptContext.ENGINE_SCOPE);
     }
 
-    private Context createDefaultContext() {
+    private synchronized Context createDefaultContext() {
         DelegatingInputStream in = new DelegatingInputStream();
         DelegatingOutputStream out = new DelegatingOutputStream();
         DelegatingOutputStream err = new DelegatingOutputStream();
@@ -113,12 +123,21 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
         return ctx;
     }
 
+    private Context createInitializedContext() {
+        Context ctx = createDefaultContext();
+        ctx.initialize(ID);
+        return ctx;
+    }
+
     /**
      * Closes the current context and makes it unusable. Operations performed after closing will
      * throw an {@link IllegalStateException}.
      */
     @Override
     public void close() {
+        if (contextPool != null) {
+            contextPool.close();
+        }
         getPolyglotContext().close();
         closed = true;
     }
@@ -153,9 +172,14 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
         return context.eval(Source.newBuilder(ID, script, "internal-script").internal(true).buildLiteral());
     }
 
+    /**
+     * Creates bindings backed by a polyglot context of their own. If pooling is enabled with
+     * {@value #CONTEXT_POOL_SIZE_PROPERTY}, the context is taken from a pool of initialized
+     * contexts that is refilled in the background.
+     */
     @Override
     public Bindings createBindings() {
-        return new GraalJSBindings(createDefaultContext());
+        return new GraalJSBindings(contextPool != null ? contextPool.acquire() : createDefaultContext());
     }
 
     @Override
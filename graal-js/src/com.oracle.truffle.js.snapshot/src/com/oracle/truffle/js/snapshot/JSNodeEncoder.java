@@ -76,6 +76,8 @@ import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.oracle.truffle.api.source.SourceSection;
@@ -91,8 +93,8 @@ import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 
 public class JSNodeEncoder {
     private final BinaryEncoder encoder;
-    private final HashMap<String, Integer> patchPositions = new HashMap<>();
-    private final HashMap<String, Integer> resolvedPositions = new HashMap<>();
+    private final HashMap<String, Integer> functionIndices = new HashMap<>();
+    private int functionTablePosition;
 
     private static final int FIRST_REG = 1;
     private final HashMap<Integer, Integer> valueIdToRegMap = new HashMap<>();
@@ -105,12 +107,24 @@ public class JSNodeEncoder {
         this.encoder = encoder;
     }
 
-    public JSNodeEncoder(BinaryEncoder encoder, CharSequence sourceCode) {
+    /**
+     * Writes the snapshot header followed by the function table. The table has one fixed-size
+     * entry per function, in the given order, that is filled in by {@link #markExtractedPosition}.
+     * The first function is the entry point of the snapshot.
+     */
+    public JSNodeEncoder(BinaryEncoder encoder, CharSequence sourceCode, List<String> functionNames) {
         this(encoder);
         putInt32(BinarySnapshotProvider.MAGIC);
         putInt32(JSNodeDecoder.getChecksum());
         putInt32(sourceCode.length());
         putInt32(sourceCode.hashCode());
+        putInt32(functionNames.size());
+        functionTablePosition = encoder.getPosition();
+        for (String name : functionNames) {
+            Integer previous = functionIndices.put(name, functionIndices.size());
+            assert previous == null : name;
+            putInt32(-1);
+        }
     }
 
     private void putBytecode(JSNodeDecoder.Bytecode value) {
@@ -334,30 +348,29 @@ public class JSNodeEncoder {
     }
 
     private void putExtractedPosition(String name) {
-        if (resolvedPositions.containsKey(name)) {
-            assert false : "already resolved " + name;
-            encoder.putInt32(resolvedPositions.get(name));
-            return;
-        }
-
-        assert !patchPositions.containsKey(name) : name;
-        patchPositions.put(name, encoder.getPosition());
-        encoder.putInt32(-1);
+        Integer index = functionIndices.get(name);
+        assert index != null : "unknown function " + name;
+        putUInt(index);
     }
 
     public void markExtractedPosition(String name) {
         int mark = encoder.getPosition();
-        resolvedPositions.put(name, mark);
-        if (patchPositions.containsKey(name)) {
-            int pos = patchPositions.get(name);
-            ByteBuffer bb = encoder.getBuffer().duplicate().order(ByteOrder.LITTLE_ENDIAN);
-            bb.position(pos);
-            assert bb.getInt() == -1;
-            Recording.logv(" -- %d: %d %s", pos, mark, name);
-            bb.position(pos);
-            bb.putInt(mark);
-        } else {
-            Recording.logv("nothing to patch: %s (%d)", name, mark);
+        int pos = functionTablePosition + functionIndices.get(name) * Integer.BYTES;
+        ByteBuffer bb = encoder.getBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        assert bb.getInt(pos) == -1 : "already resolved " + name;
+        Recording.logv(" -- %d: %d %s", pos, mark, name);
+        bb.putInt(pos, mark);
+    }
+
+    /**
+     * Checks that every function in the table has been encoded, so that no entry is left at -1.
+     */
+    public void verifyFunctionTable() {
+        ByteBuffer bb = encoder.getBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        for (Map.Entry<String, Integer> entry : functionIndices.entrySet()) {
+            if (bb.getInt(functionTablePosition + entry.getValue() * Integer.BYTES) == -1) {
+                throw new IllegalStateException("function not encoded: " + entry.getKey());
+            }
         }
     }
 
@@ -1688,15 +1688,26 @@ public class Recording {
 
     private ByteBuffer saveAsBinary(OutputStream outs) {
         BinaryEncoder sink = new BinaryEncoder();
-        JSNodeEncoder encoder = new JSNodeEncoder(sink, source.getCharacters());
-
-        if (!instBatches.isEmpty()) {
-            for (InstBatch instBatch : instBatches) {
-                encodeMethod(encoder, instBatch.name, instBatch.insts, instBatch.inputs);
-            }
+        List<InstBatch> batches;
+        if (instBatches.isEmpty()) {
+            // nothing was extracted, the whole program is the entry method
+            batches = Collections.singletonList(new InstBatch(insts, ENTRY_METHOD_NAME, Collections.emptyList(), Object.class));
         } else {
-            encodeMethod(encoder, ENTRY_METHOD_NAME, insts, Collections.emptyList());
+            batches = instBatches;
+        }
+        // the entry method must be the first function in the table
+        List<String> functionNames = new ArrayList<>();
+        functionNames.add(ENTRY_METHOD_NAME);
+        for (InstBatch instBatch : batches) {
+            if (!instBatch.name.equals(ENTRY_METHOD_NAME)) {
+                functionNames.add(instBatch.name);
+            }
+        }
+        JSNodeEncoder encoder = new JSNodeEncoder(sink, source.getCharacters(), functionNames);
+        for (InstBatch instBatch : batches) {
+            encodeMethod(encoder, instBatch.name, instBatch.insts, instBatch.inputs);
         }
+        encoder.verifyFunctionTable();
         try {
             outs.write(byteBufferToByteArray(sink.getBuffer()));
         } catch (IOException e) {
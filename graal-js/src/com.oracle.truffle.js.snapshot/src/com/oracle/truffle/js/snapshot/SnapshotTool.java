@@ -40,6 +40,7 @@
  */
 package com.oracle.truffle.js.snapshot;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -54,6 +55,8 @@ import org.graalvm.polyglot.Context;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.nodes.NodeFactory;
 import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.parser.CodeCache;
+import com.oracle.truffle.js.parser.GraalJSParserOptions;
 import com.oracle.truffle.js.parser.JavaScriptTranslator;
 import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
 import com.oracle.truffle.js.runtime.JSContext;
@@ -76,6 +79,8 @@ public class SnapshotTool {
         boolean binary = true;
         String outDir = null;
         String inDir = null;
+        String cacheDir = null;
+        boolean strict = false;
         List<String> srcFiles = new ArrayList<>();
         for (String arg : args) {
             if (arg.startsWith("--")) {
@@ -89,12 +94,32 @@ public class SnapshotTool {
                     outDir = requireDirectory(arg.substring(arg.indexOf('=') + 1));
                 } else if (arg.startsWith("--indir=")) {
                     inDir = requireDirectory(arg.substring(arg.indexOf('=') + 1));
+                } else if (arg.startsWith("--cachedir=")) {
+                    cacheDir = arg.substring(arg.indexOf('=') + 1);
+                } else if (arg.equals("--strict")) {
+                    strict = true;
                 }
             }
         }
 
         SnapshotTool snapshotTool = new SnapshotTool();
-        if (!srcFiles.isEmpty() && outDir != null) {
+        if (!srcFiles.isEmpty() && cacheDir != null) {
+            CodeCache codeCache = CodeCache.getInstance(Paths.get(cacheDir), Long.MAX_VALUE);
+            // entries are keyed on the parser options, which must match those of the consumer
+            try (Context polyglotContext = Context.newBuilder(AbstractJavaScriptLanguage.ID).allowIO(true).option(GraalJSParserOptions.STRICT_NAME, String.valueOf(strict)).build()) {
+                polyglotContext.initialize(AbstractJavaScriptLanguage.ID);
+                polyglotContext.enter();
+                for (String srcFile : srcFiles) {
+                    File sourceFile = inDir == null ? new File(srcFile) : Paths.get(inDir, srcFile).toFile();
+                    if (!sourceFile.isFile()) {
+                        throw new IllegalArgumentException("Not a file: " + sourceFile);
+                    }
+                    snapshotTool.snapshotScriptFileToCache(srcFile, sourceFile, codeCache);
+                }
+                snapshotTool.timeStats.print();
+                polyglotContext.leave();
+            }
+        } else if (!srcFiles.isEmpty() && outDir != null) {
             try (Context polyglotContext = Context.newBuilder(AbstractJavaScriptLanguage.ID).allowIO(true).build()) {
                 polyglotContext.initialize(AbstractJavaScriptLanguage.ID);
                 polyglotContext.enter();
@@ -111,6 +136,7 @@ public class SnapshotTool {
             }
         } else {
             System.out.println("Usage: [--java|--binary] --outdir=DIR [--indir=DIR] --file=FILE [--file=FILE ...]");
+            System.out.println("       --cachedir=DIR [--strict] [--indir=DIR] --file=FILE [--file=FILE ...]");
         }
     }
 
@@ -140,6 +166,25 @@ public class SnapshotTool {
         }
     }
 
+    private void snapshotScriptFileToCache(String fileName, File sourceFile, CodeCache codeCache) throws IOException {
+        JSRealm realm = AbstractJavaScriptLanguage.getCurrentJSRealm();
+        JSContext context = realm.getContext();
+        Recording.logv("recording code cache entry of %s", fileName);
+        Source source = Source.newBuilder(AbstractJavaScriptLanguage.ID, realm.getEnv().getTruffleFile(sourceFile.getPath())).name(fileName).build();
+        // record with the strictness that a script parsed in this context gets
+        boolean isStrict = ((GraalJSParserOptions) context.getParserOptions()).isStrict();
+        try (TimerCloseable timer = timeStats.file(fileName)) {
+            Recording rec = new Recording();
+            ScriptNode program = JavaScriptTranslator.translateScript(RecordingProxy.createRecordingNodeFactory(rec, NodeFactory.getInstance(context)), context, source, isStrict);
+            rec.finish(program.getRootNode());
+            ByteArrayOutputStream outs = new ByteArrayOutputStream();
+            rec.saveToStream(fileName, outs, true);
+            codeCache.put(context, source, outs.toByteArray());
+        } catch (RuntimeException e) {
+            throw new RuntimeException(fileName, e);
+        }
+    }
+
     private interface TimerCloseable extends AutoCloseable {
         @Override
         void close();
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ArraySortTest {
+
+    @Test
+    public void numericComparators() {
+        String code = "var asc = (a, b) => a - b;" +
+                        "var desc = function(a, b) { return b - a; };" +
+                        "var other = (a, b) => (a % 3) - (b % 3);" +
+                        "var out = [];" +
+                        "for (var i = 0; i < 3; i++) {" +
+                        "  out.push([10, 9, 1, 100, -5].sort(asc).join());" +
+                        "  out.push([10, 9, 1, 100, -5].sort(desc).join());" +
+                        "  out.push([1.5, -0.5, 10, 2].sort(i % 2 ? asc : desc).join());" +
+                        "  out.push([5, 4, 3, 2, 1].sort(other).join());" +
+                        "}" +
+                        "out.slice(0, 4).concat(out.slice(6, 7)).join('|');";
+        assertEquals("-5,1,9,10,100|100,10,9,1,-5|10,2,1.5,-0.5|3,4,1,5,2|-0.5,1.5,2,10", evalToString(code));
+    }
+
+    @Test
+    public void defaultOrder() {
+        String code = "[[10, 9, 1, 100, -5].sort().join(), [2.5, 10, -0, 0, 1e21, 3].sort().join()].join('|');";
+        assertEquals("-5,1,10,100,9|0,0,10,1e+21,2.5,3", evalToString(code));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Spread, destructuring and for-of step built-in iterators without creating result objects; the
+ * observable behavior must be the same as with the generic iteration protocol.
+ */
+public class IteratorStepTest {
+
+    @Test
+    public void builtinIterators() {
+        String code = "var a = [1, 2, 3];" +
+                        "var s = new Set(['x', 'y']);" +
+                        "var m = new Map([[1, 'a'], [2, 'b']]);" +
+                        "var out = [];" +
+                        "out.push([...a].join());" +
+                        "out.push([...a.keys()].join());" +
+                        "out.push([...a.entries()].join(';'));" +
+                        "var [p, q] = s;" +
+                        "out.push(p + q);" +
+                        "for (var [k, v] of m) { out.push(k + v); }" +
+                        "out.push([...new Uint8Array([7, 8])].join());" +
+                        "out.push([...m.keys(), ...s.values()].join());" +
+                        "out.join('|');";
+        assertEquals("1,2,3|0,1,2|0,1;1,2;2,3|xy|1a|2b|7,8|1,2,x,y", evalToString(code));
+    }
+
+    @Test
+    public void exhaustedIterator() {
+        String code = "var it = [1][Symbol.iterator]();" +
+                        "[[...it].length, [...it].length, it.next().done].join('|');";
+        assertEquals("1|0|true", evalToString(code));
+    }
+
+    @Test
+    public void patchedNext() {
+        String code = "var proto = Object.getPrototypeOf([][Symbol.iterator]());" +
+                        "var original = proto.next;" +
+                        "var out = [];" +
+                        "out.push([...[1, 2]].join());" +
+                        "proto.next = function() { var r = original.call(this); if (!r.done) { r.value *= 10; } return r; };" +
+                        "out.push([...[1, 2]].join());" +
+                        "var [x] = [3];" +
+                        "out.push(x);" +
+                        "for (var v of [4]) { out.push(v); }" +
+                        "proto.next = original;" +
+                        "out.push([...[1, 2]].join());" +
+                        "out.join('|');";
+        assertEquals("1,2|10,20|30|40|1,2", evalToString(code));
+    }
+
+    @Test
+    public void propertyAccessOrder() {
+        String code = "function createIterable(log) {" +
+                        "  var i = 0;" +
+                        "  return {" +
+                        "    [Symbol.iterator]() { return this; }," +
+                        "    next() {" +
+                        "      var n = i++;" +
+                        "      return { get done() { log.push('done' + n); return n >= 2; }, get value() { log.push('value' + n); return n; } };" +
+                        "    }," +
+                        "    return() { log.push('return'); return {}; }" +
+                        "  };" +
+                        "}" +
+                        "var forOf = [], spread = [], destructuring = [];" +
+                        "for (var v of createIterable(forOf)) { forOf.push('body' + v); }" +
+                        "[...createIterable(spread)];" +
+                        "var [first] = createIterable(destructuring);" +
+                        "[forOf.join(), spread.join(), destructuring.join()].join('|');";
+        assertEquals("done0,value0,body0,done1,value1,body1,done2|done0,value0,done1,value1,done2|done0,value0,return", evalToString(code));
+    }
+
+    @Test
+    public void iteratorClose() {
+        String code = "var log = [];" +
+                        "var throwing = { [Symbol.iterator]() { return this; }, next() { throw new Error('next'); }, return() { log.push('return'); return {}; } };" +
+                        "var endless = { [Symbol.iterator]() { return this; }, next() { return { value: 1, done: false }; }, return() { log.push('return'); return {}; } };" +
+                        "try { for (var v of throwing) { } } catch (e) { log.push(e.message); }" +
+                        "for (var v of endless) { break; }" +
+                        "try { for (var v of endless) { throw new Error('body'); } } catch (e) { log.push(e.message); }" +
+                        "log.join();";
+        assertEquals("next,return,return,body", evalToString(code));
+    }
+
+    @Test
+    public void mutationDuringIteration() {
+        String code = "var seen = [];" +
+                        "var m = new Map([[1, 1]]);" +
+                        "for (var [k] of m) { seen.push(k); if (k < 3) { m.set(k + 1, 0); } }" +
+                        "var s = new Set([1, 2, 3]);" +
+                        "for (var v of s) { seen.push(v); s.delete(2); }" +
+                        "var a = [1];" +
+                        "for (var v of a) { if (a.length < 3) { a.push(v + 1); } seen.push(v); }" +
+                        "seen.join();";
+        assertEquals("1,2,3,1,3,1,2,3", evalToString(code));
+    }
+}
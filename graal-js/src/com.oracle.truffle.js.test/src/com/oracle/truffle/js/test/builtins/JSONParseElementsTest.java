@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * JSON.parseElements must deliver the same values as JSON.parse, from strings as well as from
+ * UTF-8 encoded binary sources.
+ */
+public class JSONParseElementsTest {
+
+    private static final String UTF8 = "function utf8(s) {" +
+                    "  var bin = unescape(encodeURIComponent(s));" +
+                    "  var bytes = new Uint8Array(bin.length);" +
+                    "  for (var i = 0; i < bin.length; i++) { bytes[i] = bin.charCodeAt(i); }" +
+                    "  return bytes;" +
+                    "}";
+
+    private static String evalWithStreaming(String code) {
+        try (Context context = Context.newBuilder("js").option(JSContextOptions.JSON_STREAMING_NAME, "true").build()) {
+            return evalToString(context, UTF8 + code);
+        }
+    }
+
+    @Test
+    public void elements() {
+        String code = "var text = '[1, \"a\\\\n\\\\u0041\", {\"b\": [true, null, {}]}, -2.5e1, 2147483648, -0, []]';" +
+                        "var out = [];" +
+                        "var count = JSON.parseElements(text, function(element, index) { out.push(index + ':' + JSON.stringify(element)); });" +
+                        "out.push(count, JSON.stringify(JSON.parse(text)));" +
+                        "out.push(JSON.parseElements('[-0]', function(e) { out.push(1 / e); }));" +
+                        "out.join('|');";
+        assertEquals("0:1|1:\"a\\nA\"|2:{\"b\":[true,null,{}]}|3:-25|4:2147483648|5:0|6:[]|7|[1,\"a\\nA\",{\"b\":[true,null,{}]},-25,2147483648,0,[]]|-Infinity|1", evalWithStreaming(code));
+    }
+
+    @Test
+    public void binarySources() {
+        String code = "var bytes = utf8('xx[\"\\u00e9\\u20ac\\ud83d\\ude00\", 2]yy');" +
+                        "var out = [];" +
+                        "function collect(element) { out.push(element); }" +
+                        "out.push(JSON.parseElements(bytes.subarray(2, bytes.length - 2), collect));" +
+                        "out.push(JSON.parseElements(utf8(' [ 3 ] ').buffer, collect));" +
+                        "out.push(JSON.parseElements(utf8('[]'), collect));" +
+                        "out.join('|');";
+        assertEquals("\u00e9\u20ac\ud83d\ude00|2|2|3|1|0", evalWithStreaming(code));
+    }
+
+    @Test
+    public void longInput() {
+        // longer than the parser's input window, with multi-byte characters across its boundaries
+        String code = "var elements = [];" +
+                        "for (var i = 0; i < 3000; i++) { elements.push(i % 3 === 0 ? '\\u00e9\\u20ac' + i : i % 3 === 1 ? {k: [i, '\\ud83d\\ude00']} : i * 0.5); }" +
+                        "var text = JSON.stringify(elements);" +
+                        "var fromString = [], fromBytes = [];" +
+                        "JSON.parseElements(text, function(e, i) { fromString[i] = e; });" +
+                        "JSON.parseElements(utf8(text), function(e, i) { fromBytes[i] = e; });" +
+                        "[text.length > 3 * 8192, JSON.stringify(fromString) === text, JSON.stringify(fromBytes) === text].join('|');";
+        assertEquals("true|true|true", evalWithStreaming(code));
+    }
+
+    @Test
+    public void errors() {
+        String code = "function error(source) {" +
+                        "  var seen = [];" +
+                        "  try {" +
+                        "    JSON.parseElements(source, function(e) { seen.push(e); });" +
+                        "    return 'no error';" +
+                        "  } catch (e) {" +
+                        "    return e.name + '(' + seen.join() + ')';" +
+                        "  }" +
+                        "}" +
+                        "var out = [error('{\"a\": 1}'), error('[1, 2,]'), error('[1, 2] 3'), error('[1, 2'), error(utf8('[01]')), error('')];" +
+                        "try { JSON.parseElements('[1, 2, 3]', function(e) { if (e === 2) { throw new Error('stop'); } }); } catch (e) { out.push(e.message); }" +
+                        "try { JSON.parseElements('[1]', 1); } catch (e) { out.push(e.name); }" +
+                        "out.join('|');";
+        assertEquals("SyntaxError()|SyntaxError(1,2)|SyntaxError(1,2)|SyntaxError(1,2)|SyntaxError()|SyntaxError()|stop|TypeError", evalWithStreaming(code));
+    }
+}
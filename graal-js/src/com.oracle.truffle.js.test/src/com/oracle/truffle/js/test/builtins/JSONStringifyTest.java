@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class JSONStringifyTest {
+
+    @Test
+    public void manyShapes() {
+        // more shapes than the shape cache holds, so the cache goes generic
+        String code = "var out = [];" +
+                        "for (var i = 0; i < 40; i++) {" +
+                        "  var o = {a: i};" +
+                        "  o['p' + i] = 'v';" +
+                        "  out.push(JSON.stringify(o));" +
+                        "}" +
+                        "out.push(JSON.stringify({a: 1, p0: 'v'}));" +
+                        "out.slice(0, 2).concat(out.slice(38)).join('|');";
+        assertEquals("{\"a\":0,\"p0\":\"v\"}|{\"a\":1,\"p1\":\"v\"}|{\"a\":38,\"p38\":\"v\"}|{\"a\":39,\"p39\":\"v\"}|{\"a\":1,\"p0\":\"v\"}", evalToString(code));
+    }
+
+    @Test
+    public void accessorsAndShapeChanges() {
+        String code = "var withGetter = {x: 1, get y() { return 2; }};" +
+                        "var changing = {a: {toJSON: function() { delete changing.b; changing.c = 3; return 'A'; }}, b: 'B', d: 'D'};" +
+                        "var quoted = {'\"k\"\\n': 1};" +
+                        "[JSON.stringify(withGetter), JSON.stringify(withGetter), JSON.stringify(changing), JSON.stringify(quoted)].join('|');";
+        assertEquals("{\"x\":1,\"y\":2}|{\"x\":1,\"y\":2}|{\"a\":\"A\",\"d\":\"D\"}|{\"\\\"k\\\"\\n\":1}", evalToString(code));
+    }
+}
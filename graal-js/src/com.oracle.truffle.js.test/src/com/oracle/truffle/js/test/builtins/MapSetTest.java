@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MapSetTest {
+
+    @Test
+    public void mapInsertionOrder() {
+        String code = "var m = new Map();" +
+                        "for (var i = 20; i > 0; i--) { m.set('k' + i, i); }" +
+                        "m.set('k10', 'x');" +
+                        "m.delete('k20');" +
+                        "m.set('k20', 20);" +
+                        "Array.from(m.keys()).join();";
+        assertEquals("k19,k18,k17,k16,k15,k14,k13,k12,k11,k10,k9,k8,k7,k6,k5,k4,k3,k2,k1,k20", evalToString(code));
+    }
+
+    @Test
+    public void numberKeys() {
+        String code = "var m = new Map();" +
+                        "m.set(1, 'int');" +
+                        "m.set(1.5, 'double');" +
+                        "m.set('1', 'string');" +
+                        "m.set(-0, 'zero');" +
+                        "m.set(NaN, 'nan');" +
+                        "m.set(2 ** 31, 'large');" +
+                        "[m.size, m.get(1), m.get(1.0), m.get(1.5), m.get('1'), m.get(0), m.get(+0), m.get(0 / 0)," +
+                        " m.get(2147483648), m.has(2), m.has(2.5), 1 / Array.from(m.keys())[3]].join();";
+        assertEquals("6,int,int,double,string,zero,zero,nan,large,false,false,Infinity", evalToString(code));
+    }
+
+    @Test
+    public void setNumberKeys() {
+        String code = "var s = new Set([3, 1.5, 3, 'a', -0, 0, NaN, NaN]);" +
+                        "s.add(1.5).add(7);" +
+                        "[s.size, s.has(3), s.has(1.5), s.has(0), s.has(NaN), s.has(4), Array.from(s).join(' ')].join();";
+        assertEquals("6,true,true,true,true,false,3 1.5 a 0 NaN 7", evalToString(code));
+    }
+
+    @Test
+    public void mutationDuringIteration() {
+        String code = "var m = new Map();" +
+                        "for (var i = 0; i < 100; i++) { m.set(i, i); }" +
+                        "var seen = [];" +
+                        "m.forEach(function(v, k) {" +
+                        "  seen.push(k);" +
+                        "  if (k === 2) { for (var j = 3; j < 98; j++) { m.delete(j); } }" +
+                        "  if (k === 99) { m.set(100, 100); m.delete(0); m.set(0, 0); }" +
+                        "});" +
+                        "seen.join();";
+        assertEquals("0,1,2,98,99,100,0", evalToString(code));
+    }
+
+    @Test
+    public void iteratorSurvivesGrowthAndClear() {
+        String code = "var s = new Set(['a', 'b']);" +
+                        "var it = s.values();" +
+                        "var seen = [it.next().value];" +
+                        "for (var i = 0; i < 1000; i++) { s.add(i); }" +
+                        "seen.push(it.next().value, it.next().value);" +
+                        "s.clear();" +
+                        "s.add('c');" +
+                        "seen.push(it.next().value);" +
+                        "var last = it.next();" +
+                        "s.add('d');" +
+                        "seen.push(last.done, it.next().done);" +
+                        "seen.join();";
+        assertEquals("a,b,0,c,true,true", evalToString(code));
+    }
+}
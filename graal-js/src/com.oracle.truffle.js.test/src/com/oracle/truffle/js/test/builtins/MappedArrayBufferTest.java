@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+public class MappedArrayBufferTest {
+
+    private static String evalWithMappedBuffers(File file, String code) {
+        try (Context context = Context.newBuilder("js").allowIO(true).option(JSContextOptions.MAPPED_ARRAY_BUFFER_NAME, "true").option(JSContextOptions.JSON_STREAMING_NAME,
+                        "true").build()) {
+            String path = file.getAbsolutePath().replace("\\", "\\\\").replace("'", "\\'");
+            return evalToString(context, "var path = '" + path + "';" + code);
+        }
+    }
+
+    private static File createFile(String contents) throws IOException {
+        File file = File.createTempFile("mapped", ".json");
+        file.deleteOnExit();
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String readFile(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void readOnly() throws IOException {
+        File file = createFile("[1,2,3]");
+        // without writeThrough, the file is only opened for reading
+        file.setReadOnly();
+        String code = "var buf = ArrayBuffer.mapFile(path, 1, 5);" +
+                        "var bytes = new Uint8Array(buf);" +
+                        "bytes[0] = 0x41;" +
+                        "var result = [buf.byteLength, String.fromCharCode.apply(null, bytes)];" +
+                        "ArrayBuffer.unmap(buf);" +
+                        "result.join('|');";
+        assertEquals("5|A,2,3", evalWithMappedBuffers(file, code));
+        assertEquals("[1,2,3]", readFile(file));
+    }
+
+    @Test
+    public void writeThrough() throws IOException {
+        File file = createFile("[1,2,3]");
+        String code = "var buf = ArrayBuffer.mapFile(path, 0, undefined, true);" +
+                        "new DataView(buf).setUint8(3, 0x42);" +
+                        "var result = String.fromCharCode.apply(null, new Uint8Array(buf));" +
+                        "ArrayBuffer.unmap(buf);" +
+                        "result;";
+        assertEquals("[1,B,3]", evalWithMappedBuffers(file, code));
+        assertEquals("[1,B,3]", readFile(file));
+    }
+
+    @Test
+    public void accessAfterUnmap() throws IOException {
+        File file = createFile("[1,2,3]");
+        String code = "var buf = ArrayBuffer.mapFile(path, 0, undefined, true);" +
+                        "var view = new DataView(buf);" +
+                        "ArrayBuffer.unmap(buf);" +
+                        "ArrayBuffer.unmap(buf);" +
+                        "var out = [];" +
+                        "try { view.getUint8(0); } catch (e) { out.push(e instanceof TypeError); }" +
+                        "try { new Uint8Array(buf); } catch (e) { out.push(e instanceof TypeError); }" +
+                        "try { ArrayBuffer.unmap(new ArrayBuffer(1)); } catch (e) { out.push(e instanceof TypeError); }" +
+                        "out.join('|');";
+        assertEquals("true|true|true", evalWithMappedBuffers(file, code));
+    }
+
+    @Test
+    public void unmapDuringParse() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 10000; i++) {
+            json.append(i == 0 ? "" : ",").append(i);
+        }
+        File file = createFile(json.append(']').toString());
+        for (String writeThrough : new String[]{"false", "true"}) {
+            String code = "var buf = ArrayBuffer.mapFile(path, 0, undefined, " + writeThrough + ");" +
+                            "var out = [];" +
+                            "try {" +
+                            "  JSON.parseElements(new Uint8Array(buf), function(element, index) {" +
+                            "    out.push(element);" +
+                            "    if (index === 1) { ArrayBuffer.unmap(buf); }" +
+                            "  });" +
+                            "} catch (e) {" +
+                            "  out.push(e instanceof TypeError);" +
+                            "}" +
+                            "out.join('|');";
+            assertEquals("0|1|true", evalWithMappedBuffers(file, code));
+        }
+    }
+}
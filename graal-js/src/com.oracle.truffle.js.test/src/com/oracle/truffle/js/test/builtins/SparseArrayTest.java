@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SparseArrayTest {
+
+    @Test
+    public void sparseConversion() {
+        String code = "var a = [1, 2, 3];" +
+                        "a[1000000] = 4;" +
+                        "a[500] = 5;" +
+                        "[a.length, a[0], a[2], a[500], a[1000000], Object.keys(a).join()].join(';');";
+        assertEquals("1000001;1;3;5;4;0,1,2,500,1000000", evalToString(code));
+    }
+
+    @Test
+    public void holes() {
+        String code = "var a = [];" +
+                        "a[4294967294] = 'last';" +
+                        "a[10] = 'ten';" +
+                        "a[100] = 'hundred';" +
+                        "delete a[10];" +
+                        "var seen = [];" +
+                        "a.forEach(function(v, i) { seen.push(i + '=' + v); });" +
+                        "[a.length, 10 in a, 11 in a, a.indexOf('hundred'), a.lastIndexOf('last'), seen.join()].join(';');";
+        assertEquals("4294967295;false;false;100;4294967294;100=hundred,4294967294=last", evalToString(code));
+    }
+
+    @Test
+    public void truncateLength() {
+        String code = "var a = [];" +
+                        "for (var i = 0; i < 10; i++) { a[i * 100000] = i; }" +
+                        "a.length = 250001;" +
+                        "[a.length, Object.keys(a).join(), a[200000], a[300000]].join(';');";
+        assertEquals("250001;0,100000,200000;2;", evalToString(code));
+    }
+
+    @Test
+    public void mixedIntDoubleReads() {
+        String code = "var a = [];" +
+                        "a[1000000] = 1;" +
+                        "a[1000001] = 2.5;" +
+                        "a[1000002] = 3;" +
+                        "a[1000003] = -0;" +
+                        "[a[1000000], a[1000001], a[1000002], 1 / a[1000003], a[1000000] + a[1000002]].join(';');";
+        assertEquals("1;2.5;3;-Infinity;4", evalToString(code));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.builtins;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * TypedArray fill, copyWithin, reverse and set operate on the raw bytes of the backing buffer, so
+ * they are checked with heap as well as direct buffers.
+ */
+public class TypedArrayBulkTest {
+
+    private static void assertHeapAndDirect(String expected, String code) {
+        for (String direct : new String[]{"false", "true"}) {
+            try (Context context = Context.newBuilder("js").option(JSContextOptions.DIRECT_BYTE_BUFFER_NAME, direct).build()) {
+                assertEquals("direct=" + direct, expected, evalToString(context, code));
+            }
+        }
+    }
+
+    @Test
+    public void fill() {
+        String code = "var types = [Int8Array, Uint8Array, Uint8ClampedArray, Int16Array, Uint16Array, Int32Array, Uint32Array, Float32Array, Float64Array];" +
+                        "var out = [];" +
+                        "types.forEach(function(T) {" +
+                        "  var a = new T(9);" +
+                        "  a.fill(300.7);" +
+                        "  a.fill(-1.5, 2, -4);" +
+                        "  a.fill(0.1, -2);" +
+                        "  out.push(T.name + ':' + Array.prototype.join.call(a));" +
+                        "});" +
+                        "var c = new Uint8ClampedArray(4).fill(2.5, 0, 2).fill(3.5, 2);" +
+                        "var b = new BigInt64Array(5).fill(-3n, 1, 4);" +
+                        "var u = new BigUint64Array(3).fill(-1n);" +
+                        "out.push(c.join(), b.join(), u.join());" +
+                        "out.join('|');";
+        assertHeapAndDirect("Int8Array:44,44,-1,-1,-1,44,44,0,0|Uint8Array:44,44,255,255,255,44,44,0,0|Uint8ClampedArray:255,255,0,0,0,255,255,0,0|Int16Array:300,300,-1,-1,-1,300,300,0,0|Uint16Array:300,300,65535,65535,65535,300,300,0,0|Int32Array:300,300,-1,-1,-1,300,300,0,0|Uint32Array:300,300,4294967295,4294967295,4294967295,300,300,0,0|Float32Array:300.70001220703125,300.70001220703125,-1.5,-1.5,-1.5,300.70001220703125,300.70001220703125,0.10000000149011612,0.10000000149011612|Float64Array:300.7,300.7,-1.5,-1.5,-1.5,300.7,300.7,0.1,0.1|2,2,4,4|0,-3,-3,-3,0|18446744073709551615,18446744073709551615,18446744073709551615", code);
+    }
+
+    @Test
+    public void fillConversionOrder() {
+        String code = "var a = new Int16Array(6);" +
+                        "var log = [];" +
+                        "var value = {valueOf: function() { log.push('value'); return 70000; }};" +
+                        "var start = {valueOf: function() { log.push('start'); return 1; }};" +
+                        "var end = {valueOf: function() { log.push('end'); return 5; }};" +
+                        "a.fill(value, start, end);" +
+                        "var empty = new Float64Array(3).fill(1, 2, 1);" +
+                        "log.join() + '|' + a.join() + '|' + empty.join();";
+        assertHeapAndDirect("value,start,end|0,4464,4464,4464,4464,0|0,0,0", code);
+    }
+
+    @Test
+    public void copyWithin() {
+        String code = "var out = [];" +
+                        "[Uint8Array, Int16Array, Float32Array, Float64Array, BigInt64Array].forEach(function(T) {" +
+                        "  var big = T === BigInt64Array;" +
+                        "  function make() { var a = new T(10); for (var i = 0; i < 10; i++) { a[i] = big ? BigInt(i) : i; } return a; }" +
+                        "  out.push(T.name + ':' + make().copyWithin(2, 0, 6).join());" +
+                        "  out.push(make().copyWithin(0, 3).join());" +
+                        "  out.push(make().copyWithin(-3, -5, -1).join());" +
+                        "  out.push(make().copyWithin(5, 5).join());" +
+                        "  out.push(make().subarray(2, 8).copyWithin(1, 0, 4).join());" +
+                        "});" +
+                        "out.join('|');";
+        assertHeapAndDirect("Uint8Array:0,1,0,1,2,3,4,5,8,9|3,4,5,6,7,8,9,7,8,9|0,1,2,3,4,5,6,5,6,7|0,1,2,3,4,5,6,7,8,9|2,2,3,4,5,7|Int16Array:0,1,0,1,2,3,4,5,8,9|3,4,5,6,7,8,9,7,8,9|0,1,2,3,4,5,6,5,6,7|0,1,2,3,4,5,6,7,8,9|2,2,3,4,5,7|Float32Array:0,1,0,1,2,3,4,5,8,9|3,4,5,6,7,8,9,7,8,9|0,1,2,3,4,5,6,5,6,7|0,1,2,3,4,5,6,7,8,9|2,2,3,4,5,7|Float64Array:0,1,0,1,2,3,4,5,8,9|3,4,5,6,7,8,9,7,8,9|0,1,2,3,4,5,6,5,6,7|0,1,2,3,4,5,6,7,8,9|2,2,3,4,5,7|BigInt64Array:0,1,0,1,2,3,4,5,8,9|3,4,5,6,7,8,9,7,8,9|0,1,2,3,4,5,6,5,6,7|0,1,2,3,4,5,6,7,8,9|2,2,3,4,5,7", code);
+    }
+
+    @Test
+    public void reverse() {
+        String code = "var out = [];" +
+                        "[Int8Array, Uint16Array, Int32Array, Float32Array, Float64Array, BigUint64Array].forEach(function(T) {" +
+                        "  var big = T === BigUint64Array;" +
+                        "  [0, 1, 2, 5, 6].forEach(function(n) {" +
+                        "    var a = new T(n);" +
+                        "    for (var i = 0; i < n; i++) { a[i] = big ? BigInt(i + 1) : -(i + 1) / 2; }" +
+                        "    out.push(a.reverse().join());" +
+                        "  });" +
+                        "  var whole = new T(8);" +
+                        "  for (var i = 0; i < 8; i++) { whole[i] = big ? BigInt(i) : i; }" +
+                        "  whole.subarray(1, 6).reverse();" +
+                        "  out.push(T.name + ':' + whole.join());" +
+                        "});" +
+                        "out.join('|');";
+        assertHeapAndDirect("|0|-1,0|-2,-2,-1,-1,0|-3,-2,-2,-1,-1,0|Int8Array:0,5,4,3,2,1,6,7||0|65535,0|65534,65534,65535,65535,0|65533,65534,65534,65535,65535,0|Uint16Array:0,5,4,3,2,1,6,7||0|-1,0|-2,-2,-1,-1,0|-3,-2,-2,-1,-1,0|Int32Array:0,5,4,3,2,1,6,7||-0.5|-1,-0.5|-2.5,-2,-1.5,-1,-0.5|-3,-2.5,-2,-1.5,-1,-0.5|Float32Array:0,5,4,3,2,1,6,7||-0.5|-1,-0.5|-2.5,-2,-1.5,-1,-0.5|-3,-2.5,-2,-1.5,-1,-0.5|Float64Array:0,5,4,3,2,1,6,7||1|2,1|5,4,3,2,1|6,5,4,3,2,1|BigUint64Array:0,5,4,3,2,1,6,7", code);
+    }
+
+    @Test
+    public void setConversions() {
+        String code = "var out = [];" +
+                        "var ints = new Int32Array([-1, 0, 2147483647, -2147483648, 255, 256]);" +
+                        "var uints = new Uint32Array([4294967295, 0, 2147483648, 1]);" +
+                        "var floats = new Float64Array([NaN, Infinity, -Infinity, -1.5, 2.5, 255.5, 4294967301.9, -0]);" +
+                        "[Int8Array, Uint8Array, Uint8ClampedArray, Int16Array, Uint16Array, Uint32Array, Float32Array].forEach(function(T) {" +
+                        "  var a = new T(floats.length);" +
+                        "  a.set(floats);" +
+                        "  var b = new T(ints.length + 1);" +
+                        "  b.set(ints, 1);" +
+                        "  out.push(T.name + ':' + a.join() + '/' + b.join());" +
+                        "});" +
+                        "var d = new Float64Array(uints.length);" +
+                        "d.set(uints);" +
+                        "var f = new Float32Array(2);" +
+                        "f.set(new Int32Array([16777217, -16777217]));" +
+                        "var i32 = new Int32Array(floats.length);" +
+                        "i32.set(floats);" +
+                        "out.push(d.join(), f.join(), i32.join());" +
+                        "out.join('|');";
+        assertHeapAndDirect("Int8Array:0,0,0,-1,2,-1,5,0/0,-1,0,-1,0,-1,0|Uint8Array:0,0,0,255,2,255,5,0/0,255,0,255,0,255,0|Uint8ClampedArray:0,255,0,0,2,255,255,0/0,0,0,255,0,255,255|Int16Array:0,0,0,-1,2,255,5,0/0,-1,0,-1,0,255,256|Uint16Array:0,0,0,65535,2,255,5,0/0,65535,0,65535,0,255,256|Uint32Array:0,0,0,4294967295,2,255,5,0/0,4294967295,0,2147483647,2147483648,255,256|Float32Array:NaN,Infinity,-Infinity,-1.5,2.5,255.5,4294967296,0/0,-1,0,2147483648,-2147483648,255,256|4294967295,0,2147483648,1|16777216,-16777216|0,0,0,-1,2,255,5,0", code);
+    }
+
+    @Test
+    public void setOverlapping() {
+        String code = "var out = [];" +
+                        "var buffer = new ArrayBuffer(16);" +
+                        "var bytes = new Uint8Array(buffer);" +
+                        "for (var i = 0; i < 16; i++) { bytes[i] = i + 1; }" +
+                        "bytes.set(bytes.subarray(0, 8), 4);" +
+                        "out.push(bytes.join());" +
+                        "bytes.set(bytes.subarray(6, 14), 2);" +
+                        "out.push(bytes.join());" +
+                        "var words = new Uint16Array(buffer, 0, 4);" +
+                        "for (var i = 0; i < 16; i++) { bytes[i] = i; }" +
+                        "words.set(new Uint8Array(buffer, 3, 4));" +
+                        "out.push(Array.prototype.join.call(words));" +
+                        "for (var i = 0; i < 16; i++) { bytes[i] = i; }" +
+                        "new Uint8Array(buffer, 1, 8).set(new Uint16Array(buffer, 0, 8));" +
+                        "out.push(bytes.join());" +
+                        "var f64 = new Float64Array(buffer);" +
+                        "f64[0] = 1.5; f64[1] = -2.25;" +
+                        "new Float32Array(buffer, 4, 2).set(f64);" +
+                        "out.push(new Float32Array(buffer, 4, 2).join());" +
+                        "out.join('|');";
+        assertHeapAndDirect("1,2,3,4,1,2,3,4,5,6,7,8,13,14,15,16|1,2,3,4,5,6,7,8,13,14,7,8,13,14,15,16|3,4,5,6|0,0,2,4,6,8,10,12,14,9,10,11,12,13,14,15|1.5,-2.25", code);
+    }
+
+    @Test
+    public void setBigInt() {
+        String code = "var out = [];" +
+                        "var signed = new BigInt64Array([-1n, 9223372036854775807n]);" +
+                        "var unsigned = new BigUint64Array(2);" +
+                        "unsigned.set(signed);" +
+                        "out.push(unsigned.join());" +
+                        "signed.set(new BigUint64Array([18446744073709551615n]), 1);" +
+                        "out.push(signed.join());" +
+                        "try { new Float64Array(2).set(signed); } catch (e) { out.push(e instanceof TypeError); }" +
+                        "try { signed.set(new Int32Array(1)); } catch (e) { out.push(e instanceof TypeError); }" +
+                        "out.join('|');";
+        assertHeapAndDirect("18446744073709551615,9223372036854775807|-1,-1|true|true", code);
+    }
+}
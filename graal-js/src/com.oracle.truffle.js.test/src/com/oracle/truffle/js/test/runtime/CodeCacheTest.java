@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.truffle.js.parser.CodeCache;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+public class CodeCacheTest {
+
+    private static final String CODE = "function outer(n) {\n" +
+                    "  function inner(x) { return x * 2 + n; }\n" +
+                    "  var lazy = function() { return 'never called'; };\n" +
+                    "  return [inner(n), typeof lazy].join();\n" +
+                    "}\n" +
+                    "var obj = { m() { return 'method'; }, get g() { return 'getter'; } };\n" +
+                    "class C { constructor(v) { this.v = v; } twice() { return this.v * 2; } }\n" +
+                    "[outer(3), outer(4), obj.m(), obj.g, new C(21).twice(), (a => a + 1)(1)].join('|');\n";
+    private static final String EXPECTED = "9,function|12,function|method|getter|42|2";
+
+    /** Size of the entry header (magic, length, CRC32) that precedes the snapshot. */
+    private static final int ENTRY_HEADER_SIZE = 3 * Integer.BYTES;
+    /** Offset of the function count in the snapshot, after magic, checksum and source check. */
+    private static final int FUNCTION_COUNT_OFFSET = 4 * Integer.BYTES;
+
+    private static String run(Path dir) {
+        try (Context context = Context.newBuilder("js").option(JSContextOptions.CODE_CACHE_DIR_NAME, dir.toString()).build()) {
+            return context.eval(Source.create("js", CODE)).asString();
+        }
+    }
+
+    private static CodeCache getCache(Path dir) {
+        return CodeCache.getInstance(dir, JSContextOptions.CODE_CACHE_MAX_SIZE.getDefaultValue());
+    }
+
+    /**
+     * Runs the script once to populate the cache and returns the file of the new entry.
+     */
+    private static Path populate(Path dir) throws IOException {
+        assertEquals(EXPECTED, run(dir));
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(dir)) {
+            entries = files.filter(f -> f.getFileName().toString().endsWith(CodeCache.FILE_SUFFIX)).collect(Collectors.toList());
+        }
+        // entries are only written if the snapshot recorder is on the class path
+        Assume.assumeTrue(entries.size() == 1);
+        return entries.get(0);
+    }
+
+    /**
+     * Replaces the entry with a new file, so that a mapping of the old contents stays intact.
+     */
+    private static void replace(Path entry, byte[] contents) throws IOException {
+        Path temp = Files.createTempFile(entry.getParent(), "replaced", ".tmp");
+        Files.write(temp, contents);
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void conflictingMaxSize() throws IOException {
+        Path dir = Files.createTempDirectory("code-cache");
+        try {
+            CodeCache cache = CodeCache.getInstance(dir, 1024);
+            assertSame(cache, CodeCache.getInstance(dir.resolve(".").resolve("..").resolve(dir.getFileName()), 1024));
+            try {
+                CodeCache.getInstance(dir, 2048);
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void snapshotRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("code-cache");
+        try {
+            populate(dir);
+            CodeCache cache = getCache(dir);
+            assertEquals(1, cache.getStores());
+            assertEquals(0, cache.getHits());
+            // nested functions, methods and accessors are decoded from the function table
+            assertEquals(EXPECTED, run(dir));
+            assertEquals(EXPECTED, run(dir));
+            assertEquals(2, cache.getHits());
+            assertEquals(0, cache.getInvalidEntries());
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void corruptOrTruncatedEntry() throws IOException {
+        Path dir = Files.createTempDirectory("code-cache");
+        try {
+            Path entry = populate(dir);
+            byte[] original = Files.readAllBytes(entry);
+            byte[] flipped = original.clone();
+            flipped[original.length / 2] ^= 0x5a;
+            List<byte[]> damaged = new ArrayList<>();
+            damaged.add(flipped);
+            damaged.add(Arrays.copyOf(original, original.length / 2));
+            damaged.add(Arrays.copyOf(original, ENTRY_HEADER_SIZE - 1));
+            damaged.add(new byte[0]);
+            CodeCache cache = getCache(dir);
+            for (int i = 0; i < damaged.size(); i++) {
+                replace(entry, damaged.get(i));
+                assertEquals(EXPECTED, run(dir));
+                assertEquals(i + 1, cache.getInvalidEntries());
+                // the damaged entry has been replaced by a new one
+                assertEquals(EXPECTED, run(dir));
+                assertEquals(i + 1, cache.getHits());
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    @Test
+    public void corruptFunctionTable() throws IOException {
+        Path dir = Files.createTempDirectory("code-cache");
+        try {
+            Path entry = populate(dir);
+            byte[] original = Files.readAllBytes(entry);
+            int functionCount = ByteBuffer.wrap(original).order(ByteOrder.LITTLE_ENDIAN).getInt(ENTRY_HEADER_SIZE + FUNCTION_COUNT_OFFSET);
+            assertTrue(functionCount > 1);
+            int tableOffset = FUNCTION_COUNT_OFFSET + Integer.BYTES;
+            // offsets into the table itself, past the end, and the placeholder of the encoder
+            int[] badOffsets = {0, tableOffset, original.length, Integer.MAX_VALUE, -1};
+            CodeCache cache = getCache(dir);
+            for (int i = 0; i < badOffsets.length; i++) {
+                // the entry checksum is correct, only the table of a nested function is wrong
+                ByteBuffer snapshot = ByteBuffer.wrap(original.clone()).order(ByteOrder.LITTLE_ENDIAN);
+                snapshot.putInt(ENTRY_HEADER_SIZE + tableOffset + (functionCount - 1) * Integer.BYTES, badOffsets[i]);
+                CRC32 crc = new CRC32();
+                crc.update(snapshot.array(), ENTRY_HEADER_SIZE, original.length - ENTRY_HEADER_SIZE);
+                snapshot.putInt(2 * Integer.BYTES, (int) crc.getValue());
+                replace(entry, snapshot.array());
+                assertEquals(EXPECTED, run(dir));
+                assertEquals(i + 1, cache.getInvalidEntries());
+            }
+            assertEquals(0, cache.getHits());
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.util.EvalCache;
+
+/**
+ * Repeats eval and {@code Function} constructor calls on the same source text in different scopes
+ * and modes, with the default eval cache, a cache that evicts on every miss, and no cache.
+ */
+public class EvalCacheTest {
+
+    private static void assertAllCacheSizes(String expected, String code) {
+        for (String size : new String[]{"128", "1", "0"}) {
+            try (Context context = Context.newBuilder("js").option(JSContextOptions.EVAL_CACHE_SIZE_NAME, size).build()) {
+                assertEquals("eval-cache-size=" + size, expected, evalToString(context, code));
+            }
+        }
+    }
+
+    @Test
+    public void keys() {
+        EvalCache cache = new EvalCache(8);
+        Object scope1 = new Object();
+        Object scope2 = new Object();
+        Object parsed = new Object();
+        cache.put("x", null, "eval", scope1, 0, parsed);
+        assertSame(parsed, cache.get(new String("x"), null, "eval", scope1, 0));
+        assertNull(cache.get("x", null, "eval", scope2, 0));
+        assertNull(cache.get("x", null, "eval", scope1, EvalCache.STRICT));
+        assertNull(cache.get("x", null, "other", scope1, 0));
+        assertNull(cache.get("x", "", "eval", scope1, 0));
+
+        cache.put("x", "a", "anonymous", null, EvalCache.FUNCTION, parsed);
+        assertSame(parsed, cache.get("x", "a", "anonymous", null, EvalCache.FUNCTION));
+        assertNull(cache.get("x", "b", "anonymous", null, EvalCache.FUNCTION));
+        assertNull(cache.get("x", "a", "anonymous", null, EvalCache.FUNCTION | EvalCache.GENERATOR));
+        assertNull(cache.get("x", "a", "anonymous", null, EvalCache.FUNCTION | EvalCache.ASYNC));
+    }
+
+    @Test
+    public void leastRecentlyUsedEviction() {
+        EvalCache cache = new EvalCache(2);
+        Object a = new Object();
+        Object b = new Object();
+        Object c = new Object();
+        cache.put("a", null, "eval", null, 0, a);
+        cache.put("b", null, "eval", null, 0, b);
+        assertSame(a, cache.get("a", null, "eval", null, 0));
+        cache.put("c", null, "eval", null, 0, c);
+        assertSame(a, cache.get("a", null, "eval", null, 0));
+        assertNull(cache.get("b", null, "eval", null, 0));
+        assertSame(c, cache.get("c", null, "eval", null, 0));
+    }
+
+    @Test
+    public void cacheableLength() {
+        StringBuilder code = new StringBuilder();
+        while (code.length() < 64 * 1024) {
+            code.append("x;");
+        }
+        assertTrue(EvalCache.isCacheable(code, null));
+        assertFalse(EvalCache.isCacheable(code, "a"));
+        assertFalse(EvalCache.isCacheable(code.append(';'), null));
+    }
+
+    @Test
+    public void sameCodeDifferentScopes() {
+        String code = "var a = 'global';" +
+                        "function f(a) { return eval('a + 1'); }" +
+                        "function g(a) { var b = 10; return eval('a + 1'); }" +
+                        "function h() { var a = 'local'; return eval('a') + '/' + (0, eval)('a'); }" +
+                        "var out = [];" +
+                        "for (var i = 0; i < 2; i++) { out.push(f(i), g(i + 5), h(), eval('a + 1'), (0, eval)('a + 1')); }" +
+                        "out.join();";
+        assertAllCacheSizes("1,6,local/global,global1,global1,2,7,local/global,global1,global1", code);
+    }
+
+    @Test
+    public void strictness() {
+        String code = "function sloppy() { eval('var v = 1'); return typeof v; }" +
+                        "function strict() { 'use strict'; eval('var v = 1'); return typeof v; }" +
+                        "[sloppy(), strict(), sloppy(), strict(), (0, eval)('var v = 1; typeof v'), typeof v].join();";
+        assertAllCacheSizes("number,undefined,number,undefined,number,number", code);
+    }
+
+    @Test
+    public void freshFramePerEvaluation() {
+        String code = "function k() { eval('var w = (typeof w === \"undefined\") ? 1 : w + 1'); return w; }" +
+                        "function m() { for (var i = 0; i < 3; i++) { eval('var c = (c || 0) + 1'); } return c; }" +
+                        "function mk(v) { return eval('(function() { return v; })'); }" +
+                        "var f1 = mk(1), f2 = mk(2);" +
+                        "[k(), k(), m(), m(), f1(), f2(), f1 === f2].join();";
+        assertAllCacheSizes("1,1,3,3,1,2,false", code);
+    }
+
+    @Test
+    public void functionConstructor() {
+        String code = "var a = 3;" +
+                        "var GeneratorFunction = Object.getPrototypeOf(function*() {}).constructor;" +
+                        "var AsyncFunction = Object.getPrototypeOf(async function() {}).constructor;" +
+                        "var f1 = Function('b', 'return a * b');" +
+                        "var f2 = Function('a, b', 'return a * b');" +
+                        "var f3 = Function('b', 'return a * b');" +
+                        "var out = [f1(2), f2(4, 5), f3(2), f1 === f3];" +
+                        "for (var i = 0; i < 2; i++) {" +
+                        "  out.push(typeof Function('return 1')(), GeneratorFunction('return 1')().next().value, AsyncFunction('return 1')() instanceof Promise);" +
+                        "}" +
+                        "out.join();";
+        assertAllCacheSizes("6,20,6,false,number,1,true,number,1,true", code);
+    }
+
+    @Test
+    public void syntaxErrorsAreNotCached() {
+        String code = "var out = [];" +
+                        "for (var i = 0; i < 3; i++) {" +
+                        "  try { eval('1 +'); } catch (e) { out.push(e.name); }" +
+                        "  try { Function('a', 'return a +'); } catch (e) { out.push(e.name); }" +
+                        "  try { Function('a b', 'return a'); } catch (e) { out.push(e.name); }" +
+                        "}" +
+                        "out.join();";
+        assertAllCacheSizes("SyntaxError,SyntaxError,SyntaxError,SyntaxError,SyntaxError,SyntaxError,SyntaxError,SyntaxError,SyntaxError", code);
+    }
+}
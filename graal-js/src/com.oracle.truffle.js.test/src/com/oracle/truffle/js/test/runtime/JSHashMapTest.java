@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.util.JSHashMap;
+
+public class JSHashMapTest {
+
+    private static List<Object> keys(JSHashMap.Cursor cursor) {
+        List<Object> keys = new ArrayList<>();
+        while (cursor.advance()) {
+            keys.add(cursor.getKey());
+        }
+        return keys;
+    }
+
+    private static List<Object> keys(JSHashMap map) {
+        return keys(map.getEntries());
+    }
+
+    @Test
+    public void insertionOrder() {
+        JSHashMap map = new JSHashMap();
+        List<Object> expected = new ArrayList<>();
+        for (int i = 100; i > 0; i--) {
+            map.put("k" + i, i);
+            expected.add("k" + i);
+        }
+        assertEquals(100, map.size());
+        assertEquals(expected, keys(map));
+
+        // updating a value keeps the position of the entry
+        map.put("k50", "updated");
+        assertEquals(expected, keys(map));
+        assertEquals("updated", map.get("k50"));
+
+        // a removed and re-added key moves to the end
+        assertTrue(map.remove("k100"));
+        assertFalse(map.remove("k100"));
+        map.put("k100", 100);
+        expected.remove("k100");
+        expected.add("k100");
+        assertEquals(expected, keys(map));
+    }
+
+    @Test
+    public void primitiveKeys() {
+        JSHashMap map = new JSHashMap();
+        map.put(1, "int");
+        map.put(1.5, "double");
+        map.put("1", "string");
+        assertEquals(3, map.size());
+        assertEquals("int", map.get(1));
+        assertEquals("int", map.get((Object) 1));
+        assertEquals("double", map.get(1.5));
+        assertEquals("double", map.get((Object) 1.5));
+        assertEquals("string", map.get("1"));
+        assertTrue(map.has(1));
+        assertFalse(map.has(2));
+        assertFalse(map.has(2.5));
+
+        map.put(1, "int2");
+        assertEquals(3, map.size());
+        assertEquals("int2", map.get((Object) 1));
+        assertTrue(map.remove((Object) 1.5));
+        assertNull(map.get(1.5));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void cursorSurvivesRehash() {
+        JSHashMap map = new JSHashMap();
+        map.put(0, (Object) 0);
+        map.put(1, (Object) 1);
+        JSHashMap.Cursor cursor = map.getEntries();
+        assertTrue(cursor.advance());
+        assertEquals(0, cursor.getKey());
+        // grow the table several times while the cursor is live
+        for (int i = 2; i < 1000; i++) {
+            map.put(i, (Object) i);
+        }
+        for (int i = 1; i < 1000; i++) {
+            assertTrue(cursor.advance());
+            assertEquals(i, cursor.getKey());
+        }
+        assertFalse(cursor.advance());
+        // exhausted cursors stay exhausted
+        map.put(1000, (Object) 1000);
+        assertFalse(cursor.advance());
+    }
+
+    @Test
+    public void cursorSurvivesRemovalAndShrink() {
+        JSHashMap map = new JSHashMap();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, (Object) i);
+        }
+        JSHashMap.Cursor cursor = map.getEntries();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(cursor.advance());
+        }
+        JSHashMap.Cursor copy = cursor.copy();
+        // remove everything except multiples of 100, which shrinks the table
+        for (int i = 0; i < 1000; i++) {
+            if (i % 100 != 0) {
+                map.remove((Object) i);
+            }
+        }
+        assertEquals(10, map.size());
+        List<Object> expected = new ArrayList<>();
+        for (int i = 100; i < 1000; i += 100) {
+            expected.add(i);
+        }
+        assertEquals(expected, keys(cursor));
+        assertEquals(expected, keys(copy));
+    }
+
+    @Test
+    public void cursorSurvivesClear() {
+        JSHashMap map = new JSHashMap();
+        map.put("a", 1);
+        map.put("b", 2);
+        JSHashMap.Cursor cursor = map.getEntries();
+        assertTrue(cursor.advance());
+        assertEquals("a", cursor.getKey());
+        map.clear();
+        assertEquals(0, map.size());
+        map.put("c", 3);
+        assertTrue(cursor.advance());
+        assertEquals("c", cursor.getKey());
+        assertEquals(3, cursor.getValue());
+        assertFalse(cursor.advance());
+    }
+}
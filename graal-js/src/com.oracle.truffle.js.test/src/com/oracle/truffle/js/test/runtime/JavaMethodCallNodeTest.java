@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.JavaScriptRootNode;
+import com.oracle.truffle.js.runtime.interop.JavaClass;
+import com.oracle.truffle.js.runtime.interop.JavaMember;
+import com.oracle.truffle.js.runtime.interop.JavaMethod;
+import com.oracle.truffle.js.runtime.interop.JavaMethod.JavaMethodSetter;
+
+/**
+ * Calls overloaded Java methods with more argument classes than the Java call cache holds.
+ */
+public class JavaMethodCallNodeTest {
+
+    private static final List<Object> ARGUMENTS = Arrays.asList("s", 1, 1.5, true, new ArrayList<>(), new HashMap<>());
+    private static final List<String> EXPECTED = Arrays.asList("String", "Number", "Number", "Boolean", "List", "Map");
+
+    public static class Bean {
+        private String value;
+
+        public String take(String arg) {
+            return "String";
+        }
+
+        public String take(Number arg) {
+            return "Number";
+        }
+
+        public String take(Boolean arg) {
+            return "Boolean";
+        }
+
+        public String take(List<?> arg) {
+            return "List";
+        }
+
+        public String take(Map<?, ?> arg) {
+            return "Map";
+        }
+
+        public void setValue(String arg) {
+            value = "String";
+        }
+
+        public void setValue(Number arg) {
+            value = "Number";
+        }
+
+        public void setValue(Boolean arg) {
+            value = "Boolean";
+        }
+
+        public void setValue(List<?> arg) {
+            value = "List";
+        }
+
+        public void setValue(Map<?, ?> arg) {
+            value = "Map";
+        }
+    }
+
+    @Test
+    public void megamorphicMethodCall() {
+        assert ARGUMENTS.size() > JSTruffleOptions.JavaCallCacheLimit;
+        try (Context context = Context.create("js")) {
+            context.initialize("js");
+            context.enter();
+            try {
+                Bean bean = new Bean();
+                CallTarget callTarget = createCallTarget(getMethod("take"));
+                for (int round = 0; round < 2; round++) {
+                    for (int i = 0; i < ARGUMENTS.size(); i++) {
+                        assertEquals(EXPECTED.get(i), callTarget.call(bean, ARGUMENTS.get(i)));
+                    }
+                }
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    @Test
+    public void megamorphicBeanSetter() {
+        try (Context context = Context.create("js")) {
+            context.initialize("js");
+            context.enter();
+            try {
+                Bean bean = new Bean();
+                // the node a bean property assignment uses for its setter
+                CallTarget callTarget = createCallTarget(new JavaMethodSetter(getMethod("setValue"), "value"));
+                for (int round = 0; round < 2; round++) {
+                    for (int i = 0; i < ARGUMENTS.size(); i++) {
+                        callTarget.call(bean, ARGUMENTS.get(i));
+                        assertEquals(EXPECTED.get(i), bean.value);
+                    }
+                }
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JavaMethod getMethod(String name) {
+        JavaMember member = JavaClass.forClass(Bean.class).getMember(name, false, new Class[]{JavaMethod.class}, true);
+        return (JavaMethod) member;
+    }
+
+    /**
+     * Creates a call target that calls {@code method} on its first argument with its second
+     * argument, through a {@link JSFunctionCallNode.JavaMethodCallNode} child like the one of a
+     * Java bean property access.
+     */
+    private static CallTarget createCallTarget(JavaMethod method) {
+        JSContext jsContext = AbstractJavaScriptLanguage.getCurrentJSRealm().getContext();
+        JavaScriptRootNode root = new JavaScriptRootNode(jsContext.getLanguage(), null, null) {
+            @Child private JSFunctionCallNode.JavaMethodCallNode call = JSFunctionCallNode.JavaMethodCallNode.create(method);
+
+            @Override
+            public Object execute(VirtualFrame frame) {
+                Object[] arguments = frame.getArguments();
+                return call.executeCall(JSArguments.createOneArg(arguments[0], null, arguments[1]));
+            }
+        };
+        return Truffle.getRuntime().createCallTarget(root);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.function.Consumer;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.JavaScriptRootNode;
+import com.oracle.truffle.js.runtime.builtins.JSFunction;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Calls more functions than the function cache holds from one call site and checks which targets
+ * get a direct call from the megamorphic call site.
+ */
+public class MegamorphicCallTest {
+
+    private static final int THRESHOLD = JSTruffleOptions.MegamorphicDirectCallThreshold;
+    private static final int BUDGET = JSTruffleOptions.MegamorphicCallProfileBudget;
+    private static final int LIMIT = JSTruffleOptions.MegamorphicDirectCallLimit;
+
+    private JSRealm realm;
+    private RootNode root;
+    private CallTarget callTarget;
+
+    private void run(boolean isNew, Consumer<DynamicObject[]> test) {
+        try (Context context = Context.create("js")) {
+            context.initialize("js");
+            context.enter();
+            try {
+                // distinct function data for every function, each returning its index
+                context.eval("js", "var fs = [];" +
+                                "for (var i = 0; i < 100; i++) { fs.push(new Function('this.v = ' + i + '; return ' + i)); }");
+                realm = AbstractJavaScriptLanguage.getCurrentJSRealm();
+                DynamicObject array = (DynamicObject) JSObject.get(realm.getGlobalObject(), "fs");
+                DynamicObject[] functions = new DynamicObject[100];
+                for (int i = 0; i < functions.length; i++) {
+                    functions[i] = (DynamicObject) JSObject.get(array, i);
+                }
+                createCallTarget(realm.getContext(), isNew);
+                test.accept(functions);
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    private void createCallTarget(JSContext jsContext, boolean isNew) {
+        root = new JavaScriptRootNode(jsContext.getLanguage(), null, null) {
+            @Child private JSFunctionCallNode call = isNew ? JSFunctionCallNode.createNew() : JSFunctionCallNode.createCall();
+
+            @Override
+            public Object execute(VirtualFrame frame) {
+                Object thisObj = isNew ? JSFunction.CONSTRUCT : Undefined.instance;
+                return call.executeCall(JSArguments.createZeroArg(thisObj, frame.getArguments()[0]));
+            }
+        };
+        callTarget = Truffle.getRuntime().createCallTarget(root);
+    }
+
+    private void call(DynamicObject function, int expected) {
+        Object result = callTarget.call(function);
+        if (JSObject.isDynamicObject(result)) {
+            result = JSObject.get((DynamicObject) result, "v");
+        }
+        assertEquals(expected, ((Number) result).intValue());
+    }
+
+    private int countDirectCalls() {
+        return countDirectCalls(root);
+    }
+
+    private static int countDirectCalls(Node node) {
+        int count = node.getClass().getSimpleName().equals("MegamorphicDirectCallNode") ? 1 : 0;
+        for (Node child : node.getChildren()) {
+            count += countDirectCalls(child);
+        }
+        return count;
+    }
+
+    @Test
+    public void hotTarget() {
+        run(false, functions -> {
+            int coldCount = 2 * BUDGET / THRESHOLD + 1;
+            for (int i = 0; i < 3 * THRESHOLD; i++) {
+                call(functions[0], 0);
+                int cold = 1 + i % coldCount;
+                call(functions[cold], cold);
+            }
+            assertEquals(Math.min(LIMIT, 1), countDirectCalls());
+            for (int i = 0; i <= coldCount; i++) {
+                call(functions[i], i);
+            }
+        });
+    }
+
+    @Test
+    public void hotTargetNew() {
+        run(true, functions -> {
+            for (int i = 0; i < 3 * THRESHOLD; i++) {
+                int index = i % 2 == 0 ? 0 : 1 + i % 10;
+                call(functions[index], index);
+            }
+            assertEquals(Math.min(LIMIT, 1), countDirectCalls());
+        });
+    }
+
+    @Test
+    public void directCallLimit() {
+        run(false, functions -> {
+            int hotCount = LIMIT + 2;
+            for (int i = 0; i < hotCount * THRESHOLD * 2; i++) {
+                call(functions[i % hotCount], i % hotCount);
+            }
+            assertEquals(LIMIT, countDirectCalls());
+        });
+    }
+
+    @Test
+    public void budgetUsedUp() {
+        run(false, functions -> {
+            int coldCount = 2 * BUDGET / THRESHOLD + 1;
+            for (int i = 0; i < BUDGET; i++) {
+                int cold = 1 + i % coldCount;
+                call(functions[cold], cold);
+            }
+            for (int i = 0; i < 2 * THRESHOLD; i++) {
+                call(functions[0], 0);
+            }
+            assertEquals(0, countDirectCalls());
+        });
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.Consumer;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSTruffleOptions;
+import com.oracle.truffle.js.runtime.builtins.JSUserObject;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.MegamorphicPropertyCache;
+
+/**
+ * Checks that entries of the megamorphic property cache, including absent properties, follow
+ * changes of the prototype chain. Every test runs with prototypes stored in the shape (guarded by
+ * assumptions) and in the object (guarded by traversing the chain).
+ */
+public class MegamorphicPropertyCacheTest {
+
+    private JSContext jsContext;
+    private boolean prototypeInObject;
+
+    private void run(Consumer<MegamorphicPropertyCache> test) {
+        try (Context context = Context.create("js")) {
+            context.initialize("js");
+            context.enter();
+            try {
+                jsContext = AbstractJavaScriptLanguage.getCurrentJSRealm().getContext();
+                for (boolean inObject : new boolean[]{false, true}) {
+                    prototypeInObject = inObject;
+                    test.accept(new MegamorphicPropertyCache(64));
+                }
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    private DynamicObject create(DynamicObject prototype) {
+        if (prototypeInObject) {
+            return JSUserObject.createWithPrototypeInObject(prototype, jsContext);
+        } else {
+            return JSUserObject.createWithPrototype(prototype, jsContext);
+        }
+    }
+
+    private DynamicObject createRoot() {
+        return JSUserObject.createWithNullPrototype(jsContext);
+    }
+
+    @Test
+    public void hits() {
+        run(cache -> {
+            DynamicObject proto = create(createRoot());
+            JSObject.set(proto, "y", 2);
+            DynamicObject obj = create(proto);
+            JSObject.set(obj, "x", 1);
+            for (int i = 0; i < 2; i++) {
+                assertEquals(1, cache.get(obj, obj, "x"));
+                assertEquals(2, cache.get(obj, obj, "y"));
+                assertSame(MegamorphicPropertyCache.ABSENT, cache.get(obj, obj, "z"));
+                assertEquals(Boolean.TRUE, cache.has(obj, "x", true));
+                assertEquals(Boolean.FALSE, cache.has(obj, "y", true));
+                assertEquals(Boolean.TRUE, cache.has(obj, "y", false));
+                assertEquals(Boolean.FALSE, cache.has(obj, "z", false));
+            }
+            assertTrue(cache.setOwn(obj, "x", 3));
+            assertEquals(3, cache.get(obj, obj, "x"));
+            assertFalse(cache.setOwn(obj, "y", 3));
+            assertFalse(cache.setOwn(obj, "z", 3));
+            assertEquals(2, cache.get(obj, obj, "y"));
+            assertNull(cache.get(obj, obj, "0"));
+        });
+    }
+
+    @Test
+    public void prototypeMutation() {
+        run(cache -> {
+            DynamicObject root = createRoot();
+            DynamicObject proto = create(root);
+            JSObject.set(proto, "y", 2);
+            DynamicObject obj = create(proto);
+            assertEquals(2, cache.get(obj, obj, "y"));
+            assertSame(MegamorphicPropertyCache.ABSENT, cache.get(obj, obj, "z"));
+
+            JSObject.set(proto, "y", 3);
+            assertEquals(3, cache.get(obj, obj, "y"));
+            JSObject.delete(proto, "y");
+            assertSame(MegamorphicPropertyCache.ABSENT, cache.get(obj, obj, "y"));
+            assertEquals(Boolean.FALSE, cache.has(obj, "y", false));
+
+            JSObject.set(root, "z", 4);
+            assertEquals(4, cache.get(obj, obj, "z"));
+            assertEquals(Boolean.TRUE, cache.has(obj, "z", false));
+            JSObject.set(proto, "y", 5);
+            assertEquals(5, cache.get(obj, obj, "y"));
+        });
+    }
+
+    @Test
+    public void setPrototypeOf() {
+        run(cache -> {
+            DynamicObject proto1 = create(createRoot());
+            JSObject.set(proto1, "y", 1);
+            DynamicObject proto2 = create(createRoot());
+            JSObject.set(proto2, "y", 2);
+            DynamicObject mid = create(proto1);
+            DynamicObject obj = create(mid);
+            assertEquals(1, cache.get(obj, obj, "y"));
+            assertSame(MegamorphicPropertyCache.ABSENT, cache.get(obj, obj, "z"));
+
+            JSObject.setPrototype(mid, proto2);
+            assertEquals(2, cache.get(obj, obj, "y"));
+
+            DynamicObject proto3 = create(createRoot());
+            JSObject.set(proto3, "z", 3);
+            JSObject.setPrototype(mid, proto3);
+            assertSame(MegamorphicPropertyCache.ABSENT, cache.get(obj, obj, "y"));
+            assertEquals(3, cache.get(obj, obj, "z"));
+
+            JSObject.setPrototype(obj, proto1);
+            assertEquals(1, cache.get(obj, obj, "y"));
+            assertSame(MegamorphicPropertyCache.ABSENT, cache.get(obj, obj, "z"));
+        });
+    }
+
+    @Test
+    public void shadowingProperty() {
+        run(cache -> {
+            DynamicObject proto = create(createRoot());
+            JSObject.set(proto, "y", 1);
+            DynamicObject mid = create(proto);
+            DynamicObject obj = create(mid);
+            assertEquals(1, cache.get(obj, obj, "y"));
+
+            JSObject.set(mid, "y", 2);
+            assertEquals(2, cache.get(obj, obj, "y"));
+            JSObject.delete(mid, "y");
+            assertEquals(1, cache.get(obj, obj, "y"));
+
+            // a fresh object with the same shape as obj before the own property is added
+            DynamicObject other = create(mid);
+            JSObject.set(obj, "y", 3);
+            assertEquals(3, cache.get(obj, obj, "y"));
+            assertEquals(1, cache.get(other, other, "y"));
+            JSObject.delete(obj, "y");
+            assertEquals(1, cache.get(obj, obj, "y"));
+        });
+    }
+
+    @Test
+    public void megamorphicAccess() {
+        assert 12 > JSTruffleOptions.PropertyCacheLimit;
+        String code = "var proto = {get g() { return this.tag; }, p: 'p'};" +
+                        "function get(o) { return o.g + ',' + o.p + ',' + o.missing; }" +
+                        "function has(o) { return ('p' in o) + ',' + ('missing' in o) + ',' + o.hasOwnProperty('p'); }" +
+                        "var out = [];" +
+                        "for (var round = 0; round < 3; round++) {" +
+                        "  for (var i = 0; i < 12; i++) {" +
+                        "    var o = Object.create(proto);" +
+                        "    o['k' + i] = i;" +
+                        "    o.tag = i;" +
+                        "    if (round === 1 && i === 0) { proto.missing = 'm'; }" +
+                        "    if (round === 2 && i === 0) { delete proto.missing; Object.setPrototypeOf(proto, {p: 'q', missing: 'n'}); delete proto.p; }" +
+                        "    var r = get(o) + ';' + has(o);" +
+                        "    if (i === 11) { out.push(r); }" +
+                        "  }" +
+                        "}" +
+                        "out.join('|');";
+        assertEquals("11,p,undefined;true,false,false|11,p,m;true,true,false|11,q,n;true,true,false", evalToString(code));
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.JSContextOptions;
+
+/**
+ * Loads module graphs with the parallel module loader and checks that evaluation order, cycles and
+ * errors are the same as with the on-demand loader. Modules record their evaluation in the global
+ * {@code out} array.
+ */
+public class ParallelModuleLoaderTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("modules");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Files.delete(file);
+        }
+    }
+
+    private void write(String name, String code) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Evaluates main.mjs and returns the evaluation log, or the error followed by the log.
+     */
+    private String run(String threads) throws IOException {
+        try (Context context = Context.newBuilder("js").allowIO(true).option(JSContextOptions.MODULE_LOADER_THREADS_NAME, threads).build()) {
+            context.eval("js", "var out = [];");
+            String error = "";
+            try {
+                context.eval(Source.newBuilder("js", dir.resolve("main.mjs").toFile()).build());
+            } catch (PolyglotException e) {
+                error = (e.isSyntaxError() ? "SyntaxError: " : "Error: ") + e.getMessage() + "|";
+            }
+            return error + context.eval("js", "out.join()").asString();
+        }
+    }
+
+    private void assertSameAsOnDemand(String expected) throws IOException {
+        String onDemand = run("0");
+        if (expected != null) {
+            assertEquals(expected, onDemand);
+        }
+        assertEquals(onDemand, run("1"));
+        assertEquals(onDemand, run("4"));
+    }
+
+    @Test
+    public void evaluationOrder() throws IOException {
+        write("main.mjs", "import './a.mjs'; import './b.mjs'; import './sub/d.mjs'; out.push('main');");
+        write("a.mjs", "import './c.mjs'; out.push('a');");
+        write("b.mjs", "import './c.mjs'; import './a.mjs'; out.push('b');");
+        write("c.mjs", "out.push('c');");
+        write("sub/d.mjs", "import '../c.mjs'; import './../sub/e.mjs'; out.push('d');");
+        write("sub/e.mjs", "out.push('e');");
+        assertSameAsOnDemand("c,a,b,e,d,main");
+    }
+
+    @Test
+    public void wideGraph() throws IOException {
+        StringBuilder main = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            main.append("import { v" + i + " } from './m" + i + ".mjs';");
+            values.append(i == 0 ? "" : ", ").append("v" + i);
+            write("m" + i + ".mjs", "import { base } from './base.mjs'; export const v" + i + " = base + " + i + ";");
+            expected.append(',').append(100 + i);
+        }
+        main.append("out.push(" + values + ");");
+        write("main.mjs", main.toString());
+        write("base.mjs", "out.push('base'); export const base = 100;");
+        assertSameAsOnDemand("base" + expected);
+    }
+
+    @Test
+    public void importCycle() throws IOException {
+        write("main.mjs", "import { fa } from './a.mjs'; out.push('main:' + fa());");
+        write("a.mjs", "import { fb } from './b.mjs'; export function fa() { return 'a' + fb(); } out.push('a');");
+        write("b.mjs", "import { fa } from './a.mjs'; export function fb() { return 'b' + typeof fa; } out.push('b');");
+        assertSameAsOnDemand("b,a,main:abfunction");
+    }
+
+    @Test
+    public void selfImport() throws IOException {
+        write("main.mjs", "import * as self from './main.mjs'; export const x = 1; out.push('main:' + self.x);");
+        assertSameAsOnDemand("main:1");
+    }
+
+    @Test
+    public void syntaxErrorInImportedModule() throws IOException {
+        write("main.mjs", "import './a.mjs'; import './b.mjs'; out.push('main');");
+        write("a.mjs", "import './bad.mjs'; out.push('a');");
+        write("b.mjs", "out.push('b');");
+        write("bad.mjs", "out.push('bad'); export const = 1;");
+        String result = run("0");
+        assertTrue(result, result.startsWith("SyntaxError: ") && result.endsWith("|"));
+        assertSameAsOnDemand(null);
+    }
+
+    @Test
+    public void syntaxErrorInImportCycle() throws IOException {
+        write("main.mjs", "import './a.mjs'; out.push('main');");
+        write("a.mjs", "import './b.mjs'; out.push('a');");
+        write("b.mjs", "import './a.mjs'; import './bad.mjs'; out.push('b');");
+        write("bad.mjs", "import './a.mjs'; out.push(;");
+        String result = run("0");
+        assertTrue(result, result.startsWith("SyntaxError: ") && result.endsWith("|"));
+        assertSameAsOnDemand(null);
+    }
+
+    @Test
+    public void missingModule() throws IOException {
+        write("main.mjs", "import './a.mjs'; out.push('main');");
+        write("a.mjs", "import './missing.mjs'; out.push('a');");
+        String result = run("0");
+        assertTrue(result, result.startsWith("Error: ") && result.endsWith("|"));
+        assertSameAsOnDemand(null);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.test.JSTest.evalToString;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.js.runtime.AbstractJavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.JavaScriptRootNode;
+import com.oracle.truffle.js.runtime.builtins.JSFunction;
+import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+public class PromiseJobQueueTest {
+
+    @Test
+    public void fifoOrder() {
+        try (Context context = Context.create("js")) {
+            String code = "var log = [];" +
+                            "var thenable = { then(resolve) { log.push('thenable'); resolve('t'); } };" +
+                            "Promise.resolve(1).then(v => log.push('a' + v)).then(() => log.push('a2'));" +
+                            "Promise.resolve(thenable).then(v => log.push('b' + v));" +
+                            "(async function() { log.push('c0'); await null; log.push('c1'); await null; log.push('c2'); })();" +
+                            "Promise.reject(2).catch(v => log.push('d' + v));" +
+                            "log.push('sync');" +
+                            "'';";
+            evalToString(context, code);
+            assertEquals("c0,sync,a1,thenable,c1,d2,a2,bt,c2", evalToString(context, "log.join();"));
+        }
+    }
+
+    @Test
+    public void fifoOrderWhileGrowing() {
+        StringBuilder expected = new StringBuilder();
+        for (int step = 0; step < 3; step++) {
+            for (int i = 0; i < 50; i++) {
+                expected.append(expected.length() == 0 ? "" : ",").append(step).append(':').append(i);
+            }
+        }
+        try (Context context = Context.create("js")) {
+            String code = "var log = [];" +
+                            "for (let i = 0; i < 50; i++) {" +
+                            "  Promise.resolve().then(() => log.push('0:' + i)).then(() => log.push('1:' + i)).then(() => log.push('2:' + i));" +
+                            "}" +
+                            "'';";
+            evalToString(context, code);
+            assertEquals(expected.toString(), evalToString(context, "log.join();"));
+        }
+    }
+
+    @Test
+    public void jobsRunInTheirRealm() {
+        List<String> log = new ArrayList<>();
+        try (Context context = Context.create("js")) {
+            context.initialize("js");
+            context.enter();
+            try {
+                JSRealm mainRealm = AbstractJavaScriptLanguage.getCurrentJSRealm();
+                JSRealm childRealm = mainRealm.createChildRealm();
+                JSContext jsContext = mainRealm.getContext();
+                JSFunctionData job = createJob(jsContext, null, log);
+                for (int i = 0; i < 3; i++) {
+                    jsContext.promiseEnqueueJob(job, "main" + i, Undefined.instance);
+                    Object prev = childRealm.getTruffleContext().enter();
+                    try {
+                        jsContext.promiseEnqueueJob(job, "child" + i, Undefined.instance);
+                    } finally {
+                        childRealm.getTruffleContext().leave(prev);
+                    }
+                    jsContext.promiseEnqueueJob(JSFunction.create(childRealm, createJob(jsContext, "childFunction" + i, log)));
+                }
+                jsContext.processAllPendingPromiseJobs();
+            } finally {
+                context.leave();
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            expected.add("main" + i + "@main");
+            expected.add("child" + i + "@child");
+            expected.add("childFunction" + i + "@child");
+        }
+        assertEquals(expected, log);
+    }
+
+    /**
+     * Creates a job that logs its name, or its first argument if it has none, and the realm it is
+     * run in.
+     */
+    private static JSFunctionData createJob(JSContext context, String name, List<String> log) {
+        JavaScriptRootNode root = new JavaScriptRootNode(context.getLanguage(), null, null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                record(name != null ? name : JSArguments.getUserArgument(frame.getArguments(), 0));
+                return Undefined.instance;
+            }
+
+            @TruffleBoundary
+            private void record(Object jobName) {
+                log.add(jobName + "@" + (AbstractJavaScriptLanguage.getCurrentJSRealm().isChildRealm() ? "child" : "main"));
+            }
+        };
+        return JSFunctionData.create(context, Truffle.getRuntime().createCallTarget(root), 0, "job");
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.oracle.truffle.js.runtime.array.SparseArrayPageTable;
+
+public class SparseArrayPageTableTest {
+
+    @Test
+    public void putGetRemove() {
+        SparseArrayPageTable table = new SparseArrayPageTable();
+        assertTrue(table.isEmpty());
+        assertEquals(-1, table.firstKey());
+        assertEquals(-1, table.lastKey());
+
+        table.put(5, 1);
+        table.put(1000000, 2);
+        table.put(70, 3);
+        assertEquals(3, table.size());
+        assertEquals(3, table.getPageCount());
+        assertEquals(1, table.get(5));
+        assertEquals(3, table.get(70));
+        assertEquals(2, table.get(1000000));
+        assertNull(table.get(6));
+        assertFalse(table.containsKey(69));
+
+        table.put(5, 4);
+        assertEquals(3, table.size());
+        assertEquals(4, table.get(5));
+
+        assertTrue(table.remove(70));
+        assertFalse(table.remove(70));
+        assertEquals(2, table.size());
+        assertEquals(2, table.getPageCount());
+        assertNull(table.get(70));
+    }
+
+    @Test
+    public void holes() {
+        SparseArrayPageTable table = new SparseArrayPageTable();
+        long[] indices = {0, 3, 63, 64, 127, 4096, 4294967294L};
+        for (long index : indices) {
+            table.put(index, "v" + index);
+        }
+        assertEquals(indices.length, table.size());
+        assertEquals(0, table.firstKey());
+        assertEquals(4294967294L, table.lastKey());
+
+        long index = table.firstKey();
+        for (long expected : indices) {
+            assertEquals(expected, index);
+            assertEquals("v" + expected, table.get(index));
+            index = table.higherKey(index);
+        }
+        assertEquals(-1, index);
+
+        index = table.lastKey();
+        for (int i = indices.length - 1; i >= 0; i--) {
+            assertEquals(indices[i], index);
+            index = table.lowerKey(index);
+        }
+        assertEquals(-1, index);
+
+        assertEquals(64, table.higherKey(63));
+        assertEquals(4096, table.higherKey(128));
+        assertEquals(127, table.lowerKey(4096));
+        assertEquals(3, table.lowerKey(63));
+        for (long hole = 4; hole < 63; hole++) {
+            assertFalse(table.containsKey(hole));
+        }
+    }
+
+    @Test
+    public void truncate() {
+        SparseArrayPageTable table = new SparseArrayPageTable();
+        for (long i = 0; i < 300; i += 3) {
+            table.put(i, (int) i);
+        }
+        table.truncate(100);
+        assertEquals(34, table.size());
+        assertEquals(99, table.lastKey());
+        assertNull(table.get(102));
+        table.truncate(0);
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.getPageCount());
+    }
+
+    @Test
+    public void mixedIntDoubleReads() {
+        SparseArrayPageTable table = new SparseArrayPageTable();
+        table.put(0, 1);
+        table.put(1, 2.5);
+        table.put(2, 3);
+        assertEquals(Integer.valueOf(1), table.get(0));
+        assertEquals(Double.valueOf(2.5), table.get(1));
+        assertEquals(Integer.valueOf(3), table.get(2));
+
+        table.put(64, 1.5);
+        table.put(65, 7);
+        assertEquals(Double.valueOf(1.5), table.get(64));
+        assertEquals(Integer.valueOf(7), table.get(65));
+
+        table.put(2, "x");
+        table.put(128, 9);
+        assertEquals(Integer.valueOf(1), table.get(0));
+        assertEquals(Double.valueOf(2.5), table.get(1));
+        assertEquals("x", table.get(2));
+        assertEquals(Integer.valueOf(9), table.get(128));
+    }
+}
@@ -454,6 +454,8 @@ namespace v8 {
         heap_statistics->total_available_size_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->used_heap_size_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->heap_size_limit_ = 0;
+        heap_statistics->malloced_memory_ = graal_isolate->ReadInt64FromSharedBuffer();
+        heap_statistics->peak_malloced_memory_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->does_zap_garbage_ = false;
     }
 
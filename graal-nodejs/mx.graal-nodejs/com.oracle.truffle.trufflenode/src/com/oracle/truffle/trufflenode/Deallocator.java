@@ -46,9 +46,11 @@ import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A class responsible for the deallocation of the external memory segments associated with Java
@@ -61,6 +63,23 @@ final class Deallocator {
      * Determines whether {@code sun.misc.Cleaner} can be used for deallocation.
      */
     private static final boolean USE_CLEANER = Boolean.parseBoolean(System.getProperty("truffle.node.js.deallocateUsingCleaner", "true"));
+    /**
+     * Amount of outstanding external memory (in bytes) that triggers a garbage collection, so that
+     * the memory of unreachable buffers gets released. The collection is requested with
+     * {@link System#gc()}, i.e., it has no effect when explicit garbage collection is disabled
+     * ({@code -XX:+DisableExplicitGC}); the memory is then only released when the garbage
+     * collector runs on its own.
+     */
+    private static final long EXTERNAL_MEMORY_GC_THRESHOLD = Long.getLong("truffle.node.js.externalMemoryGCThreshold", 64L * 1024 * 1024);
+    /**
+     * Minimal time (in milliseconds) between two garbage collections requested by
+     * {@link #allocated}.
+     */
+    private static final long EXTERNAL_MEMORY_GC_INTERVAL = Long.getLong("truffle.node.js.externalMemoryGCInterval", 100);
+    /**
+     * Maximal number of pointers passed to one {@code NativeAccess.deallocateBatch} call.
+     */
+    private static final int BATCH_SIZE = 256;
     /**
      * {@code java.nio.DirectByteBuffer} {@code Class} object.
      */
@@ -99,7 +118,28 @@ final class Deallocator {
      * Collection holding all the weak references to the buffers whose memory has not been
      * deallocated yet.
      */
-    private final Set<ReferenceWithPointer> enqueued = Collections.synchronizedSet(new HashSet<>());
+    private final Set<ReferenceWithPointer> enqueued = ConcurrentHashMap.newKeySet();
+    /**
+     * Number of bytes of registered memory that has not been deallocated yet.
+     */
+    private final AtomicLong externalBytes = new AtomicLong();
+    /**
+     * Maximal value of {@link #externalBytes} seen so far.
+     */
+    private final AtomicLong peakExternalBytes = new AtomicLong();
+    /**
+     * Value of {@link #externalBytes} above which the next registration requests a garbage
+     * collection.
+     */
+    private final AtomicLong gcThreshold = new AtomicLong(EXTERNAL_MEMORY_GC_THRESHOLD);
+    /**
+     * Determines whether a requested garbage collection has not finished yet.
+     */
+    private final AtomicBoolean gcPending = new AtomicBoolean();
+    /**
+     * {@link System#nanoTime()} at the end of the last requested garbage collection.
+     */
+    private volatile long lastGCTime = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(EXTERNAL_MEMORY_GC_INTERVAL);
     /**
      * Determines whether the cleanup thread has been started.
      */
@@ -116,19 +156,84 @@ final class Deallocator {
      * @param pointer pointer to the memory that should be deallocated.
      */
     void register(ByteBuffer buffer, long pointer) {
+        int size = buffer.capacity();
         if (buffer.getClass() == DIRECT_BYTE_BUFFER_CLASS) {
             try {
                 CLEANER_FIELD.set(buffer, sun.misc.Cleaner.create(buffer, () -> {
                     NativeAccess.deallocate(pointer);
+                    released(size);
                 }));
             } catch (IllegalAccessException | IllegalArgumentException ex) {
                 ex.printStackTrace();
+                return;
             }
         } else {
             if (!cleanupThreadStarted) {
                 startCleanupThread();
             }
-            enqueued.add(new ReferenceWithPointer(buffer, pointer));
+            enqueued.add(new ReferenceWithPointer(buffer, pointer, size));
+        }
+        allocated(size);
+    }
+
+    /**
+     * Returns the number of bytes of registered memory that has not been deallocated yet.
+     */
+    long getExternalBytes() {
+        return externalBytes.get();
+    }
+
+    /**
+     * Returns the maximal number of bytes of registered memory that was not deallocated at the
+     * same time.
+     */
+    long getPeakExternalBytes() {
+        return peakExternalBytes.get();
+    }
+
+    private void allocated(long size) {
+        long total = externalBytes.addAndGet(size);
+        long peak = peakExternalBytes.get();
+        while (total > peak && !peakExternalBytes.compareAndSet(peak, total)) {
+            peak = peakExternalBytes.get();
+        }
+        long threshold = gcThreshold.get();
+        if (total > threshold && gcThreshold.compareAndSet(threshold, 2 * total)) {
+            // The memory is released only once the buffers are found unreachable.
+            // Like V8 does for external memory, let the garbage collector catch up.
+            requestGC();
+        }
+    }
+
+    /**
+     * Runs a garbage collection in a separate thread, so that the allocating thread is not
+     * stalled, unless one is still running or the last one ended less than
+     * {@link #EXTERNAL_MEMORY_GC_INTERVAL} ago.
+     */
+    private void requestGC() {
+        if (System.nanoTime() - lastGCTime < TimeUnit.MILLISECONDS.toNanos(EXTERNAL_MEMORY_GC_INTERVAL) || !gcPending.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread("Deallocator GC") {
+            @Override
+            public void run() {
+                try {
+                    System.gc();
+                } finally {
+                    lastGCTime = System.nanoTime();
+                    gcPending.set(false);
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void released(long size) {
+        long total = externalBytes.addAndGet(-size);
+        long threshold = gcThreshold.get();
+        if (total < threshold / 4 && threshold > EXTERNAL_MEMORY_GC_THRESHOLD) {
+            gcThreshold.compareAndSet(threshold, Math.max(EXTERNAL_MEMORY_GC_THRESHOLD, 2 * total));
         }
     }
 
@@ -142,11 +247,21 @@ final class Deallocator {
         Thread thread = new Thread() {
             @Override
             public void run() {
+                long[] pointers = new long[BATCH_SIZE];
                 try {
                     while (true) {
+                        // Block for the first cleared reference, then free whatever else
+                        // is already pending in a single native call.
                         ReferenceWithPointer reference = (ReferenceWithPointer) queue.remove();
-                        enqueued.remove(reference);
-                        reference.deallocate();
+                        int count = 0;
+                        long size = 0;
+                        do {
+                            enqueued.remove(reference);
+                            pointers[count++] = reference.pointer;
+                            size += reference.size;
+                        } while (count < BATCH_SIZE && (reference = (ReferenceWithPointer) queue.poll()) != null);
+                        NativeAccess.deallocateBatch(pointers, count);
+                        released(size);
                     }
                 } catch (InterruptedException iex) {
                     iex.printStackTrace();
@@ -168,14 +283,15 @@ final class Deallocator {
          * Pointer to the memory that should be deallocated.
          */
         private final long pointer;
+        /**
+         * Size of the memory that should be deallocated.
+         */
+        private final int size;
 
-        ReferenceWithPointer(ByteBuffer object, long pointer) {
+        ReferenceWithPointer(ByteBuffer object, long pointer, int size) {
             super(object, queue);
             this.pointer = pointer;
-        }
-
-        void deallocate() {
-            NativeAccess.deallocate(pointer);
+            this.size = size;
         }
     }
 
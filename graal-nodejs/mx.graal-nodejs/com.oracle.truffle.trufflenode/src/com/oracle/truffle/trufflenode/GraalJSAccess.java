@@ -2377,6 +2377,8 @@ public final class GraalJSAccess {
         sharedBuffer.putLong(total);
         sharedBuffer.putLong(max);
         sharedBuffer.putLong(total - free);
+        sharedBuffer.putLong(deallocator.getExternalBytes());
+        sharedBuffer.putLong(deallocator.getPeakExternalBytes());
     }
 
     private boolean terminateExecution;
@@ -130,6 +130,8 @@ public final class NativeAccess {
 
     public static native void deallocate(long pointer);
 
+    public static native void deallocateBatch(long[] pointers, int count);
+
     public static native void weakCallback(long callback, long data, int type);
 
     public static native void notifyGCCallbacks(boolean prolog);
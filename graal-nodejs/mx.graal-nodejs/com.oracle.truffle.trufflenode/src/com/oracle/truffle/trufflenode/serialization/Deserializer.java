@@ -70,10 +70,12 @@ import com.oracle.truffle.trufflenode.NativeAccess;
 import com.oracle.truffle.trufflenode.threading.JavaMessagePortData;
 import com.oracle.truffle.trufflenode.threading.SharedMemMessagingManager;
 
-import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -259,32 +261,29 @@ public class Deserializer {
     }
 
     private String readOneByteString() {
-        int charCount = readVarInt();
-        char[] chars = new char[charCount];
-        for (int i = 0; i < charCount; i++) {
-            byte b = buffer.get();
-            chars[i] = (char) (b & 0xff);
-        }
-        return new String(chars);
+        return readString(StandardCharsets.ISO_8859_1);
     }
 
     private String readTwoByteString() {
-        return readString(Serializer.NATIVE_UTF16_ENCODING);
+        int byteCount = readVarInt();
+        int position = buffer.position();
+        // The char view shares the buffer's native byte order.
+        CharBuffer chars = buffer.asCharBuffer();
+        chars.limit(byteCount / 2);
+        buffer.position(position + byteCount);
+        return chars.toString();
     }
 
     private String readUTF8String() {
-        return readString("UTF-8");
+        return readString(StandardCharsets.UTF_8);
     }
 
-    private String readString(String encoding) {
+    private String readString(Charset charset) {
         int byteCount = readVarInt();
-        byte[] bytes = new byte[byteCount];
-        buffer.get(bytes);
-        try {
-            return new String(bytes, encoding);
-        } catch (UnsupportedEncodingException ueex) {
-            throw Errors.shouldNotReachHere();
-        }
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(bytes.position() + byteCount);
+        buffer.position(bytes.limit());
+        return charset.decode(bytes).toString();
     }
 
     private DynamicObject readDate(JSContext context) {
@@ -316,10 +315,12 @@ public class Deserializer {
     private DynamicObject readJSArrayBuffer(JSContext context) {
         int byteLength = readVarInt();
         DynamicObject arrayBuffer = JSArrayBuffer.createDirectArrayBuffer(context, byteLength);
-        ByteBuffer byteBuffer = JSArrayBuffer.getDirectByteBuffer(arrayBuffer);
-        for (int i = 0; i < byteLength; i++) {
-            byteBuffer.put(i, buffer.get());
-        }
+        ByteBuffer byteBuffer = JSArrayBuffer.getDirectByteBuffer(arrayBuffer).duplicate();
+        ByteBuffer contents = buffer.duplicate();
+        contents.limit(contents.position() + byteLength);
+        byteBuffer.clear();
+        byteBuffer.put(contents);
+        buffer.position(contents.limit());
         assignId(arrayBuffer);
         return (peekTag() == SerializationTag.ARRAY_BUFFER_VIEW) ? readJSArrayBufferView(context, arrayBuffer) : arrayBuffer;
     }
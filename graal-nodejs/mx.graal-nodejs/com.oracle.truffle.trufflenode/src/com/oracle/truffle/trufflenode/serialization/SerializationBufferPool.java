@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.serialization;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+
+/**
+ * Pool of direct buffers used as scratch space by {@link Serializer}. Buffers are handed out in
+ * power-of-two size classes and returned once the serialized data has been copied to the native
+ * side, so that repeated {@code postMessage}/{@code v8.serialize} calls do not allocate (and later
+ * clean up) a new direct buffer each time. The pool is shared by all threads (i.e., workers).
+ */
+final class SerializationBufferPool {
+    static final int MIN_CAPACITY_SHIFT = 10; // 1 KiB
+    static final int MAX_CAPACITY_SHIFT = 20; // 1 MiB
+    /** Maximal number of idle buffers kept per size class. */
+    private static final int MAX_IDLE_PER_CLASS = 8;
+
+    @SuppressWarnings("unchecked") private static final ArrayDeque<ByteBuffer>[] idle = new ArrayDeque[MAX_CAPACITY_SHIFT - MIN_CAPACITY_SHIFT + 1];
+
+    static {
+        for (int i = 0; i < idle.length; i++) {
+            idle[i] = new ArrayDeque<>(MAX_IDLE_PER_CLASS);
+        }
+    }
+
+    private SerializationBufferPool() {
+    }
+
+    /**
+     * Returns a cleared direct buffer in native byte order with a capacity of at least
+     * {@code minCapacity}.
+     */
+    static ByteBuffer acquire(int minCapacity) {
+        int sizeClass = sizeClass(minCapacity);
+        if (sizeClass < 0) {
+            return allocate(minCapacity);
+        }
+        ArrayDeque<ByteBuffer> buffers = idle[sizeClass];
+        ByteBuffer buffer;
+        synchronized (buffers) {
+            buffer = buffers.pollFirst();
+        }
+        if (buffer == null) {
+            buffer = allocate(1 << (sizeClass + MIN_CAPACITY_SHIFT));
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #acquire} to the pool. The buffer must not be used by
+     * the caller afterwards.
+     */
+    static void release(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        int sizeClass = sizeClass(capacity);
+        if (sizeClass < 0 || capacity != 1 << (sizeClass + MIN_CAPACITY_SHIFT)) {
+            return; // not pooled
+        }
+        buffer.clear();
+        ArrayDeque<ByteBuffer> buffers = idle[sizeClass];
+        synchronized (buffers) {
+            if (buffers.size() < MAX_IDLE_PER_CLASS) {
+                buffers.addFirst(buffer);
+            }
+        }
+    }
+
+    /**
+     * Index of the smallest size class that can hold {@code capacity} bytes, or -1 if it is too
+     * large to be pooled.
+     */
+    private static int sizeClass(int capacity) {
+        int shift = capacity <= (1 << MIN_CAPACITY_SHIFT) ? MIN_CAPACITY_SHIFT : 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        return shift > MAX_CAPACITY_SHIFT ? -1 : shift - MIN_CAPACITY_SHIFT;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+}
@@ -43,7 +43,6 @@ package com.oracle.truffle.trufflenode.serialization;
 import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.BigInt;
-import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.array.TypedArray;
@@ -71,10 +70,10 @@ import com.oracle.truffle.trufflenode.GraalJSAccess;
 import com.oracle.truffle.trufflenode.NativeAccess;
 import com.oracle.truffle.trufflenode.threading.JavaMessagePortData;
 
-import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -85,12 +84,14 @@ import java.util.Map;
 public class Serializer {
     static final byte VERSION = (byte) 0xFF; // SerializationTag::kVersion
     static final byte LATEST_VERSION = (byte) 13; // kLatestVersion
-    static final String NATIVE_UTF16_ENCODING = (ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN) ? "UTF-16BE" : "UTF-16LE";
 
     /** Pointer to the corresponding v8::ValueSerializer. */
     private final long delegate;
-    /** Buffer used for serialization. */
-    private ByteBuffer buffer = allocateBuffer(1024);
+    /** Empty buffer of a released serializer, it is replaced on the next write. */
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocateDirect(0).order(ByteOrder.nativeOrder());
+
+    /** Buffer used for serialization (obtained from {@link SerializationBufferPool}). */
+    private ByteBuffer buffer = SerializationBufferPool.acquire(1024);
     /** ID of the next serialized object. **/
     private int nextId;
     /** Maps a serialized object to its ID. */
@@ -113,20 +114,17 @@ public class Serializer {
         this.treatArrayBufferViewsAsHostObjects = treatArrayBufferViewsAsHostObjects;
     }
 
-    private static ByteBuffer allocateBuffer(int capacity) {
-        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
-    }
-
     private void ensureFreeSpace(int spaceNeeded) {
         ByteBuffer oldBuffer = buffer;
         int capacity = oldBuffer.capacity();
         int capacityNeeded = oldBuffer.position() + spaceNeeded;
         if (capacityNeeded > capacity) {
             int newCapacity = Math.max(capacityNeeded, 2 * capacity);
-            ByteBuffer newBuffer = allocateBuffer(newCapacity);
+            ByteBuffer newBuffer = SerializationBufferPool.acquire(newCapacity);
             oldBuffer.flip();
             newBuffer.put(oldBuffer);
             buffer = newBuffer;
+            SerializationBufferPool.release(oldBuffer);
         }
     }
 
@@ -249,23 +247,13 @@ public class Serializer {
     }
 
     public void writeVarInt(long value) {
+        ensureFreeSpace(10);
         long rest = value;
-        byte[] bytes = new byte[10];
-        int idx = 0;
-        do {
-            byte b = (byte) rest;
-            b |= 0x80;
-            bytes[idx] = b;
-            idx++;
+        while ((rest & ~0x7FL) != 0) {
+            buffer.put((byte) (rest | 0x80));
             rest >>>= 7;
-        } while (rest != 0);
-        bytes[idx - 1] &= 0x7f;
-        writeBytes(bytes, idx);
-    }
-
-    private void writeBytes(byte[] bytes, int length) {
-        ensureFreeSpace(length);
-        buffer.put(bytes, 0, length);
+        }
+        buffer.put((byte) rest);
     }
 
     public void writeBytes(ByteBuffer bytes) {
@@ -288,29 +276,26 @@ public class Serializer {
     }
 
     private void writeString(String string) {
-        try {
-            byte[] bytes;
-            SerializationTag tag;
-            String encoding;
-            if (isOneByteString(string)) {
-                tag = SerializationTag.ONE_BYTE_STRING;
-                encoding = "ISO-8859-1";
-            } else {
-                tag = SerializationTag.TWO_BYTE_STRING;
-                encoding = NATIVE_UTF16_ENCODING;
-            }
-            writeTag(tag);
-            bytes = string.getBytes(encoding);
-            writeVarInt(bytes.length);
-            writeBytes(bytes, bytes.length);
-        } catch (UnsupportedEncodingException ueex) {
-            throw Errors.shouldNotReachHere();
+        int length = string.length();
+        if (isOneByteString(string)) {
+            byte[] bytes = string.getBytes(StandardCharsets.ISO_8859_1);
+            writeTag(SerializationTag.ONE_BYTE_STRING);
+            writeVarInt(length);
+            ensureFreeSpace(length);
+            buffer.put(bytes);
+        } else {
+            writeTag(SerializationTag.TWO_BYTE_STRING);
+            writeVarInt(2L * length);
+            ensureFreeSpace(2 * length);
+            // The char view shares the buffer's native byte order.
+            buffer.asCharBuffer().put(string);
+            buffer.position(buffer.position() + 2 * length);
         }
     }
 
     private static boolean isOneByteString(String string) {
-        for (char c : string.toCharArray()) {
-            if (c >= 256) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) >= 256) {
                 return false;
             }
         }
@@ -359,9 +344,9 @@ public class Serializer {
             writeTag(SerializationTag.ARRAY_BUFFER);
             writeVarInt(byteLength);
             ensureFreeSpace(byteLength);
-            for (int i = 0; i < byteLength; i++) {
-                buffer.put(byteBuffer.get(i));
-            }
+            ByteBuffer contents = byteBuffer.duplicate();
+            contents.clear().limit(byteLength);
+            buffer.put(contents);
         } else {
             writeTag(SerializationTag.ARRAY_BUFFER_TRANSFER);
             writeVarInt(Integer.toUnsignedLong(id));
@@ -528,8 +513,16 @@ public class Serializer {
     }
 
     public void release(ByteBuffer targetBuffer) {
+        JavaMessagePortData messagePort = access.getCurrentMessagePortData();
+        if (messagePort != null) {
+            // The message is about to be enqueued: publish the Java references it refers to.
+            messagePort.encodingCommit();
+        }
         buffer.flip();
         targetBuffer.put(buffer);
+        SerializationBufferPool.release(buffer);
+        // the pooled buffer must not be used any more, but size() and writes remain valid
+        buffer = EMPTY_BUFFER;
     }
 
     private void assignId(Object object) {
@@ -40,22 +40,19 @@
  */
 package com.oracle.truffle.trufflenode.threading;
 
-import java.util.Deque;
-import java.util.concurrent.ConcurrentLinkedDeque;
-
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.trufflenode.JSExternalObject;
 
 public class JavaMessagePortData {
 
     private final long nativePointer;
-    private final Deque<Object> queue;
+    private final JavaRefChannel channel;
     private int encodedRefs;
 
     public JavaMessagePortData(DynamicObject external) {
         assert JSExternalObject.isJSExternalObject(external);
         this.encodedRefs = 0;
-        this.queue = new ConcurrentLinkedDeque<>();
+        this.channel = new JavaRefChannel();
         this.nativePointer = JSExternalObject.getPointer(external);
     }
 
@@ -65,9 +62,19 @@ public class JavaMessagePortData {
 
     public void encodingBegin() {
         encodedRefs = 0;
+        channel.begin();
+    }
+
+    /**
+     * Makes the Java references of the message being encoded available to the receiving side. Has
+     * to be called before the encoded message is handed over to the native port.
+     */
+    public void encodingCommit() {
+        channel.commit();
     }
 
     public void encodingEnd() {
+        channel.end();
         encodedRefs = 0;
     }
 
@@ -76,19 +83,24 @@ public class JavaMessagePortData {
     }
 
     public void enqueueJavaRef(Object hostObject) {
-        queue.add(hostObject);
+        channel.add(hostObject);
         encodedRefs++;
     }
 
     public void disposeLastMessageRefs() {
-        for (int i = 0; i < encodedRefs; i++) {
-            queue.removeLast();
-        }
+        channel.discard();
         encodedRefs = 0;
     }
 
     public Object removeJavaRef() {
-        return queue.removeFirst();
+        return channel.remove();
+    }
+
+    /**
+     * Returns a human-readable summary of the traffic through this port.
+     */
+    public String getStatistics() {
+        return channel.toString();
     }
 
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.threading;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Single-producer/single-consumer channel of Java object references that accompany the messages
+ * posted to one node::MessagePortData. The producer is the thread that encodes messages for the
+ * port, the consumer is the thread that decodes them.
+ *
+ * References are appended to a chain of fixed-size segments. The references of one message are
+ * published to the consumer by a single volatile write when the message has been encoded
+ * ({@link #commit}), so the per-reference cost is a plain array store on either side. References of
+ * a message that is not delivered are overwritten by a marker that the consumer skips.
+ */
+final class JavaRefChannel {
+
+    /** Collect queue depth and latency statistics (costs a {@code System.nanoTime()} per message). */
+    static final boolean STATISTICS = Boolean.getBoolean("truffle.node.js.messagingStatistics");
+
+    private static final int SEGMENT_SHIFT = 8;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private static final Object DISCARDED = new Object();
+
+    private static final class Segment {
+        final Object[] refs = new Object[SEGMENT_SIZE];
+        /** Time at which the corresponding reference was published (if statistics are enabled). */
+        final long[] commitTimes = STATISTICS ? new long[SEGMENT_SIZE] : null;
+        volatile Segment next;
+    }
+
+    /** Number of references published to the consumer. */
+    private volatile long committed;
+
+    // Producer state
+    private Segment tailSegment;
+    private long written;
+    private long messageStart;
+    private Segment messageStartSegment;
+    private long messages;
+    private long discarded;
+    private long maxDepth;
+
+    // Consumer state
+    private Segment headSegment;
+    private long consumed;
+    private long committedCache;
+    private long received;
+    private long totalLatency;
+    private long maxLatency;
+    /** Consumer position, as seen by the producer (maintained only if statistics are enabled). */
+    private volatile long consumedSnapshot;
+
+    JavaRefChannel() {
+        Segment segment = new Segment();
+        this.tailSegment = segment;
+        this.messageStartSegment = segment;
+        this.headSegment = segment;
+    }
+
+    /**
+     * Producer: starts a new message.
+     */
+    void begin() {
+        assert written == committed;
+        messageStart = written;
+        messageStartSegment = tailSegment;
+    }
+
+    /**
+     * Producer: appends a reference to the current message. The reference is not visible to the
+     * consumer until the message is committed.
+     */
+    void add(Object ref) {
+        tailSegment.refs[(int) written & SEGMENT_MASK] = ref;
+        written++;
+        if ((written & SEGMENT_MASK) == 0) {
+            Segment next = new Segment();
+            tailSegment.next = next;
+            tailSegment = next;
+        }
+    }
+
+
+    /**
+     * Producer: publishes all references added so far to the consumer.
+     */
+    void commit() {
+        long count = written;
+        if (count == committed) {
+            return;
+        }
+        if (STATISTICS) {
+            long now = System.nanoTime();
+            long alreadyCommitted = committed;
+            Segment segment = messageStartSegment;
+            for (long i = messageStart; i < count; i++) {
+                if (i != messageStart && (i & SEGMENT_MASK) == 0) {
+                    segment = segment.next;
+                }
+                if (i >= alreadyCommitted) {
+                    segment.commitTimes[(int) i & SEGMENT_MASK] = now;
+                }
+            }
+            maxDepth = Math.max(maxDepth, count - consumedSnapshot);
+        }
+        messages++;
+        committed = count;
+    }
+
+    /**
+     * Producer: drops all references of the current message (because the message was not
+     * delivered) and publishes the resulting markers so that the consumer stays in sync.
+     */
+    void discard() {
+        Segment segment = messageStartSegment;
+        for (long i = messageStart; i < written; i++) {
+            if (i != messageStart && (i & SEGMENT_MASK) == 0) {
+                segment = segment.next;
+            }
+            segment.refs[(int) i & SEGMENT_MASK] = DISCARDED;
+        }
+        discarded += written - messageStart;
+        messageStart = written;
+        messageStartSegment = tailSegment;
+        committed = written;
+    }
+
+    /**
+     * Producer: finishes the current message. References that have not been committed belong to a
+     * message whose encoding failed, so they are discarded.
+     */
+    void end() {
+        if (written != committed) {
+            discard();
+        }
+    }
+
+    /**
+     * Consumer: removes the oldest published reference.
+     *
+     * @throws NoSuchElementException if there is no published reference
+     */
+    Object remove() {
+        while (true) {
+            if (consumed == committedCache) {
+                committedCache = committed;
+                if (consumed == committedCache) {
+                    throw new NoSuchElementException();
+                }
+            }
+            Segment segment = headSegment;
+            int index = (int) consumed & SEGMENT_MASK;
+            Object ref = segment.refs[index];
+            segment.refs[index] = null;
+            if (STATISTICS && ref != DISCARDED) {
+                long latency = System.nanoTime() - segment.commitTimes[index];
+                received++;
+                totalLatency += latency;
+                maxLatency = Math.max(maxLatency, latency);
+            }
+            consumed++;
+            if ((consumed & SEGMENT_MASK) == 0) {
+                headSegment = segment.next;
+            }
+            if (STATISTICS) {
+                consumedSnapshot = consumed;
+            }
+            if (ref != DISCARDED) {
+                return ref;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        String result = "messages=" + messages + " refs=" + committed + " discarded=" + discarded;
+        if (STATISTICS) {
+            result += " depth=" + (committed - consumedSnapshot) + " maxDepth=" + maxDepth + " avgLatencyNs=" + (received == 0 ? 0 : totalLatency / received) + " maxLatencyNs=" + maxLatency;
+        }
+        return result;
+    }
+}
@@ -67,17 +67,15 @@ public class SharedMemMessagingManager {
         assert JSExternalObject.isJSExternalObject(nativeMessagePortData);
         long pointer = JSExternalObject.getPointer(nativeMessagePortData);
 
-        JavaMessagePortData data = activeMessagePortRefs.get(pointer);
-        if (data == null) {
-            data = new JavaMessagePortData(nativeMessagePortData);
-            activeMessagePortRefs.put(pointer, data);
-        }
-        return data;
+        return activeMessagePortRefs.computeIfAbsent(pointer, p -> new JavaMessagePortData(nativeMessagePortData));
     }
 
     public static void disposeReferences(DynamicObject nativeMessagePortData) {
         assert JSExternalObject.isJSExternalObject(nativeMessagePortData);
         long pointer = JSExternalObject.getPointer(nativeMessagePortData);
-        activeMessagePortRefs.remove(pointer);
+        JavaMessagePortData data = activeMessagePortRefs.remove(pointer);
+        if (JavaRefChannel.STATISTICS && data != null) {
+            System.err.println("MessagePortData 0x" + Long.toHexString(pointer) + ": " + data.getStatistics());
+        }
     }
 }
@@ -349,9 +349,13 @@ void MessagePortData::MemoryInfo(MemoryTracker* tracker) const {
 void MessagePortData::AddToIncomingQueue(Message&& message) {
   // This function will be called by other threads.
   Mutex::ScopedLock lock(mutex_);
+  bool was_empty = incoming_messages_.empty();
   incoming_messages_.emplace_back(std::move(message));
 
-  if (owner_ != nullptr) {
+  // OnMessage() keeps receiving until the queue is empty, so the owner only
+  // needs to be woken up for the first message of a batch. Whenever it stops
+  // early (Stop(), failure, transfer), it is triggered again when it resumes.
+  if (owner_ != nullptr && was_empty) {
     Debug(owner_, "Adding message to incoming queue");
     owner_->TriggerAsync();
   }